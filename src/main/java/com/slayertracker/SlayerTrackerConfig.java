@@ -27,6 +27,7 @@ package com.slayertracker;
 import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
+import net.runelite.client.config.Units;
 
 @SuppressWarnings("SameReturnValue")
 @ConfigGroup(SlayerTrackerConfig.GROUP_NAME)
@@ -34,6 +35,7 @@ public interface SlayerTrackerConfig extends Config
 {
 	String GROUP_NAME = "slayertracker";
 	String LOOT_UNIT_KEY = "lootUnit";
+	String TIME_BASIS_KEY = "timeBasis";
 
 	@ConfigItem(
 		keyName = "lootUnit",
@@ -45,9 +47,65 @@ public interface SlayerTrackerConfig extends Config
 		return LootUnit.GRAND_EXCHANGE;
 	}
 
+	@ConfigItem(
+		keyName = "timeBasis",
+		name = "Rate Time",
+		description = "Time used for hourly rates: time logged by the recording mode, time in combat, "
+			+ "time on task, or time on task excluding idle periods."
+	)
+	default TimeBasis timeBasis()
+	{
+		return TimeBasis.RECORDED;
+	}
+
+	@Units(Units.MINUTES)
+	@ConfigItem(
+		keyName = "autosaveMinutes",
+		name = "Autosave Interval",
+		description = "Save records in the background this often while they have unsaved changes. 0 to save only on logout."
+	)
+	default int autosaveMinutes()
+	{
+		return 5;
+	}
+
+	@ConfigItem(
+		keyName = "saveFormat",
+		name = "Save Format",
+		description = "Format of the save file. Binary is smaller and faster to load; JSON can be read by hand. Each assignment's file is converted the next time it is saved."
+	)
+	default SaveFormat saveFormat()
+	{
+		return SaveFormat.JSON;
+	}
+
+	@ConfigItem(
+		keyName = "killHistory",
+		name = "Kill History",
+		description = "Keep a log of every kill, with its xp, loot and duration, in the profile's save folder."
+	)
+	default boolean killHistory()
+	{
+		return false;
+	}
+
 	enum LootUnit
 	{
 		GRAND_EXCHANGE,
 		HIGH_ALCHEMY
 	}
-}
\ No newline at end of file
+
+	enum TimeBasis
+	{
+		RECORDED,
+		IN_COMBAT,
+		ON_TASK,
+		ACTIVE
+	}
+
+	enum SaveFormat
+	{
+		JSON,
+		BINARY
+	}
+}
@@ -29,12 +29,17 @@ import com.slayertracker.groups.Master;
 import com.slayertracker.persistence.RecordRepository;
 import com.slayertracker.persistence.SlayerTrackerSaveManager;
 import com.slayertracker.records.AssignmentRecord;
+import com.slayertracker.records.Record;
+import com.slayertracker.records.RecordMetrics;
 import com.slayertracker.state.TrackerState;
 import com.slayertracker.tracker.Optimizer;
 import com.slayertracker.tracker.TrackerService;
 import com.slayertracker.views.SlayerTrackerPanel;
 import java.awt.image.BufferedImage;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
@@ -44,7 +49,9 @@ import net.runelite.api.events.ChatMessage;
 import net.runelite.api.events.CommandExecuted;
 import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.GameTick;
+import net.runelite.api.events.HitsplatApplied;
 import net.runelite.api.events.InteractingChanged;
+import net.runelite.api.events.ItemContainerChanged;
 import net.runelite.api.events.StatChanged;
 import net.runelite.api.events.VarbitChanged;
 import net.runelite.client.callback.ClientThread;
@@ -59,6 +66,7 @@ import net.runelite.client.plugins.PluginDependency;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.plugins.slayer.SlayerConfig;
 import net.runelite.client.plugins.slayer.SlayerPlugin;
+import net.runelite.client.task.Schedule;
 import net.runelite.client.ui.ClientToolbar;
 import net.runelite.client.ui.NavigationButton;
 import net.runelite.client.util.ImageUtil;
@@ -93,12 +101,14 @@ public class SlayerTrackerPlugin extends Plugin
 	@Override
 	protected void startUp()
 	{
-		slayerTrackerPanel = new SlayerTrackerPanel(trackerState, config, itemManager);
+		slayerTrackerPanel = new SlayerTrackerPanel(trackerState, config, itemManager, clientThread, trackerService::loadRecordDetail);
 		trackerState.addPropertyChangeListener(evt ->
 			clientThread.invokeLater(() ->
 				SwingUtilities.invokeLater(() ->
 					slayerTrackerPanel.update())));
 		trackerService.setRecordingModeController(slayerTrackerPanel.getRecordingModePresenter());
+		trackerService.setLoadFailureHandler(() ->
+			SwingUtilities.invokeLater(() -> slayerTrackerPanel.displayFileError()));
 		slayerTrackerPanel.getRecordingModePresenter()
 			.setPauseRequestHandler(() -> clientThread.invokeLater(trackerService::pauseRecordingIfIdle));
 
@@ -117,30 +127,53 @@ public class SlayerTrackerPlugin extends Plugin
 	@Override
 	protected void shutDown()
 	{
-		try
-		{
-			trackerService.saveRecords();
-			clientToolbar.removeNavigation(navButton);
-		}
-		catch (Exception e)
-		{
-			slayerTrackerPanel.displayFileError();
-		}
+		closeAndFlushRecords().whenComplete((result, e) -> {
+			if (e != null)
+			{
+				SwingUtilities.invokeLater(() -> slayerTrackerPanel.displayFileError());
+			}
+		});
+		clientToolbar.removeNavigation(navButton);
 	}
 
 	@Subscribe
 	public void onClientShutdown(ClientShutdown event)
 	{
-		event.waitFor(executor.submit(() -> {
+		event.waitFor(closeAndFlushRecords().whenComplete((result, e) -> {
+			if (e != null)
+			{
+				SwingUtilities.invokeLater(() -> slayerTrackerPanel.displayFileError());
+			}
+		}));
+	}
+
+	/**
+	 * Closes the session and saves on the client thread, which owns the records, then waits for
+	 * the writes on the executor.
+	 */
+	private CompletableFuture<Void> closeAndFlushRecords()
+	{
+		final CompletableFuture<Void> saved = new CompletableFuture<>();
+		clientThread.invoke(() -> trackerService.closeAndSaveRecords().whenComplete((result, e) -> {
+			if (e != null)
+			{
+				saved.completeExceptionally(e);
+			}
+			else
+			{
+				saved.complete(null);
+			}
+		}));
+		return saved.thenRunAsync(() -> {
 			try
 			{
-				trackerService.saveRecords();
+				trackerService.flushRecords();
 			}
 			catch (Exception e)
 			{
-				SwingUtilities.invokeLater(() -> slayerTrackerPanel.displayFileError());
+				throw new CompletionException(e);
 			}
-		}));
+		}, executor);
 	}
 
 	@Subscribe
@@ -179,7 +212,8 @@ public class SlayerTrackerPlugin extends Plugin
 		switch (event.getGroup())
 		{
 			case SlayerTrackerConfig.GROUP_NAME:
-				if (event.getKey().equals(SlayerTrackerConfig.LOOT_UNIT_KEY))
+				if (event.getKey().equals(SlayerTrackerConfig.LOOT_UNIT_KEY)
+					|| event.getKey().equals(SlayerTrackerConfig.TIME_BASIS_KEY))
 				{
 					clientThread.invokeLater(() ->
 						SwingUtilities.invokeLater(() ->
@@ -201,6 +235,12 @@ public class SlayerTrackerPlugin extends Plugin
 		trackerService.handleGameTick();
 	}
 
+	@Schedule(period = 1, unit = ChronoUnit.MINUTES)
+	public void autosave()
+	{
+		clientThread.invokeLater(() -> trackerService.autosave(config.autosaveMinutes()));
+	}
+
 	@Subscribe
 	public void onVarbitChanged(VarbitChanged event)
 	{
@@ -219,6 +259,18 @@ public class SlayerTrackerPlugin extends Plugin
 		trackerService.handleStatChanged(event);
 	}
 
+	@Subscribe
+	private void onHitsplatApplied(HitsplatApplied event)
+	{
+		trackerService.handleHitsplatApplied(event);
+	}
+
+	@Subscribe
+	private void onItemContainerChanged(ItemContainerChanged event)
+	{
+		trackerService.handleItemContainerChanged(event);
+	}
+
 	@Subscribe
 	private void onNpcLootReceived(NpcLootReceived event)
 	{
@@ -254,20 +306,25 @@ public class SlayerTrackerPlugin extends Plugin
 					AssignmentRecord ar = trackerState.getAssignmentRecords().get(a);
 
 					String name = a.getName();
-					double rate = ar.getGe() / ar.getHours();
-					double kcPerHour = ar.getKc() / ar.getHours();
+					RecordMetrics metrics = ar.getMetrics(config.timeBasis());
+					double rate = metrics.getGePerHour();
+					double kcPerHour = metrics.getKcPerHour();
+					double rateError = metrics.getGePerHourError();
 					double hours = Master.DURADEL.getTaskByName(name).getAverageAmount(trackerState.getPlayerUnlockState().getExtendedAssignments()) / kcPerHour;
 					double minHours = Master.Task.BOSS_MIN_AMOUNT / kcPerHour;
 					double maxHours = Master.Task.BOSS_MAX_AMOUNT / kcPerHour;
 					double weight = Master.DURADEL.getTaskByName(name).getWeight();
 
-					trackerService.log(name, "rate", rate, "hours", hours, "weight", weight);
+					trackerService.log(name, "rate", rate, "±", rateError, "hours", hours, "weight", weight);
 					return a.isBoss()
 						? Optimizer.Task.boss(name, rate, minHours, maxHours, weight)
 						: Optimizer.Task.normal(name, rate, hours, weight);
 				})
 				.collect(Collectors.toList());
 
+			Record pool = trackerState.getRollups().getMasters().get(Master.DURADEL);
+			trackerService.log("duradel pool", "rate", pool.getMetrics(config.timeBasis()).getGePerHour(), "kc/h", pool.getMetrics(config.timeBasis()).getKcPerHour());
+
 			Optimizer.Result r = Optimizer.optimize(
 				optimizerTasks,
 				Master.DURADEL.getTaskPointRevenueAtTimeScale(1000, trackerState.getPlayerUnlockState().isWesternDiary(), trackerState.getPlayerUnlockState().isKourendDiary()),
@@ -470,9 +470,11 @@ public enum Assignment
 		this.itemSpriteId = itemSpriteId;
 		this.boss = boss;
 		this.weaknessThreshold = weaknessThreshold;
-		this.variants = Arrays.stream(variants)
-			.map(variant -> Variant.scopeToAssignment(this.name(), variant))
-			.toArray(Variant[]::new);
+		this.variants = new Variant[variants.length];
+		for (int i = 0; i < variants.length; i++)
+		{
+			this.variants[i] = Variant.scopeToAssignment(this.name(), variants[i], i);
+		}
 	}
 
 	Assignment(String name, int itemSpriteId, int weaknessThreshold, Variant... variants)
@@ -347,6 +347,11 @@ public enum Master
 		return Arrays.stream(tasks).filter(t -> t.getAssignment().getName().equals(name)).findFirst().orElse(null);
 	}
 
+	public boolean assigns(Assignment assignment)
+	{
+		return Arrays.stream(tasks).anyMatch(t -> t.getAssignment() == assignment);
+	}
+
 	public double getTaskPointRevenueAtTimeScale(int timeScale, boolean westernElite, boolean kourendElite)
 	{
 		Map<Integer, Integer> rewardsTable;
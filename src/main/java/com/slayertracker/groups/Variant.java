@@ -45,18 +45,22 @@ public final class Variant
 	private final int slayerXp;
 	@Getter
 	private final Predicate<NPC> npcPredicate;
+	// Position among its assignment's variants, or -1 before it is scoped to one
+	@Getter
+	private final int ordinal;
 
-	private Variant(@Nullable String id, String name, int slayerXp, Predicate<NPC> npcPredicate)
+	private Variant(@Nullable String id, String name, int slayerXp, Predicate<NPC> npcPredicate, int ordinal)
 	{
 		this.id = id;
 		this.name = name;
 		this.slayerXp = slayerXp;
 		this.npcPredicate = npcPredicate;
+		this.ordinal = ordinal;
 	}
 
 	public static Variant of(String name, int slayerXp, Predicate<NPC> npcPredicate)
 	{
-		return new Variant(null, name, slayerXp, npcPredicate);
+		return new Variant(null, name, slayerXp, npcPredicate, -1);
 	}
 
 	public static Variant of(String name, Predicate<NPC> npcPredicate)
@@ -69,10 +73,10 @@ public final class Variant
 		return Variant.of(name, NpcPredicates.byName(name));
 	}
 
-	static Variant scopeToAssignment(String assignmentKey, Variant template)
+	static Variant scopeToAssignment(String assignmentKey, Variant template, int ordinal)
 	{
 		String scopedId = generateScopedId(assignmentKey, template.name);
-		Variant scopedVariant = new Variant(scopedId, template.name, template.slayerXp, template.npcPredicate);
+		Variant scopedVariant = new Variant(scopedId, template.name, template.slayerXp, template.npcPredicate, ordinal);
 		register(scopedVariant);
 		return scopedVariant;
 	}
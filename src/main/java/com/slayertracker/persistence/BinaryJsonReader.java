@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.persistence;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link JsonReader} over {@link BinarySaveFormat}, so the record codecs read binary files
+ * through the same calls as JSON.
+ */
+final class BinaryJsonReader extends JsonReader
+{
+	private static final Reader UNREADABLE_READER = new Reader()
+	{
+		@Override
+		public int read(char[] buffer, int offset, int length)
+		{
+			throw new AssertionError();
+		}
+
+		@Override
+		public void close()
+		{
+		}
+	};
+
+	private final DataInputStream in;
+	private final List<String> strings = new ArrayList<>();
+	// Tag of the next token, read ahead by peek; -1 when not yet read
+	private int peeked = -1;
+
+	BinaryJsonReader(InputStream input) throws IOException
+	{
+		super(UNREADABLE_READER);
+		in = new DataInputStream(input);
+
+		final byte[] magic = new byte[BinarySaveFormat.MAGIC.length];
+		in.readFully(magic);
+		if (!Arrays.equals(magic, BinarySaveFormat.MAGIC))
+		{
+			throw new IOException("Not a binary save file");
+		}
+		final int version = in.readUnsignedByte();
+		if (version != BinarySaveFormat.VERSION)
+		{
+			throw new IOException("Unsupported binary save format version: " + version);
+		}
+	}
+
+	@Override
+	public void beginObject() throws IOException
+	{
+		consume(BinarySaveFormat.BEGIN_OBJECT);
+	}
+
+	@Override
+	public void endObject() throws IOException
+	{
+		consume(BinarySaveFormat.END_OBJECT);
+	}
+
+	@Override
+	public void beginArray() throws IOException
+	{
+		consume(BinarySaveFormat.BEGIN_ARRAY);
+	}
+
+	@Override
+	public void endArray() throws IOException
+	{
+		consume(BinarySaveFormat.END_ARRAY);
+	}
+
+	@Override
+	public boolean hasNext() throws IOException
+	{
+		final int tag = peekTag();
+		return tag != BinarySaveFormat.END_OBJECT
+			&& tag != BinarySaveFormat.END_ARRAY
+			&& tag != BinarySaveFormat.END_DOCUMENT;
+	}
+
+	@Override
+	public JsonToken peek() throws IOException
+	{
+		final int tag = peekTag();
+		switch (tag)
+		{
+			case BinarySaveFormat.END_DOCUMENT:
+				return JsonToken.END_DOCUMENT;
+			case BinarySaveFormat.BEGIN_OBJECT:
+				return JsonToken.BEGIN_OBJECT;
+			case BinarySaveFormat.END_OBJECT:
+				return JsonToken.END_OBJECT;
+			case BinarySaveFormat.BEGIN_ARRAY:
+				return JsonToken.BEGIN_ARRAY;
+			case BinarySaveFormat.END_ARRAY:
+				return JsonToken.END_ARRAY;
+			case BinarySaveFormat.NAME:
+			case BinarySaveFormat.NAME_REF:
+				return JsonToken.NAME;
+			case BinarySaveFormat.STRING:
+			case BinarySaveFormat.STRING_REF:
+				return JsonToken.STRING;
+			case BinarySaveFormat.LONG:
+			case BinarySaveFormat.DOUBLE:
+				return JsonToken.NUMBER;
+			case BinarySaveFormat.TRUE:
+			case BinarySaveFormat.FALSE:
+				return JsonToken.BOOLEAN;
+			case BinarySaveFormat.NULL:
+				return JsonToken.NULL;
+			default:
+				throw new IOException("Unknown binary save tag: " + tag);
+		}
+	}
+
+	@Override
+	public String nextName() throws IOException
+	{
+		final int tag = peekTag();
+		if (tag != BinarySaveFormat.NAME && tag != BinarySaveFormat.NAME_REF)
+		{
+			throw unexpected(JsonToken.NAME);
+		}
+		peeked = -1;
+		return readString(tag == BinarySaveFormat.NAME);
+	}
+
+	@Override
+	public String nextString() throws IOException
+	{
+		switch (peekTag())
+		{
+			case BinarySaveFormat.STRING:
+				peeked = -1;
+				return readString(true);
+			case BinarySaveFormat.STRING_REF:
+				peeked = -1;
+				return readString(false);
+			case BinarySaveFormat.LONG:
+				peeked = -1;
+				return Long.toString(readLong());
+			case BinarySaveFormat.DOUBLE:
+				peeked = -1;
+				return Double.toString(in.readDouble());
+			default:
+				throw unexpected(JsonToken.STRING);
+		}
+	}
+
+	@Override
+	public boolean nextBoolean() throws IOException
+	{
+		final int tag = peekTag();
+		if (tag != BinarySaveFormat.TRUE && tag != BinarySaveFormat.FALSE)
+		{
+			throw unexpected(JsonToken.BOOLEAN);
+		}
+		peeked = -1;
+		return tag == BinarySaveFormat.TRUE;
+	}
+
+	@Override
+	public void nextNull() throws IOException
+	{
+		consume(BinarySaveFormat.NULL);
+	}
+
+	@Override
+	public double nextDouble() throws IOException
+	{
+		switch (peekTag())
+		{
+			case BinarySaveFormat.LONG:
+				peeked = -1;
+				return readLong();
+			case BinarySaveFormat.DOUBLE:
+				peeked = -1;
+				return in.readDouble();
+			case BinarySaveFormat.STRING:
+			case BinarySaveFormat.STRING_REF:
+				return Double.parseDouble(nextString());
+			default:
+				throw unexpected(JsonToken.NUMBER);
+		}
+	}
+
+	@Override
+	public long nextLong() throws IOException
+	{
+		switch (peekTag())
+		{
+			case BinarySaveFormat.LONG:
+				peeked = -1;
+				return readLong();
+			case BinarySaveFormat.DOUBLE:
+				peeked = -1;
+				final double value = in.readDouble();
+				final long asLong = (long) value;
+				if (asLong != value)
+				{
+					throw new NumberFormatException("Expected a long but was " + value);
+				}
+				return asLong;
+			case BinarySaveFormat.STRING:
+			case BinarySaveFormat.STRING_REF:
+				return Long.parseLong(nextString());
+			default:
+				throw unexpected(JsonToken.NUMBER);
+		}
+	}
+
+	@Override
+	public int nextInt() throws IOException
+	{
+		final long value = nextLong();
+		if ((int) value != value)
+		{
+			throw new NumberFormatException("Expected an int but was " + value);
+		}
+		return (int) value;
+	}
+
+	@Override
+	public void skipValue() throws IOException
+	{
+		int depth = 0;
+		do
+		{
+			final int tag = peekTag();
+			peeked = -1;
+			switch (tag)
+			{
+				case BinarySaveFormat.END_DOCUMENT:
+					return;
+				case BinarySaveFormat.BEGIN_OBJECT:
+				case BinarySaveFormat.BEGIN_ARRAY:
+					depth++;
+					break;
+				case BinarySaveFormat.END_OBJECT:
+				case BinarySaveFormat.END_ARRAY:
+					depth--;
+					break;
+				case BinarySaveFormat.NAME:
+				case BinarySaveFormat.STRING:
+					// Still read, so the string table stays in step with the writer
+					readString(true);
+					break;
+				case BinarySaveFormat.NAME_REF:
+				case BinarySaveFormat.STRING_REF:
+				case BinarySaveFormat.LONG:
+					readVarLong();
+					break;
+				case BinarySaveFormat.DOUBLE:
+					in.readDouble();
+					break;
+				default:
+					break;
+			}
+		}
+		while (depth > 0);
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		in.close();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "BinaryJsonReader";
+	}
+
+	private int peekTag() throws IOException
+	{
+		if (peeked < 0)
+		{
+			final int tag = in.read();
+			peeked = tag < 0 ? BinarySaveFormat.END_DOCUMENT : tag;
+		}
+		return peeked;
+	}
+
+	private void consume(int tag) throws IOException
+	{
+		if (peekTag() != tag)
+		{
+			throw new IllegalStateException("Unexpected " + peek() + " in binary save file");
+		}
+		peeked = -1;
+	}
+
+	private IllegalStateException unexpected(JsonToken expected) throws IOException
+	{
+		return new IllegalStateException("Expected " + expected + " but was " + peek() + " in binary save file");
+	}
+
+	private String readString(boolean inline) throws IOException
+	{
+		if (!inline)
+		{
+			final long index = readVarLong();
+			if (index < 0 || index >= strings.size())
+			{
+				throw new IOException("Invalid string reference: " + index);
+			}
+			return strings.get((int) index);
+		}
+
+		final byte[] bytes = new byte[(int) readVarLong()];
+		in.readFully(bytes);
+		final String value = new String(bytes, StandardCharsets.UTF_8);
+		strings.add(value);
+		return value;
+	}
+
+	private long readLong() throws IOException
+	{
+		final long zigzag = readVarLong();
+		return (zigzag >>> 1) ^ -(zigzag & 1);
+	}
+
+	private long readVarLong() throws IOException
+	{
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7)
+		{
+			final int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+			{
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint in binary save file");
+	}
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.persistence;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link JsonWriter} that emits {@link BinarySaveFormat} instead of text, in the way Gson's own
+ * tree writer stands in for a text writer.
+ */
+final class BinaryJsonWriter extends JsonWriter
+{
+	private static final Writer UNWRITABLE_WRITER = new Writer()
+	{
+		@Override
+		public void write(char[] buffer, int offset, int length)
+		{
+			throw new AssertionError();
+		}
+
+		@Override
+		public void flush()
+		{
+		}
+
+		@Override
+		public void close()
+		{
+		}
+	};
+
+	private final DataOutputStream out;
+	private final Map<String, Integer> strings = new HashMap<>();
+
+	BinaryJsonWriter(OutputStream output) throws IOException
+	{
+		super(UNWRITABLE_WRITER);
+		out = new DataOutputStream(output);
+		out.write(BinarySaveFormat.MAGIC);
+		out.writeByte(BinarySaveFormat.VERSION);
+	}
+
+	@Override
+	public JsonWriter beginObject() throws IOException
+	{
+		out.writeByte(BinarySaveFormat.BEGIN_OBJECT);
+		return this;
+	}
+
+	@Override
+	public JsonWriter endObject() throws IOException
+	{
+		out.writeByte(BinarySaveFormat.END_OBJECT);
+		return this;
+	}
+
+	@Override
+	public JsonWriter beginArray() throws IOException
+	{
+		out.writeByte(BinarySaveFormat.BEGIN_ARRAY);
+		return this;
+	}
+
+	@Override
+	public JsonWriter endArray() throws IOException
+	{
+		out.writeByte(BinarySaveFormat.END_ARRAY);
+		return this;
+	}
+
+	@Override
+	public JsonWriter name(String name) throws IOException
+	{
+		if (name == null)
+		{
+			throw new NullPointerException("name == null");
+		}
+		writeString(BinarySaveFormat.NAME, BinarySaveFormat.NAME_REF, name);
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(String value) throws IOException
+	{
+		if (value == null)
+		{
+			return nullValue();
+		}
+		writeString(BinarySaveFormat.STRING, BinarySaveFormat.STRING_REF, value);
+		return this;
+	}
+
+	@Override
+	public JsonWriter nullValue() throws IOException
+	{
+		out.writeByte(BinarySaveFormat.NULL);
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(boolean value) throws IOException
+	{
+		out.writeByte(value ? BinarySaveFormat.TRUE : BinarySaveFormat.FALSE);
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(Boolean value) throws IOException
+	{
+		return value == null ? nullValue() : value(value.booleanValue());
+	}
+
+	@Override
+	public JsonWriter value(double value) throws IOException
+	{
+		out.writeByte(BinarySaveFormat.DOUBLE);
+		out.writeDouble(value);
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(long value) throws IOException
+	{
+		out.writeByte(BinarySaveFormat.LONG);
+		writeVarLong((value << 1) ^ (value >> 63));
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(Number value) throws IOException
+	{
+		if (value == null)
+		{
+			return nullValue();
+		}
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+		{
+			return value(value.longValue());
+		}
+		return value(value.doubleValue());
+	}
+
+	@Override
+	public void flush() throws IOException
+	{
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		out.close();
+	}
+
+	private void writeString(int tag, int refTag, String value) throws IOException
+	{
+		final Integer index = strings.get(value);
+		if (index != null)
+		{
+			out.writeByte(refTag);
+			writeVarLong(index);
+			return;
+		}
+
+		strings.put(value, strings.size());
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeByte(tag);
+		writeVarLong(bytes.length);
+		out.write(bytes);
+	}
+
+	private void writeVarLong(long value) throws IOException
+	{
+		while ((value & ~0x7FL) != 0)
+		{
+			out.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+}
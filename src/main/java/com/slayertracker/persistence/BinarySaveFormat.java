@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.persistence;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.slayertracker.SlayerTrackerConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Binary encoding of the save file's JSON token stream.
+ * <p>
+ * A file starts with {@link #MAGIC} and a format version, then one tag byte per token. Integers
+ * are zigzag varints and other numbers 8-byte doubles. Names and strings go into a table as they
+ * first appear and are written as a varint index after that, so repeated field names, variant ids
+ * and custom record names cost a byte or two each. Records reach it through the same
+ * {@link JsonReader}/{@link JsonWriter} calls as JSON, so the two formats convert losslessly.
+ */
+final class BinarySaveFormat
+{
+	static final byte[] MAGIC = {'S', 'T', 'R', 'K'};
+	static final int VERSION = 1;
+
+	static final int END_DOCUMENT = 0;
+	static final int BEGIN_OBJECT = 1;
+	static final int END_OBJECT = 2;
+	static final int BEGIN_ARRAY = 3;
+	static final int END_ARRAY = 4;
+	static final int NAME = 5;
+	static final int NAME_REF = 6;
+	static final int STRING = 7;
+	static final int STRING_REF = 8;
+	static final int LONG = 9;
+	static final int DOUBLE = 10;
+	static final int TRUE = 11;
+	static final int FALSE = 12;
+	static final int NULL = 13;
+
+	private BinarySaveFormat()
+	{
+	}
+
+	/**
+	 * Opens a reader for either format, told apart by the magic header.
+	 *
+	 * @param input must support mark and reset
+	 */
+	static JsonReader newReader(InputStream input) throws IOException
+	{
+		input.mark(MAGIC.length);
+		final byte[] header = new byte[MAGIC.length];
+		final int read = input.readNBytes(header, 0, header.length);
+		input.reset();
+
+		if (read == MAGIC.length && Arrays.equals(header, MAGIC))
+		{
+			return new BinaryJsonReader(input);
+		}
+		return new JsonReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+	}
+
+	static JsonWriter newWriter(OutputStream output, SlayerTrackerConfig.SaveFormat format) throws IOException
+	{
+		if (format == SlayerTrackerConfig.SaveFormat.BINARY)
+		{
+			return new BinaryJsonWriter(output);
+		}
+		return new JsonWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Copies a save file of either format to {@code output} in the given format, token by token.
+	 */
+	static void convert(InputStream input, OutputStream output, SlayerTrackerConfig.SaveFormat format) throws IOException
+	{
+		final JsonReader in = newReader(input);
+		final JsonWriter out = newWriter(output, format);
+		transcode(in, out);
+		out.flush();
+	}
+
+	static void transcode(JsonReader in, JsonWriter out) throws IOException
+	{
+		int depth = 0;
+		do
+		{
+			switch (in.peek())
+			{
+				case BEGIN_OBJECT:
+					in.beginObject();
+					out.beginObject();
+					depth++;
+					break;
+				case END_OBJECT:
+					in.endObject();
+					out.endObject();
+					depth--;
+					break;
+				case BEGIN_ARRAY:
+					in.beginArray();
+					out.beginArray();
+					depth++;
+					break;
+				case END_ARRAY:
+					in.endArray();
+					out.endArray();
+					depth--;
+					break;
+				case NAME:
+					out.name(in.nextName());
+					break;
+				case STRING:
+					out.value(in.nextString());
+					break;
+				case NUMBER:
+					writeNumber(in.nextString(), out);
+					break;
+				case BOOLEAN:
+					out.value(in.nextBoolean());
+					break;
+				case NULL:
+					in.nextNull();
+					out.nullValue();
+					break;
+				case END_DOCUMENT:
+					return;
+			}
+		}
+		while (depth > 0);
+	}
+
+	private static void writeNumber(String number, JsonWriter out) throws IOException
+	{
+		if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0)
+		{
+			try
+			{
+				out.value(Long.parseLong(number));
+				return;
+			}
+			catch (NumberFormatException ignored)
+			{
+				// Beyond long; keep it as a double
+			}
+		}
+		out.value(Double.parseDouble(number));
+	}
+}
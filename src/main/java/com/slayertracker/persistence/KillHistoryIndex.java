@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.Getter;
+import net.runelite.api.Constants;
+
+/**
+ * Sparse index over the kill history, with the totals of each assignment per hour and per day.
+ * <p>
+ * A range query adds up whole days, then whole hours at either end, and reads raw rows only for
+ * the partial hours left at the edges, so its cost depends on the length of the range and not on
+ * how much history there is. Buckets are in UTC, which only decides where the edges fall; every
+ * row is still counted by its own timestamp.
+ */
+public class KillHistoryIndex
+{
+	static final long HOUR_MILLIS = 60 * 60 * 1000;
+	static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+	private static final int MAGIC = 0x53544b49; // "STKI"
+	private static final int VERSION = 1;
+
+	@Getter
+	public static class Totals
+	{
+		private long kc;
+		private long xp;
+		private long ge;
+		private long ha;
+		// Ticks between engaging and killing, over the kills where that was seen
+		private long durationTicks;
+
+		void add(int xp, long ge, long ha, int durationTicks)
+		{
+			kc++;
+			this.xp += xp;
+			this.ge += ge;
+			this.ha += ha;
+			if (durationTicks > 0)
+			{
+				this.durationTicks += durationTicks;
+			}
+		}
+
+		void add(Totals totals)
+		{
+			kc += totals.kc;
+			xp += totals.xp;
+			ge += totals.ge;
+			ha += totals.ha;
+			durationTicks += totals.durationTicks;
+		}
+
+		public double getHours()
+		{
+			return (double) durationTicks * Constants.GAME_TICK_LENGTH / HOUR_MILLIS;
+		}
+
+		public double getXpPerHour()
+		{
+			return durationTicks == 0 ? 0 : xp / getHours();
+		}
+	}
+
+	private static class Bucket
+	{
+		// Rows in this bucket lie within [firstRow, endRow), interleaved with others only if the
+		// clock went backwards
+		private long firstRow;
+		private long endRow;
+		private final Map<Integer, Totals> assignments = new HashMap<>();
+	}
+
+	private final TreeMap<Long, Bucket> hours = new TreeMap<>();
+	private final TreeMap<Long, Bucket> days = new TreeMap<>();
+	// Rows of the log added so far
+	@Getter
+	private long rows;
+
+	void add(long row, long epochMillis, int assignment, int xp, long ge, long ha, int durationTicks)
+	{
+		add(hours, Math.floorDiv(epochMillis, HOUR_MILLIS), row, assignment).add(xp, ge, ha, durationTicks);
+		add(days, Math.floorDiv(epochMillis, DAY_MILLIS), row, assignment).add(xp, ge, ha, durationTicks);
+		rows = row + 1;
+	}
+
+	private static Totals add(TreeMap<Long, Bucket> buckets, long key, long row, int assignment)
+	{
+		Bucket bucket = buckets.get(key);
+		if (bucket == null)
+		{
+			bucket = new Bucket();
+			bucket.firstRow = row;
+			buckets.put(key, bucket);
+		}
+		bucket.endRow = Math.max(bucket.endRow, row + 1);
+		return bucket.assignments.computeIfAbsent(assignment, a -> new Totals());
+	}
+
+	/**
+	 * Totals of the assignment's kills from {@code fromMillis} up to, not including, {@code toMillis}.
+	 */
+	Totals query(KillHistoryLog log, int assignment, long fromMillis, long toMillis) throws IOException
+	{
+		final Totals totals = new Totals();
+		if (fromMillis >= toMillis)
+		{
+			return totals;
+		}
+
+		final long firstDay = ceilDiv(fromMillis, DAY_MILLIS);
+		final long endDay = Math.floorDiv(toMillis, DAY_MILLIS);
+		if (firstDay < endDay)
+		{
+			sum(days, firstDay, endDay, assignment, totals);
+			queryHours(log, assignment, fromMillis, firstDay * DAY_MILLIS, totals);
+			queryHours(log, assignment, endDay * DAY_MILLIS, toMillis, totals);
+		}
+		else
+		{
+			queryHours(log, assignment, fromMillis, toMillis, totals);
+		}
+		return totals;
+	}
+
+	private void queryHours(KillHistoryLog log, int assignment, long fromMillis, long toMillis, Totals totals) throws IOException
+	{
+		if (fromMillis >= toMillis)
+		{
+			return;
+		}
+
+		final long firstHour = ceilDiv(fromMillis, HOUR_MILLIS);
+		final long endHour = Math.floorDiv(toMillis, HOUR_MILLIS);
+		if (firstHour < endHour)
+		{
+			sum(hours, firstHour, endHour, assignment, totals);
+			scanEdge(log, Math.floorDiv(fromMillis, HOUR_MILLIS), assignment, fromMillis, firstHour * HOUR_MILLIS, totals);
+			scanEdge(log, endHour, assignment, endHour * HOUR_MILLIS, toMillis, totals);
+		}
+		else
+		{
+			// Within one hour
+			scanEdge(log, Math.floorDiv(fromMillis, HOUR_MILLIS), assignment, fromMillis, toMillis, totals);
+		}
+	}
+
+	private static void sum(TreeMap<Long, Bucket> buckets, long fromKey, long toKey, int assignment, Totals totals)
+	{
+		for (Bucket bucket : buckets.subMap(fromKey, toKey).values())
+		{
+			final Totals bucketTotals = bucket.assignments.get(assignment);
+			if (bucketTotals != null)
+			{
+				totals.add(bucketTotals);
+			}
+		}
+	}
+
+	private void scanEdge(KillHistoryLog log, long hour, int assignment, long fromMillis, long toMillis, Totals totals) throws IOException
+	{
+		final Bucket bucket = hours.get(hour);
+		if (fromMillis >= toMillis || bucket == null || !bucket.assignments.containsKey(assignment))
+		{
+			return;
+		}
+
+		log.scan(bucket.firstRow, bucket.endRow, (row, tick, epochMillis, rowAssignment, variant, xp, ge, ha, durationTicks) -> {
+			if (rowAssignment == assignment && epochMillis >= fromMillis && epochMillis < toMillis)
+			{
+				totals.add(xp, ge, ha, durationTicks);
+			}
+		});
+	}
+
+	private static long ceilDiv(long x, long y)
+	{
+		return -Math.floorDiv(-x, y);
+	}
+
+	void write(File file) throws IOException
+	{
+		final File temp = new File(file.getPath() + ".tmp");
+		try (FileOutputStream fileOut = new FileOutputStream(temp);
+			 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut)))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(rows);
+			writeBuckets(out, hours);
+			writeBuckets(out, days);
+			out.flush();
+			fileOut.getFD().sync();
+		}
+
+		try
+		{
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void writeBuckets(DataOutputStream out, TreeMap<Long, Bucket> buckets) throws IOException
+	{
+		out.writeInt(buckets.size());
+		for (Map.Entry<Long, Bucket> entry : buckets.entrySet())
+		{
+			final Bucket bucket = entry.getValue();
+			out.writeLong(entry.getKey());
+			out.writeLong(bucket.firstRow);
+			out.writeLong(bucket.endRow);
+			out.writeShort(bucket.assignments.size());
+			for (Map.Entry<Integer, Totals> assignment : bucket.assignments.entrySet())
+			{
+				final Totals totals = assignment.getValue();
+				out.writeShort(assignment.getKey());
+				out.writeLong(totals.kc);
+				out.writeLong(totals.xp);
+				out.writeLong(totals.ge);
+				out.writeLong(totals.ha);
+				out.writeLong(totals.durationTicks);
+			}
+		}
+	}
+
+	/**
+	 * Reads an index written by {@link #write}, or returns an empty one if there is none or it
+	 * cannot be used. Rows it is missing are added back from the log by the caller.
+	 */
+	static KillHistoryIndex read(File file)
+	{
+		final KillHistoryIndex index = new KillHistoryIndex();
+		if (!file.exists())
+		{
+			return index;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+		{
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+			{
+				return new KillHistoryIndex();
+			}
+			index.rows = in.readLong();
+			readBuckets(in, index.hours);
+			readBuckets(in, index.days);
+			return index;
+		}
+		catch (IOException e)
+		{
+			return new KillHistoryIndex();
+		}
+	}
+
+	private static void readBuckets(DataInputStream in, TreeMap<Long, Bucket> buckets) throws IOException
+	{
+		final int count = in.readInt();
+		for (int i = 0; i < count; i++)
+		{
+			final long key = in.readLong();
+			final Bucket bucket = new Bucket();
+			bucket.firstRow = in.readLong();
+			bucket.endRow = in.readLong();
+			final int assignments = in.readShort();
+			for (int j = 0; j < assignments; j++)
+			{
+				final int assignment = in.readShort();
+				final Totals totals = new Totals();
+				totals.kc = in.readLong();
+				totals.xp = in.readLong();
+				totals.ge = in.readLong();
+				totals.ha = in.readLong();
+				totals.durationTicks = in.readLong();
+				bucket.assignments.put(assignment, totals);
+			}
+			buckets.put(key, bucket);
+		}
+	}
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only log of every kill, as fixed-width rows in memory-mapped segment files.
+ * <p>
+ * Each segment holds a fixed number of rows and is mapped whole, so an append is a single write
+ * into the page cache, and a scan reads rows straight out of the mapping without copying them onto
+ * the heap. When the last segment fills, the next one is created. Each segment's header holds how
+ * many of its rows are committed, which is only raised once the row itself has been forced to
+ * disk, so a crash can cut the log short but never leaves it ending in a torn row. Rows are
+ * addressed by their position across all segments, which never changes. Totals over a time range come from the
+ * {@link KillHistoryIndex} kept beside the segments.
+ */
+public class KillHistoryLog
+{
+	static final int ROWS_PER_SEGMENT = 1 << 15;
+	static final int ROW_BYTES = 40;
+	static final int HEADER_BYTES = 24;
+	private static final int MAGIC = 0x53544b48; // "STKH"
+	private static final int VERSION = 2;
+	// Header layout, with 4 bytes left spare so rows stay 8-byte aligned
+	private static final int ROW_COUNT = 16;
+	private static final Pattern SEGMENT_NAME = Pattern.compile("kills-(\\d{8})\\.seg");
+	private static final String INDEX_FILE_NAME = "index";
+
+	// Row layout
+	private static final int TICK = 0;
+	private static final int EPOCH_MILLIS = 4;
+	private static final int ASSIGNMENT = 12;
+	private static final int VARIANT = 14;
+	private static final int XP = 16;
+	private static final int GE = 20;
+	private static final int HA = 28;
+	private static final int DURATION_TICKS = 36;
+
+	public interface RowVisitor
+	{
+		/**
+		 * @param variant index into the assignment's variants, or -1 if the kill matched none
+		 * @param durationTicks ticks from engaging the NPC to its death, or -1 if not seen
+		 */
+		void visit(long row, int tick, long epochMillis, int assignment, int variant, int xp, long ge, long ha, int durationTicks);
+	}
+
+	private final File folder;
+	private final int rowsPerSegment;
+	// Mapping of each segment, in order. Full segments are mapped read-only when first scanned
+	private final List<MappedByteBuffer> segments = new ArrayList<>();
+	private MappedByteBuffer tail;
+	private int tailRows;
+	private final File indexFile;
+	private KillHistoryIndex index;
+	private long indexRowsWritten;
+
+	public KillHistoryLog(File folder) throws IOException
+	{
+		this(folder, ROWS_PER_SEGMENT);
+	}
+
+	KillHistoryLog(File folder, int rowsPerSegment) throws IOException
+	{
+		this.folder = folder;
+		this.rowsPerSegment = rowsPerSegment;
+
+		if (!folder.exists() && !folder.mkdirs())
+		{
+			throw new IOException("Could not create kill history folder: " + folder);
+		}
+
+		int segmentCount = 0;
+		final File[] files = folder.listFiles();
+		if (files != null)
+		{
+			for (File file : files)
+			{
+				final Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+				if (matcher.matches())
+				{
+					segmentCount = Math.max(segmentCount, Integer.parseInt(matcher.group(1)) + 1);
+				}
+			}
+		}
+		for (int i = 0; i < segmentCount - 1; i++)
+		{
+			if (!getSegmentFile(i).exists())
+			{
+				throw new IOException("Kill history segment missing: " + getSegmentFile(i));
+			}
+			segments.add(null);
+		}
+
+		openTail(Math.max(segmentCount - 1, 0));
+		tailRows = tail.getInt(ROW_COUNT);
+
+		// The index is written with each journal batch, so catch it up with the rows appended since
+		indexFile = new File(folder, INDEX_FILE_NAME);
+		index = KillHistoryIndex.read(indexFile);
+		if (index.getRows() > size())
+		{
+			index = new KillHistoryIndex();
+		}
+		indexRowsWritten = index.getRows();
+		scan(index.getRows(), size(), (row, tick, epochMillis, assignment, variant, xp, ge, ha, durationTicks) ->
+			index.add(row, epochMillis, assignment, xp, ge, ha, durationTicks));
+	}
+
+	/**
+	 * Number of rows written.
+	 */
+	public synchronized long size()
+	{
+		return (long) (segments.size() - 1) * rowsPerSegment + tailRows;
+	}
+
+	/**
+	 * Writes the row and forces it to disk before committing it. The raised count is forced with
+	 * the next row, or by {@link #force}, so a crash loses at most the last kill.
+	 */
+	public synchronized void append(int tick, long epochMillis, int assignment, int variant, int xp, long ge, long ha, int durationTicks) throws IOException
+	{
+		if (tailRows == rowsPerSegment)
+		{
+			// Commits the full segment's last row before moving on
+			tail.force();
+			openTail(segments.size());
+			tailRows = 0;
+		}
+
+		final int offset = HEADER_BYTES + tailRows * ROW_BYTES;
+		tail.putInt(offset + TICK, tick);
+		tail.putShort(offset + ASSIGNMENT, (short) assignment);
+		tail.putShort(offset + VARIANT, (short) variant);
+		tail.putInt(offset + XP, xp);
+		tail.putLong(offset + GE, ge);
+		tail.putLong(offset + HA, ha);
+		tail.putInt(offset + DURATION_TICKS, durationTicks);
+		tail.putLong(offset + EPOCH_MILLIS, epochMillis);
+		tail.force();
+		tail.putInt(ROW_COUNT, tailRows + 1);
+		index.add(size(), epochMillis, assignment, xp, ge, ha, durationTicks);
+		tailRows++;
+	}
+
+	/**
+	 * Totals of the assignment's kills from {@code fromMillis} up to, not including, {@code toMillis}.
+	 */
+	synchronized KillHistoryIndex.Totals query(int assignment, long fromMillis, long toMillis) throws IOException
+	{
+		return index.query(this, assignment, fromMillis, toMillis);
+	}
+
+	/**
+	 * Visits every row from {@code fromRow} up to, not including, {@code toRow}, oldest first.
+	 */
+	public synchronized void scan(long fromRow, long toRow, RowVisitor visitor) throws IOException
+	{
+		final long end = Math.min(toRow, size());
+		long row = Math.max(fromRow, 0);
+		while (row < end)
+		{
+			final int segment = (int) (row / rowsPerSegment);
+			final MappedByteBuffer buffer = getSegment(segment);
+			final long segmentEnd = Math.min(end, (long) (segment + 1) * rowsPerSegment);
+			for (; row < segmentEnd; row++)
+			{
+				final int offset = HEADER_BYTES + (int) (row % rowsPerSegment) * ROW_BYTES;
+				visitor.visit(row,
+					buffer.getInt(offset + TICK),
+					buffer.getLong(offset + EPOCH_MILLIS),
+					buffer.getShort(offset + ASSIGNMENT),
+					buffer.getShort(offset + VARIANT),
+					buffer.getInt(offset + XP),
+					buffer.getLong(offset + GE),
+					buffer.getLong(offset + HA),
+					buffer.getInt(offset + DURATION_TICKS));
+			}
+		}
+	}
+
+	public void scan(RowVisitor visitor) throws IOException
+	{
+		scan(0, Long.MAX_VALUE, visitor);
+	}
+
+	/**
+	 * Forces the count of committed rows to disk and saves the index. Rows already survive the
+	 * client closing without this; it only matters if the machine goes down.
+	 */
+	public synchronized void force() throws IOException
+	{
+		tail.force();
+		writeIndex();
+	}
+
+	/**
+	 * Saves the index if rows were appended since it was last saved, so opening the log only has
+	 * to catch it up with those.
+	 */
+	public synchronized void writeIndex() throws IOException
+	{
+		if (index.getRows() == indexRowsWritten)
+		{
+			return;
+		}
+		index.write(indexFile);
+		indexRowsWritten = index.getRows();
+	}
+
+	private MappedByteBuffer getSegment(int segment) throws IOException
+	{
+		MappedByteBuffer buffer = segments.get(segment);
+		if (buffer == null)
+		{
+			try (FileChannel channel = FileChannel.open(getSegmentFile(segment).toPath()))
+			{
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+			checkHeader(buffer, getSegmentFile(segment));
+			segments.set(segment, buffer);
+		}
+		return buffer;
+	}
+
+	private void openTail(int segment) throws IOException
+	{
+		final File file = getSegmentFile(segment);
+		final boolean created = !file.exists();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+		{
+			// Mapping past the end grows the file, which the OS fills with zeros
+			tail = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) rowsPerSegment * ROW_BYTES);
+		}
+		if (created)
+		{
+			tail.putInt(0, MAGIC);
+			tail.putInt(4, VERSION);
+			tail.putInt(8, ROW_BYTES);
+			tail.putInt(12, rowsPerSegment);
+			tail.putInt(ROW_COUNT, 0);
+		}
+		else
+		{
+			checkHeader(tail, file);
+		}
+
+		if (segment == segments.size())
+		{
+			segments.add(tail);
+		}
+		else
+		{
+			segments.set(segment, tail);
+		}
+	}
+
+	private void checkHeader(MappedByteBuffer buffer, File file) throws IOException
+	{
+		if (buffer.capacity() < HEADER_BYTES
+			|| buffer.getInt(0) != MAGIC
+			|| buffer.getInt(4) != VERSION
+			|| buffer.getInt(8) != ROW_BYTES
+			|| buffer.getInt(12) != rowsPerSegment
+			|| buffer.getInt(ROW_COUNT) < 0
+			|| buffer.getInt(ROW_COUNT) > rowsPerSegment)
+		{
+			throw new IOException("Not a kill history segment: " + file);
+		}
+	}
+
+	private File getSegmentFile(int segment)
+	{
+		return new File(folder, String.format("kills-%08d.seg", segment));
+	}
+}
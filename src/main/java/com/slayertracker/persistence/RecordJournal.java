@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.persistence;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only log of what assignment records gained since the last snapshot, one JSON line each.
+ * <p>
+ * Lines are batched by the caller and forced to disk once per batch, so a crash loses at most the
+ * batch in flight. Lines add to their assignment and are numbered, so replay skips the ones a
+ * snapshot already holds. Only touched from the save manager's I/O thread.
+ */
+class RecordJournal
+{
+	private final File file;
+	private FileOutputStream out;
+
+	RecordJournal(File file)
+	{
+		this.file = file;
+	}
+
+	File getFile()
+	{
+		return file;
+	}
+
+	void append(byte[] lines) throws IOException
+	{
+		if (out == null)
+		{
+			out = new FileOutputStream(file, true);
+		}
+		out.write(lines);
+		out.getChannel().force(false);
+	}
+
+	List<String> readLines() throws IOException
+	{
+		List<String> lines = new ArrayList<>();
+		if (!file.exists())
+		{
+			return lines;
+		}
+
+		try (BufferedReader reader = new BufferedReader(
+			new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (!line.isEmpty())
+				{
+					lines.add(line);
+				}
+			}
+		}
+		return lines;
+	}
+
+	long length()
+	{
+		return file.length();
+	}
+
+	/**
+	 * Drops every line, once they are all covered by a snapshot.
+	 */
+	void truncate() throws IOException
+	{
+		close();
+		Files.deleteIfExists(file.toPath());
+	}
+
+	void close() throws IOException
+	{
+		if (out != null)
+		{
+			out.close();
+			out = null;
+		}
+	}
+}
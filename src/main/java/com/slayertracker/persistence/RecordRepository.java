@@ -29,10 +29,25 @@ import com.slayertracker.groups.Assignment;
 import com.slayertracker.records.AssignmentRecord;
 import com.slayertracker.records.RecordMap;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
 public interface RecordRepository
 {
 	HashMap<Assignment, AssignmentRecord> load(String dataFileName) throws Exception;
 
+	CompletableFuture<RecordMap<Assignment, AssignmentRecord>> loadAsync(String dataFileName, Assignment detailAssignment);
+
 	void save(RecordMap<Assignment, AssignmentRecord> assignmentRecords, String dataFileName) throws Exception;
+
+	CompletableFuture<AssignmentRecord> loadDetail(Assignment assignment, String dataFileName);
+
+	void mergeDetail(Assignment assignment, AssignmentRecord assignmentRecord, AssignmentRecord detail);
+
+	void flush() throws Exception;
+
+	KillHistoryLog getKillHistory(String dataFileName) throws Exception;
+
+	void appendKillHistory(String dataFileName, int tick, long epochMillis, int assignment, int variant, int xp, long ge, long ha, int durationTicks);
+
+	void journal(RecordMap<Assignment, AssignmentRecord> assignmentRecords, String dataFileName) throws Exception;
 }
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.persistence;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.slayertracker.groups.Assignment;
+import com.slayertracker.records.AssignmentRecord;
+import com.slayertracker.records.RecordChanges;
+import com.slayertracker.records.RecordMap;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Streaming reader and writer for save files and journal lines, in the JSON layout older versions
+ * saved through Gson, without reflection or an intermediate tree.
+ */
+final class SaveFileCodec
+{
+	private SaveFileCodec()
+	{
+	}
+
+	static void writeSaveFile(JsonWriter out, int schemaVersion, Map<Assignment, AssignmentRecord> records) throws IOException
+	{
+		out.beginObject();
+		out.name("schemaVersion").value(schemaVersion);
+		out.name("records").beginObject();
+		for (Map.Entry<Assignment, AssignmentRecord> entry : records.entrySet())
+		{
+			out.name(entry.getKey().name());
+			entry.getValue().writeJson(out);
+		}
+		out.endObject();
+		out.endObject();
+	}
+
+	/**
+	 * Reads a save file that begins with {@code schemaVersion}, as written by
+	 * {@link #writeSaveFile}.
+	 *
+	 * @return null if the file is at another schema version or does not lead with it, so the
+	 * caller can migrate the file first
+	 */
+	static RecordMap<Assignment, AssignmentRecord> readSaveFile(JsonReader in, int schemaVersion, PropertyChangeListener pcl) throws IOException
+	{
+		return readRecordsFile(in, schemaVersion, "records", false, pcl);
+	}
+
+	/**
+	 * The summary index lists every assignment's summary, in the save file layout.
+	 */
+	static void writeIndex(JsonWriter out, int schemaVersion, Map<Assignment, AssignmentRecord> records) throws IOException
+	{
+		out.beginObject();
+		out.name("schemaVersion").value(schemaVersion);
+		out.name("summaries").beginObject();
+		for (Map.Entry<Assignment, AssignmentRecord> entry : records.entrySet())
+		{
+			out.name(entry.getKey().name());
+			entry.getValue().writeSummaryJson(out);
+		}
+		out.endObject();
+		out.endObject();
+	}
+
+	/**
+	 * @return records holding only their summaries, or null if the index is at another schema
+	 * version
+	 */
+	static RecordMap<Assignment, AssignmentRecord> readIndex(JsonReader in, int schemaVersion, PropertyChangeListener pcl) throws IOException
+	{
+		return readRecordsFile(in, schemaVersion, "summaries", true, pcl);
+	}
+
+	private static RecordMap<Assignment, AssignmentRecord> readRecordsFile(JsonReader in, int schemaVersion, String recordsName, boolean summaries, PropertyChangeListener pcl) throws IOException
+	{
+		final RecordMap<Assignment, AssignmentRecord> records = new RecordMap<>(pcl);
+		if (in.peek() != JsonToken.BEGIN_OBJECT)
+		{
+			return records;
+		}
+
+		in.beginObject();
+		if (!in.hasNext())
+		{
+			return records;
+		}
+		if (!in.nextName().equals("schemaVersion") || in.peek() != JsonToken.NUMBER || in.nextInt() != schemaVersion)
+		{
+			return null;
+		}
+
+		while (in.hasNext())
+		{
+			if (in.nextName().equals(recordsName) && in.peek() == JsonToken.BEGIN_OBJECT)
+			{
+				readRecords(in, records, summaries, pcl);
+			}
+			else
+			{
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		return records;
+	}
+
+	static void writeJournalEntry(JsonWriter out, int schemaVersion, Assignment assignment, AssignmentRecord record) throws IOException
+	{
+		out.beginObject();
+		out.name("schemaVersion").value(schemaVersion);
+		out.name("assignment").value(assignment.name());
+		if (record != null)
+		{
+			out.name("record");
+			record.writeJson(out);
+		}
+		out.endObject();
+	}
+
+	/**
+	 * A journal line holding what the assignment's record gained since the line before, or a
+	 * tombstone if {@code changes} is null.
+	 *
+	 * @param sequence increases with every line of a profile's journal
+	 */
+	static void writeJournalChanges(JsonWriter out, int schemaVersion, Assignment assignment, long sequence, RecordChanges changes) throws IOException
+	{
+		out.beginObject();
+		out.name("schemaVersion").value(schemaVersion);
+		out.name("assignment").value(assignment.name());
+		out.name("sequence").value(sequence);
+		if (changes != null)
+		{
+			out.name("changes");
+			changes.writeJson(out);
+		}
+		out.endObject();
+	}
+
+	/**
+	 * Applies one journal line to {@code records}: changes are added over the assignment's record,
+	 * a whole record replaces it, and a line with neither removes the assignment. Lines at another
+	 * schema version are ignored, and so are numbered lines the record was saved after, which a
+	 * crash between a save and its truncation of the journal leaves behind.
+	 */
+	static void readJournalEntry(JsonReader in, int schemaVersion, RecordMap<Assignment, AssignmentRecord> records, PropertyChangeListener pcl) throws IOException
+	{
+		final Entry entry = readEntry(in, pcl);
+		if (entry.assignment == null || entry.schemaVersion != schemaVersion)
+		{
+			return;
+		}
+		AssignmentRecord record = records.get(entry.assignment);
+		if (record != null && entry.sequence != 0 && entry.sequence <= record.getJournalSequence())
+		{
+			return;
+		}
+		if (entry.changes != null)
+		{
+			if (record == null)
+			{
+				record = new AssignmentRecord(pcl);
+				records.put(entry.assignment, record);
+			}
+			record.applyChanges(entry.changes);
+			record.setJournalSequence(entry.sequence);
+		}
+		else if (entry.record != null)
+		{
+			records.put(entry.assignment, entry.record);
+		}
+		else
+		{
+			records.remove(entry.assignment);
+		}
+	}
+
+	/**
+	 * A shard holds one assignment's record, in the same layout as a journal line.
+	 */
+	static void writeShard(JsonWriter out, int schemaVersion, Assignment assignment, AssignmentRecord record) throws IOException
+	{
+		writeJournalEntry(out, schemaVersion, assignment, record);
+	}
+
+	/**
+	 * @throws IOException if the shard is not {@code assignment}'s or not at {@code schemaVersion}
+	 */
+	static AssignmentRecord readShard(JsonReader in, int schemaVersion, Assignment assignment, PropertyChangeListener pcl) throws IOException
+	{
+		final Entry entry = readEntry(in, pcl);
+		if (entry.assignment != assignment || entry.schemaVersion != schemaVersion || entry.record == null)
+		{
+			throw new IOException("Shard is not a schema " + schemaVersion + " record of " + assignment);
+		}
+		return entry.record;
+	}
+
+	/**
+	 * Reads the detail a summary leaves out from {@code assignment}'s shard, to be merged into the
+	 * summary with {@link AssignmentRecord#mergeDetail}.
+	 *
+	 * @throws IOException if the shard is not {@code assignment}'s or not at {@code schemaVersion}
+	 */
+	static AssignmentRecord readShardDetail(JsonReader in, int schemaVersion, Assignment assignment, PropertyChangeListener pcl) throws IOException
+	{
+		int entrySchemaVersion = 0;
+		Assignment entryAssignment = null;
+		AssignmentRecord detail = null;
+		in.beginObject();
+		while (in.hasNext())
+		{
+			switch (in.nextName())
+			{
+				case "schemaVersion":
+					entrySchemaVersion = in.nextInt();
+					break;
+				case "assignment":
+					entryAssignment = assignmentByName(in.nextString());
+					break;
+				case "record":
+					// Written after the header, so both are known by now
+					if (entryAssignment != assignment || entrySchemaVersion != schemaVersion)
+					{
+						throw new IOException("Shard is not a schema " + schemaVersion + " record of " + assignment);
+					}
+					detail = new AssignmentRecord(pcl);
+					detail.readDetailJson(in, pcl);
+					break;
+				default:
+					in.skipValue();
+			}
+		}
+		in.endObject();
+
+		if (detail == null)
+		{
+			throw new IOException("Shard of " + assignment + " holds no record");
+		}
+		return detail;
+	}
+
+	private static Entry readEntry(JsonReader in, PropertyChangeListener pcl) throws IOException
+	{
+		final Entry entry = new Entry();
+		in.beginObject();
+		while (in.hasNext())
+		{
+			switch (in.nextName())
+			{
+				case "schemaVersion":
+					entry.schemaVersion = in.nextInt();
+					break;
+				case "assignment":
+					entry.assignment = assignmentByName(in.nextString());
+					break;
+				case "record":
+					entry.record = new AssignmentRecord(pcl);
+					entry.record.readJson(in, pcl);
+					break;
+				case "sequence":
+					entry.sequence = in.nextLong();
+					break;
+				case "changes":
+					entry.changes = RecordChanges.readJson(in, pcl);
+					break;
+				default:
+					in.skipValue();
+			}
+		}
+		in.endObject();
+		return entry;
+	}
+
+	private static void readRecords(JsonReader in, RecordMap<Assignment, AssignmentRecord> records, boolean summaries, PropertyChangeListener pcl) throws IOException
+	{
+		in.beginObject();
+		while (in.hasNext())
+		{
+			final Assignment assignment = assignmentByName(in.nextName());
+			if (assignment == null || in.peek() == JsonToken.NULL)
+			{
+				in.skipValue();
+				continue;
+			}
+
+			final AssignmentRecord record = new AssignmentRecord(pcl);
+			if (summaries)
+			{
+				record.readSummaryJson(in, pcl);
+			}
+			else
+			{
+				record.readJson(in, pcl);
+			}
+			records.put(assignment, record);
+		}
+		in.endObject();
+	}
+
+	private static Assignment assignmentByName(String name)
+	{
+		try
+		{
+			return Assignment.valueOf(name);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return null;
+		}
+	}
+
+	private static final class Entry
+	{
+		private int schemaVersion;
+		private Assignment assignment;
+		private long sequence;
+		private AssignmentRecord record;
+		private RecordChanges changes;
+	}
+}
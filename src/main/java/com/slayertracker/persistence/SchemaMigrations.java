@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.persistence;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Chain of schema upgrades, each taking records from one version to the next.
+ * <p>
+ * Files are rewritten token by token from a {@link JsonReader} to a {@link JsonWriter}, so a save
+ * file is never held in memory. Only a record taken through more than one step is buffered
+ * between steps. Every file layout keeps its records under {@code records}, {@code summaries} or
+ * {@code record}; everything else is copied unchanged. {@code schemaVersion} is written first, but
+ * a file edited by hand may have it anywhere, so it is found in a pass of its own before the file
+ * is migrated. A file without a version predates versioning and is schema 1.
+ */
+final class SchemaMigrations
+{
+	/**
+	 * Upgrades one record from {@link #fromVersion} to the version after it.
+	 */
+	abstract static class Migration
+	{
+		final int fromVersion;
+
+		Migration(int fromVersion)
+		{
+			this.fromVersion = fromVersion;
+		}
+
+		abstract void migrateRecord(JsonReader in, JsonWriter out) throws IOException;
+	}
+
+	// In order, the first from schema 1
+	private static final List<Migration> CHAIN = List.of(
+		new UnwrapIntCounters()
+	);
+
+	private SchemaMigrations()
+	{
+	}
+
+	/**
+	 * Finds the version of a file or journal line, skipping over any names before it. Stops once
+	 * it is found, which for files this plugin wrote is at the first name.
+	 *
+	 * @throws IOException if it is newer than {@code currentVersion}, which must not be downgraded
+	 */
+	static int readSchemaVersion(JsonReader in, int currentVersion) throws IOException
+	{
+		int version = 1;
+		in.beginObject();
+		while (in.hasNext())
+		{
+			if (in.nextName().equals("schemaVersion") && in.peek() == JsonToken.NUMBER)
+			{
+				version = in.nextInt();
+				break;
+			}
+			in.skipValue();
+		}
+		if (version > currentVersion)
+		{
+			throw new IOException("Saved by a newer version of the plugin, at schema " + version);
+		}
+		return version;
+	}
+
+	/**
+	 * Copies a file or journal line from {@code in} to {@code out}, upgrading its records from
+	 * {@code fromVersion}, as found by {@link #readSchemaVersion}, to {@code toVersion}.
+	 *
+	 * @throws IOException if it is at a newer version, which must not be downgraded
+	 */
+	static void migrate(JsonReader in, JsonWriter out, int fromVersion, int toVersion) throws IOException
+	{
+		if (fromVersion > toVersion)
+		{
+			throw new IOException("Saved by a newer version of the plugin, at schema " + fromVersion);
+		}
+
+		in.beginObject();
+		out.beginObject();
+		out.name("schemaVersion").value(toVersion);
+		while (in.hasNext())
+		{
+			final String name = in.nextName();
+			switch (name)
+			{
+				case "schemaVersion":
+					in.skipValue();
+					continue;
+				case "records":
+				case "summaries":
+					out.name(name);
+					migrateRecordMap(in, out, fromVersion, toVersion);
+					break;
+				case "record":
+					out.name(name);
+					migrateRecord(in, out, fromVersion, toVersion);
+					break;
+				default:
+					out.name(name);
+					BinarySaveFormat.transcode(in, out);
+			}
+		}
+		in.endObject();
+		out.endObject();
+	}
+
+	private static void migrateRecordMap(JsonReader in, JsonWriter out, int fromVersion, int toVersion) throws IOException
+	{
+		if (in.peek() != JsonToken.BEGIN_OBJECT)
+		{
+			BinarySaveFormat.transcode(in, out);
+			return;
+		}
+
+		in.beginObject();
+		out.beginObject();
+		while (in.hasNext())
+		{
+			out.name(in.nextName());
+			migrateRecord(in, out, fromVersion, toVersion);
+		}
+		in.endObject();
+		out.endObject();
+	}
+
+	private static void migrateRecord(JsonReader in, JsonWriter out, int fromVersion, int toVersion) throws IOException
+	{
+		if (fromVersion == toVersion || in.peek() != JsonToken.BEGIN_OBJECT)
+		{
+			BinarySaveFormat.transcode(in, out);
+			return;
+		}
+		if (fromVersion - 1 >= CHAIN.size())
+		{
+			throw new IOException("No migration from schema " + fromVersion);
+		}
+
+		final Migration migration = CHAIN.get(fromVersion - 1);
+		if (fromVersion + 1 == toVersion)
+		{
+			migration.migrateRecord(in, out);
+			return;
+		}
+
+		// Further steps read what this one wrote
+		final StringWriter step = new StringWriter();
+		final JsonWriter stepOut = new JsonWriter(step);
+		migration.migrateRecord(in, stepOut);
+		stepOut.flush();
+		migrateRecord(new JsonReader(new StringReader(step.toString())), out, fromVersion + 1, toVersion);
+	}
+
+	/**
+	 * Schema 1 stored xp, ge and ha as int, so totals past Integer.MAX_VALUE were saved wrapped
+	 * negative. None of them can legitimately be negative, so add back the lost 2^32.
+	 */
+	private static final class UnwrapIntCounters extends Migration
+	{
+		UnwrapIntCounters()
+		{
+			super(1);
+		}
+
+		@Override
+		void migrateRecord(JsonReader in, JsonWriter out) throws IOException
+		{
+			if (in.peek() != JsonToken.BEGIN_OBJECT)
+			{
+				BinarySaveFormat.transcode(in, out);
+				return;
+			}
+
+			in.beginObject();
+			out.beginObject();
+			while (in.hasNext())
+			{
+				final String name = in.nextName();
+				out.name(name);
+				switch (name)
+				{
+					case "xp":
+					case "ge":
+					case "ha":
+						if (in.peek() == JsonToken.NUMBER)
+						{
+							final long value = in.nextLong();
+							out.value(value < 0 ? value + (1L << 32) : value);
+						}
+						else
+						{
+							BinarySaveFormat.transcode(in, out);
+						}
+						break;
+					case "variantRecords":
+						if (in.peek() == JsonToken.BEGIN_OBJECT)
+						{
+							in.beginObject();
+							out.beginObject();
+							while (in.hasNext())
+							{
+								out.name(in.nextName());
+								migrateRecord(in, out);
+							}
+							in.endObject();
+							out.endObject();
+						}
+						else
+						{
+							BinarySaveFormat.transcode(in, out);
+						}
+						break;
+					case "customRecords":
+						if (in.peek() == JsonToken.BEGIN_ARRAY)
+						{
+							in.beginArray();
+							out.beginArray();
+							while (in.hasNext())
+							{
+								migrateRecord(in, out);
+							}
+							in.endArray();
+							out.endArray();
+						}
+						else
+						{
+							BinarySaveFormat.transcode(in, out);
+						}
+						break;
+					default:
+						BinarySaveFormat.transcode(in, out);
+				}
+			}
+			in.endObject();
+			out.endObject();
+		}
+	}
+}
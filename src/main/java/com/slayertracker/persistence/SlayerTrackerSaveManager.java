@@ -25,58 +25,122 @@
 
 package com.slayertracker.persistence;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.InstanceCreator;
-import com.google.gson.TypeAdapter;
-import com.google.gson.annotations.Expose;
 import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import com.slayertracker.SlayerTrackerConfig;
 import com.slayertracker.groups.Assignment;
-import com.slayertracker.groups.Variant;
 import com.slayertracker.records.AssignmentRecord;
-import com.slayertracker.records.CustomRecord;
-import com.slayertracker.records.CustomRecordSet;
-import com.slayertracker.records.Record;
+import com.slayertracker.records.RecordChanges;
 import com.slayertracker.records.RecordMap;
 import com.slayertracker.state.TrackerState;
 import java.beans.PropertyChangeListener;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.Writer;
-import java.time.Instant;
-import java.time.format.DateTimeParseException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import net.runelite.client.RuneLite;
 
+@Slf4j
 @Singleton
 public class SlayerTrackerSaveManager implements RecordRepository
 {
 	public static final String DATA_FOLDER_NAME = "slayer-tracker";
 	public static final File DATA_FOLDER = new File(RuneLite.RUNELITE_DIR, DATA_FOLDER_NAME);
-	private static final int CURRENT_SCHEMA_VERSION = 1;
+	private static final int CURRENT_SCHEMA_VERSION = 2;
+	private static final String JOURNAL_SUFFIX = ".journal";
+	private static final String TEMP_SUFFIX = ".tmp";
+	private static final String SHARDS_SUFFIX = ".shards";
+	private static final String SHARD_SUFFIX = ".shard";
+	private static final String BACKUP_SUFFIX = ".bak";
+	private static final String INDEX_FILE_NAME = "index";
+	private static final String HISTORY_SUFFIX = ".history";
+	// Journal size past which the next batch is folded into a save instead
+	private static final long COMPACT_JOURNAL_BYTES = 1 << 20;
 
-	private final Gson gson;
 	private final PropertyChangeListener changeListener;
+	private final Supplier<SlayerTrackerConfig.SaveFormat> saveFormat;
+	private final BooleanSupplier killHistoryEnabled;
+	// Snapshot and journal writes run here in submission order, so a truncation never overtakes an append
+	private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "slayer-tracker-io");
+		thread.setDaemon(true);
+		return thread;
+	});
+	// Record of each assignment as of its last shard or journal line, so one removed or replaced
+	// since is given a tombstone. Caller thread only, or the I/O thread while loading
+	private final Map<Assignment, AssignmentRecord> journaledRecords = new EnumMap<>(Assignment.class);
+	// Number of the last journal line. Caller thread only, or the I/O thread while loading
+	private long journalSequence;
+	// Assignments with a shard file, so one removed since loses it. Caller thread only, or the I/O
+	// thread while loading
+	private final Set<Assignment> shardedAssignments = EnumSet.noneOf(Assignment.class);
+	// Set when a background write failed, so the next save rewrites every shard. Caller thread only
+	private boolean rewriteShards;
+	private final File dataFolder;
+	private RecordJournal journal;
+	// Written on the I/O thread only
+	private volatile long journalBytes;
+	// Set when a batch could not be appended, so the next one is saved as a snapshot instead
+	private volatile boolean journalFailed;
+	// Failure of a background shard write, reported by the next save or flush
+	private volatile IOException writeFailure;
+	// Kill history of the profile last asked for, kept open between kills
+	private KillHistoryLog killHistory;
+	private String killHistoryFileName;
 
 	@Inject
-	public SlayerTrackerSaveManager(TrackerState trackerState)
+	public SlayerTrackerSaveManager(TrackerState trackerState, SlayerTrackerConfig config)
+	{
+		this(trackerState, config::saveFormat, config::killHistory, DATA_FOLDER);
+	}
+
+	SlayerTrackerSaveManager(TrackerState trackerState)
+	{
+		this(trackerState, DATA_FOLDER);
+	}
+
+	SlayerTrackerSaveManager(TrackerState trackerState, File dataFolder)
+	{
+		this(trackerState, () -> SlayerTrackerConfig.SaveFormat.JSON, () -> false, dataFolder);
+	}
+
+	private SlayerTrackerSaveManager(TrackerState trackerState, Supplier<SlayerTrackerConfig.SaveFormat> saveFormat, BooleanSupplier killHistoryEnabled, File dataFolder)
 	{
 		this.changeListener = trackerState;
-		gson = new GsonBuilder()
-			.excludeFieldsWithoutExposeAnnotation()
-			.setPrettyPrinting()
-			.registerTypeAdapter(AssignmentRecord.class, assignmentRecordCreator(trackerState))
-			.registerTypeAdapter(CustomRecord.class, customRecordCreator(trackerState))
-			.registerTypeAdapter(RecordMap.class, recordMapCreator(trackerState))
-			.registerTypeAdapter(CustomRecordSet.class, customRecordSetCreator(trackerState))
-			.registerTypeAdapter(Instant.class, new InstantAdapter())
-			.registerTypeAdapter(Variant.class, new VariantAdapter())
-			.create();
+		this.saveFormat = saveFormat;
+		this.killHistoryEnabled = killHistoryEnabled;
+		this.dataFolder = dataFolder;
 	}
 
 	private File getDataFile(String dataFileName) throws IOException
@@ -85,37 +149,129 @@ public class SlayerTrackerSaveManager implements RecordRepository
 		{
 			throw new IOException("Data file name not available");
 		}
-		if (!DATA_FOLDER.exists() && !DATA_FOLDER.mkdirs())
+		if (!dataFolder.exists() && !dataFolder.mkdirs())
 		{
-			throw new IOException("Could not create data folder: .runelite/slayer-tracker");
+			throw new IOException("Could not create data folder: " + dataFolder);
 		}
-		return new File(DATA_FOLDER, dataFileName);
+		return new File(dataFolder, dataFileName);
 	}
 
+	private File getShardFolder(String dataFileName) throws IOException
+	{
+		return new File(getDataFile(dataFileName).getPath() + SHARDS_SUFFIX);
+	}
+
+	private static File getShardFile(File shardFolder, Assignment assignment)
+	{
+		return new File(shardFolder, assignment.name() + SHARD_SUFFIX);
+	}
+
+	/**
+	 * Reads the summary index and replays the journal over it, leaving each record's detail to
+	 * {@link #loadDetail}. Without an index, every shard is read in full instead. A profile still
+	 * saved as one file is split into shards, and the file kept as a backup.
+	 */
 	@Override
 	public RecordMap<Assignment, AssignmentRecord> load(String dataFileName) throws Exception
 	{
-		File dataFile = getDataFile(dataFileName);
+		return runOnIoThread(() -> loadOnIoThread(dataFileName, null));
+	}
+
+	/**
+	 * {@link #load} without waiting for it. Until the future completes, nothing else may be saved,
+	 * journaled or read in detail, since the load is using the manager's bookkeeping.
+	 *
+	 * @param detailAssignment read in full along with the summaries, or null for none
+	 */
+	@Override
+	public CompletableFuture<RecordMap<Assignment, AssignmentRecord>> loadAsync(String dataFileName, Assignment detailAssignment)
+	{
+		final CompletableFuture<RecordMap<Assignment, AssignmentRecord>> future = new CompletableFuture<>();
+		ioExecutor.execute(() -> {
+			try
+			{
+				future.complete(loadOnIoThread(dataFileName, detailAssignment));
+			}
+			catch (Exception e)
+			{
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
 
-		if (!dataFile.exists())
+	// Queued behind any save from a previous login, so that save has finished by the time this runs
+	private RecordMap<Assignment, AssignmentRecord> loadOnIoThread(String dataFileName, Assignment detailAssignment) throws Exception
+	{
+		final File dataFile = getDataFile(dataFileName);
+		final File shardFolder = getShardFolder(dataFileName);
+
+		shardedAssignments.clear();
+		rewriteShards = false;
+		final RecordMap<Assignment, AssignmentRecord> records = new RecordMap<>(changeListener);
+		final boolean unsharded = !shardFolder.isDirectory();
+		// A journal left behind means the client stopped without a final save. Its lines add to
+		// whole records, so every shard is read in full to replay it
+		final RecordJournal profileJournal = journalFor(dataFileName);
+		final List<String> lines = profileJournal.readLines();
+		final RecordMap<Assignment, AssignmentRecord> summaries = unsharded || !lines.isEmpty() ? null : readIndex(shardFolder);
+		if (unsharded)
 		{
-			Writer writer = new FileWriter(dataFile);
-			writer.write("{}");
-			writer.close();
+			if (dataFile.exists())
+			{
+				records.putAll(readSnapshot(dataFile));
+			}
 		}
-
-		try (FileReader reader = new FileReader(dataFile))
+		else if (summaries != null)
+		{
+			records.putAll(summaries);
+			final AssignmentRecord detailRecord = detailAssignment == null ? null : records.get(detailAssignment);
+			if (detailRecord != null)
+			{
+				detailRecord.mergeDetail(readDetail(shardFolder, detailAssignment, changeListener));
+			}
+		}
+		else
 		{
-			SaveFile saveFile = gson.fromJson(reader, SaveFile.class);
-			if (saveFile == null)
+			for (Assignment assignment : Assignment.values())
 			{
-				return new RecordMap<>(changeListener);
+				final AssignmentRecord record = loadShard(assignment, dataFileName);
+				if (record != null)
+				{
+					records.put(assignment, record);
+				}
 			}
+		}
+		if (!unsharded)
+		{
+			shardedAssignments.addAll(records.keySet());
+			records.values().forEach(AssignmentRecord::markSaved);
+		}
 
-			return migrateIfNeeded(saveFile.schemaVersion, saveFile.records);
+		replayJournal(lines, records);
+		if (summaries == null)
+		{
+			final SlayerTrackerConfig.SaveFormat format = saveFormat.get();
+			final Set<Assignment> changed = EnumSet.noneOf(Assignment.class);
+			final Map<Assignment, AssignmentRecord> snapshot = snapshot(records, changed);
+			writeShards(shardFolder, encodeShards(shardFolder, snapshot, changed, format), encodeIndex(snapshot, format));
+			profileJournal.truncate();
+			if (unsharded && dataFile.exists())
+			{
+				Files.move(dataFile.toPath(), new File(dataFile.getPath() + BACKUP_SUFFIX).toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			journalBytes = 0;
 		}
+
+		// Everything read is on disk, replayed lines included
+		rememberJournaled(records);
+		return records;
 	}
 
+	/**
+	 * Snapshots the records on the calling thread, then encodes and writes the snapshot on the I/O
+	 * thread. Returns without waiting for the disk; use {@link #flush} to wait.
+	 */
 	@Override
 	public void save(RecordMap<Assignment, AssignmentRecord> assignmentRecords, String dataFileName) throws Exception
 	{
@@ -123,120 +279,664 @@ public class SlayerTrackerSaveManager implements RecordRepository
 		{
 			return;
 		}
-		File dataFile = getDataFile(dataFileName);
+		rethrowWriteFailure();
+		final File shardFolder = getShardFolder(dataFileName);
+		final RecordJournal profileJournal = journalFor(dataFileName);
 
-		SaveFile saveFile = new SaveFile();
-		saveFile.schemaVersion = CURRENT_SCHEMA_VERSION;
-		saveFile.records = assignmentRecords;
+		final Set<Assignment> changed = EnumSet.noneOf(Assignment.class);
+		final Map<Assignment, AssignmentRecord> snapshot = snapshot(assignmentRecords, changed);
+		final SlayerTrackerConfig.SaveFormat format = saveFormat.get();
+		rememberJournaled(assignmentRecords);
+		ioExecutor.execute(() -> {
+			try
+			{
+				writeShards(shardFolder, encodeShards(shardFolder, snapshot, changed, format), encodeIndex(snapshot, format));
+				// Only once every shard is durable, so a failed write leaves the journal to replay
+				profileJournal.truncate();
+				journalBytes = 0;
+				journalFailed = false;
+			}
+			catch (IOException e)
+			{
+				log.warn("Could not save records to {}", shardFolder, e);
+				writeFailure = e;
+			}
+		});
+	}
 
-		try (Writer writer = new FileWriter(dataFile))
+	/**
+	 * @return null if the assignment has no shard
+	 */
+	AssignmentRecord loadShard(Assignment assignment, String dataFileName) throws Exception
+	{
+		final File shardFile = getShardFile(getShardFolder(dataFileName), assignment);
+		if (!shardFile.exists())
+		{
+			return null;
+		}
+		try (JsonReader reader = newReader(shardFile))
+		{
+			return SaveFileCodec.readShard(reader, CURRENT_SCHEMA_VERSION, assignment, changeListener);
+		}
+		catch (IOException | IllegalStateException e)
 		{
-			gson.toJson(saveFile, writer);
+			if (!migrateIfNeeded(shardFile))
+			{
+				throw e;
+			}
+		}
+		try (JsonReader reader = newReader(shardFile))
+		{
+			return SaveFileCodec.readShard(reader, CURRENT_SCHEMA_VERSION, assignment, changeListener);
 		}
 	}
 
-	private static InstanceCreator<AssignmentRecord> assignmentRecordCreator(PropertyChangeListener propertyChangeListener)
+	/**
+	 * Reads the detail of a record loaded from the summary index from its shard on the I/O thread,
+	 * behind any write of that shard still queued. It is merged in with {@link #mergeDetail}.
+	 */
+	@Override
+	public CompletableFuture<AssignmentRecord> loadDetail(Assignment assignment, String dataFileName)
 	{
-		return type -> new AssignmentRecord(propertyChangeListener);
+		final CompletableFuture<AssignmentRecord> future = new CompletableFuture<>();
+		ioExecutor.execute(() -> {
+			try
+			{
+				future.complete(readDetail(getShardFolder(dataFileName), assignment, changeListener));
+			}
+			catch (Exception e)
+			{
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
 	}
 
-	private static InstanceCreator<CustomRecord> customRecordCreator(PropertyChangeListener propertyChangeListener)
+	/**
+	 * Merges detail read by {@link #loadDetail} into its record, once.
+	 */
+	@Override
+	public void mergeDetail(Assignment assignment, AssignmentRecord assignmentRecord, AssignmentRecord detail)
 	{
-		return type -> new CustomRecord(propertyChangeListener);
+		if (assignmentRecord.isDetailLoaded())
+		{
+			return;
+		}
+
+		// Not a change, as the shard already holds the detail
+		assignmentRecord.mergeDetail(detail);
 	}
 
-	private static InstanceCreator<RecordMap<?, ? extends Record>> recordMapCreator(PropertyChangeListener propertyChangeListener)
+	/**
+	 * Waits for every queued write to reach the disk, and throws if any of them failed.
+	 */
+	@Override
+	public void flush() throws Exception
 	{
-		return type -> new RecordMap<>(propertyChangeListener);
+		runOnIoThread(() -> null);
+		forceKillHistory();
+		rethrowWriteFailure();
+	}
+
+	/**
+	 * Opens the profile's kill history, or returns null if it is turned off. The log stays open
+	 * until another profile's is asked for.
+	 */
+	@Override
+	public synchronized KillHistoryLog getKillHistory(String dataFileName) throws IOException
+	{
+		if (!killHistoryEnabled.getAsBoolean() || dataFileName == null)
+		{
+			forceKillHistory();
+			killHistory = null;
+			return null;
+		}
+
+		if (killHistory == null || !dataFileName.equals(killHistoryFileName))
+		{
+			forceKillHistory();
+			killHistory = new KillHistoryLog(new File(getDataFile(dataFileName).getPath() + HISTORY_SUFFIX));
+			killHistoryFileName = dataFileName;
+		}
+		return killHistory;
+	}
+
+	/**
+	 * Appends a kill to the profile's kill history on the I/O thread, which also opens the history
+	 * and starts its next segment when one fills. Does nothing if the history is turned off.
+	 */
+	@Override
+	public void appendKillHistory(String dataFileName, int tick, long epochMillis, int assignment, int variant, int xp, long ge, long ha, int durationTicks)
+	{
+		ioExecutor.execute(() -> {
+			try
+			{
+				final KillHistoryLog history = getKillHistory(dataFileName);
+				if (history != null)
+				{
+					history.append(tick, epochMillis, assignment, variant, xp, ge, ha, durationTicks);
+				}
+			}
+			catch (IOException e)
+			{
+				log.warn("Could not append to kill history", e);
+			}
+		});
 	}
 
-	private static InstanceCreator<CustomRecordSet<CustomRecord>> customRecordSetCreator(PropertyChangeListener propertyChangeListener)
+	private synchronized void forceKillHistory() throws IOException
 	{
-		return type -> new CustomRecordSet<>(propertyChangeListener);
+		if (killHistory != null)
+		{
+			killHistory.force();
+		}
 	}
 
-	private RecordMap<Assignment, AssignmentRecord> migrateIfNeeded(int schemaVersion, RecordMap<Assignment, AssignmentRecord> records)
+	private synchronized void writeKillHistoryIndex() throws IOException
 	{
-		// Placeholder for future migrations; for now, just ensure the map is non-null
-		return records == null ? new RecordMap<>(changeListener) : records;
+		if (killHistory != null)
+		{
+			killHistory.writeIndex();
+		}
 	}
 
-	private static class VariantAdapter extends TypeAdapter<Variant>
+	/**
+	 * Appends what each assignment record gained since it was last journaled, and a tombstone for
+	 * every one removed or replaced, as one batch. Only the changes are taken on the calling
+	 * thread; they are encoded and written on the I/O thread. If an earlier batch could not be
+	 * written, or the journal has grown past its limit, everything is saved instead.
+	 */
+	@Override
+	public void journal(RecordMap<Assignment, AssignmentRecord> assignmentRecords, String dataFileName) throws Exception
 	{
-		@Override
-		public void write(JsonWriter out, Variant variant) throws IOException
+		if (dataFileName == null)
+		{
+			return;
+		}
+		if (journalFailed || journalBytes > COMPACT_JOURNAL_BYTES)
 		{
-			if (variant == null)
+			// The records still hold whatever did not reach the journal, so a snapshot covers it
+			save(assignmentRecords, dataFileName);
+			return;
+		}
+
+		final long firstSequence = journalSequence + 1;
+		final List<Map.Entry<Assignment, RecordChanges>> lines = new ArrayList<>();
+		for (Iterator<Map.Entry<Assignment, AssignmentRecord>> iterator = journaledRecords.entrySet().iterator(); iterator.hasNext(); )
+		{
+			final Map.Entry<Assignment, AssignmentRecord> journaled = iterator.next();
+			if (assignmentRecords.get(journaled.getKey()) != journaled.getValue())
 			{
-				out.nullValue();
-				return;
+				lines.add(new AbstractMap.SimpleImmutableEntry<>(journaled.getKey(), null));
+				journalSequence++;
+				iterator.remove();
 			}
+		}
+		for (Map.Entry<Assignment, AssignmentRecord> entry : assignmentRecords.entrySet())
+		{
+			final RecordChanges changes = entry.getValue().takeUnjournaled();
+			if (changes != null)
+			{
+				lines.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), changes));
+				entry.getValue().setJournalSequence(++journalSequence);
+				journaledRecords.put(entry.getKey(), entry.getValue());
+			}
+		}
+		if (lines.isEmpty())
+		{
+			return;
+		}
 
-			out.value(variant.getId());
+		final RecordJournal profileJournal = journalFor(dataFileName);
+		ioExecutor.execute(() -> {
+			try
+			{
+				final StringWriter text = new StringWriter();
+				long sequence = firstSequence;
+				for (Map.Entry<Assignment, RecordChanges> line : lines)
+				{
+					JsonWriter out = new JsonWriter(text);
+					SaveFileCodec.writeJournalChanges(out, CURRENT_SCHEMA_VERSION, line.getKey(), sequence++, line.getValue());
+					out.flush();
+					text.append('\n');
+				}
+				final byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+				profileJournal.append(bytes);
+				journalBytes += bytes.length;
+			}
+			catch (IOException e)
+			{
+				log.warn("Could not append to record journal {}", profileJournal.getFile(), e);
+				journalFailed = true;
+			}
+
+			// Kills reach the history ahead of the batch that credits them, so its index is saved
+			// with the batch rather than only at shutdown
+			try
+			{
+				writeKillHistoryIndex();
+			}
+			catch (IOException e)
+			{
+				log.warn("Could not write kill history index", e);
+			}
+		});
+	}
+
+	private RecordMap<Assignment, AssignmentRecord> readSnapshot(File dataFile) throws IOException
+	{
+		try (JsonReader reader = newReader(dataFile))
+		{
+			RecordMap<Assignment, AssignmentRecord> records = readStreaming(reader);
+			if (records != null)
+			{
+				return records;
+			}
 		}
 
-		@Override
-		public Variant read(JsonReader in) throws IOException
+		// Older schema
+		migrateIfNeeded(dataFile);
+		try (JsonReader reader = newReader(dataFile))
 		{
-			if (in.peek() == JsonToken.NULL)
+			RecordMap<Assignment, AssignmentRecord> records = readStreaming(reader);
+			if (records == null)
 			{
-				in.nextNull();
-				return null;
+				throw new IOException("Could not read migrated save file " + dataFile);
 			}
+			return records;
+		}
+	}
 
-			String id = in.nextString();
-			return Variant.getById(id).orElseThrow(() -> new IOException("Unknown variant id: " + id));
+	/**
+	 * Upgrades a save file, shard or index to the current schema if it is at an older one,
+	 * streaming it into a new file. The old file is kept beside it, named for its version.
+	 *
+	 * @return whether the file was rewritten
+	 * @throws IOException if the file is at a newer schema, or cannot be migrated
+	 */
+	private boolean migrateIfNeeded(File file) throws IOException
+	{
+		final int schemaVersion;
+		try (JsonReader reader = newReader(file))
+		{
+			schemaVersion = SchemaMigrations.readSchemaVersion(reader, CURRENT_SCHEMA_VERSION);
+		}
+		if (schemaVersion == CURRENT_SCHEMA_VERSION)
+		{
+			return false;
 		}
+
+		final long start = System.nanoTime();
+		final File tempFile = new File(file.getPath() + TEMP_SUFFIX);
+		try
+		{
+			try (JsonReader in = newReader(file);
+				 FileOutputStream fileOut = new FileOutputStream(tempFile))
+			{
+				final JsonWriter out = BinarySaveFormat.newWriter(new BufferedOutputStream(fileOut, 64 * 1024), saveFormat.get());
+				SchemaMigrations.migrate(in, out, schemaVersion, CURRENT_SCHEMA_VERSION);
+				out.flush();
+				fileOut.getFD().sync();
+			}
+
+			// Copied rather than moved, so the file is never missing
+			Files.copy(file.toPath(), new File(file.getPath() + ".v" + schemaVersion + BACKUP_SUFFIX).toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+			try
+			{
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException e)
+			{
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally
+		{
+			// Left behind only if the migration failed part way
+			Files.deleteIfExists(tempFile.toPath());
+		}
+		log.info("Migrated {} from schema {} to {} in {} ms", file, schemaVersion, CURRENT_SCHEMA_VERSION,
+			(System.nanoTime() - start) / 1_000_000);
+		return true;
+	}
+
+	/**
+	 * @return null if the file is not at the current schema version
+	 */
+	RecordMap<Assignment, AssignmentRecord> readStreaming(Reader reader) throws IOException
+	{
+		return readStreaming(new JsonReader(reader));
+	}
+
+	RecordMap<Assignment, AssignmentRecord> readStreaming(JsonReader reader) throws IOException
+	{
+		return SaveFileCodec.readSaveFile(reader, CURRENT_SCHEMA_VERSION, changeListener);
 	}
 
-	private static class SaveFile
+	/**
+	 * Encodes the records as one file, the layout profiles were saved in before shards, in the
+	 * configured save format.
+	 */
+	byte[] encodeSnapshot(Map<Assignment, AssignmentRecord> assignmentRecords) throws IOException
 	{
-		@Expose
-		int schemaVersion = CURRENT_SCHEMA_VERSION;
-		@Expose
-		RecordMap<Assignment, AssignmentRecord> records;
+		return encodeSnapshot(assignmentRecords, saveFormat.get());
 	}
 
-	private static class InstantAdapter extends TypeAdapter<Instant>
+	byte[] encodeSnapshot(Map<Assignment, AssignmentRecord> assignmentRecords, SlayerTrackerConfig.SaveFormat format) throws IOException
 	{
-		@Override
-		public void write(JsonWriter out, Instant instant) throws IOException
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+		try (JsonWriter out = BinarySaveFormat.newWriter(bytes, format))
 		{
-			if (instant == null)
+			SaveFileCodec.writeSaveFile(out, CURRENT_SCHEMA_VERSION, assignmentRecords);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Copies every assignment whose revision differs from its shard's, and maps each assignment
+	 * whose record was removed since to null, so its shard is deleted.
+	 */
+	/**
+	 * Copies every record on the calling thread, whole if it changed since its shard was written
+	 * and as a summary otherwise, so the I/O thread reads nothing the caller can still change.
+	 *
+	 * @param changed receives the assignments whose shards are to be written, and those whose
+	 *                shards are to be deleted, which are missing from the snapshot
+	 */
+	private Map<Assignment, AssignmentRecord> snapshot(Map<Assignment, AssignmentRecord> assignmentRecords, Set<Assignment> changed)
+	{
+		final Map<Assignment, AssignmentRecord> snapshot = new EnumMap<>(Assignment.class);
+		for (Map.Entry<Assignment, AssignmentRecord> entry : assignmentRecords.entrySet())
+		{
+			final AssignmentRecord record = entry.getValue();
+			if (rewriteShards || record.isDirty() || !shardedAssignments.contains(entry.getKey()))
 			{
-				out.nullValue();
-				return;
+				snapshot.put(entry.getKey(), record.copy());
+				record.markSaved();
+				shardedAssignments.add(entry.getKey());
+				changed.add(entry.getKey());
+			}
+			else
+			{
+				snapshot.put(entry.getKey(), record.copySummary());
 			}
-
-			out.value(instant.toString());
 		}
-
-		@Override
-		public Instant read(JsonReader in) throws IOException
+		for (Iterator<Assignment> iterator = shardedAssignments.iterator(); iterator.hasNext(); )
 		{
-			if (in.peek() == JsonToken.NULL)
+			final Assignment assignment = iterator.next();
+			if (!assignmentRecords.containsKey(assignment))
 			{
-				in.nextNull();
-				return Instant.now();
+				changed.add(assignment);
+				iterator.remove();
 			}
+		}
+		rewriteShards = false;
+		return Collections.unmodifiableMap(snapshot);
+	}
 
-			String value = in.nextString();
+	/**
+	 * Encodes the shards of the changed assignments, only reading the snapshot. One whose detail
+	 * was never read is encoded merged with the detail of the shard it replaces, before that shard
+	 * is written over.
+	 */
+	private Map<Assignment, byte[]> encodeShards(File shardFolder, Map<Assignment, AssignmentRecord> snapshot, Set<Assignment> changed,
+		SlayerTrackerConfig.SaveFormat format) throws IOException
+	{
+		final Map<Assignment, byte[]> shards = new EnumMap<>(Assignment.class);
+		for (Assignment assignment : changed)
+		{
+			AssignmentRecord record = snapshot.get(assignment);
+			if (record != null && !record.isDetailLoaded())
+			{
+				record = record.withDetail(readDetail(shardFolder, assignment, null));
+			}
+			// Null deletes the shard
+			shards.put(assignment, record == null ? null : encodeShard(assignment, record, format));
+		}
+		return shards;
+	}
 
-			try
+	/**
+	 * @return no records if the assignment has no shard yet
+	 */
+	private AssignmentRecord readDetail(File shardFolder, Assignment assignment, PropertyChangeListener pcl) throws IOException
+	{
+		final File shardFile = getShardFile(shardFolder, assignment);
+		if (!shardFile.exists())
+		{
+			return new AssignmentRecord(pcl);
+		}
+		try (JsonReader reader = newReader(shardFile))
+		{
+			return SaveFileCodec.readShardDetail(reader, CURRENT_SCHEMA_VERSION, assignment, pcl);
+		}
+		catch (IOException | IllegalStateException e)
+		{
+			// Nothing is read into a record before the version is checked
+			if (!migrateIfNeeded(shardFile))
 			{
-				return Instant.parse(value);
+				throw e;
 			}
-			catch (DateTimeParseException e)
+		}
+		try (JsonReader reader = newReader(shardFile))
+		{
+			return SaveFileCodec.readShardDetail(reader, CURRENT_SCHEMA_VERSION, assignment, pcl);
+		}
+	}
+
+	private static byte[] encodeShard(Assignment assignment, AssignmentRecord record, SlayerTrackerConfig.SaveFormat format) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 * 1024);
+		try (JsonWriter out = BinarySaveFormat.newWriter(bytes, format))
+		{
+			SaveFileCodec.writeShard(out, CURRENT_SCHEMA_VERSION, assignment, record);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static byte[] encodeIndex(Map<Assignment, AssignmentRecord> assignmentRecords, SlayerTrackerConfig.SaveFormat format) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+		try (JsonWriter out = BinarySaveFormat.newWriter(bytes, format))
+		{
+			SaveFileCodec.writeIndex(out, CURRENT_SCHEMA_VERSION, assignmentRecords);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Reads the summary index, migrating it first if it is at an older schema.
+	 *
+	 * @return null if there is no index, or it cannot be read or migrated, so every shard must be
+	 * read instead
+	 */
+	private RecordMap<Assignment, AssignmentRecord> readIndex(File shardFolder)
+	{
+		final File indexFile = new File(shardFolder, INDEX_FILE_NAME);
+		if (!indexFile.exists())
+		{
+			return null;
+		}
+		try
+		{
+			try (JsonReader reader = newReader(indexFile))
 			{
-				try
+				final RecordMap<Assignment, AssignmentRecord> summaries = SaveFileCodec.readIndex(reader, CURRENT_SCHEMA_VERSION, changeListener);
+				if (summaries != null)
 				{
-					return Instant.ofEpochMilli(Long.parseLong(value));
+					return summaries;
 				}
-				catch (NumberFormatException ignored)
+			}
+			if (!migrateIfNeeded(indexFile))
+			{
+				log.warn("Summary index {} has no schema version first, reading every shard instead", indexFile);
+				return null;
+			}
+			try (JsonReader reader = newReader(indexFile))
+			{
+				return SaveFileCodec.readIndex(reader, CURRENT_SCHEMA_VERSION, changeListener);
+			}
+		}
+		catch (IOException | IllegalStateException e)
+		{
+			log.warn("Could not read or migrate summary index {}, reading every shard instead", indexFile, e);
+			return null;
+		}
+	}
+
+	/**
+	 * @param index the new summary index, or null to leave the profile without one
+	 */
+	private static void writeShards(File shardFolder, Map<Assignment, byte[]> shards, byte[] index) throws IOException
+	{
+		if (!shardFolder.isDirectory() && !shardFolder.mkdirs())
+		{
+			throw new IOException("Could not create shard folder: " + shardFolder);
+		}
+		// Until the new index is written the shards may be ahead of the old one, and without one
+		// load reads the shards themselves
+		final File indexFile = new File(shardFolder, INDEX_FILE_NAME);
+		Files.deleteIfExists(indexFile.toPath());
+		for (Map.Entry<Assignment, byte[]> shard : shards.entrySet())
+		{
+			final File shardFile = getShardFile(shardFolder, shard.getKey());
+			if (shard.getValue() == null)
+			{
+				Files.deleteIfExists(shardFile.toPath());
+			}
+			else
+			{
+				writeAtomically(shard.getValue(), shardFile);
+			}
+		}
+		if (index != null)
+		{
+			writeAtomically(index, indexFile);
+		}
+	}
+
+	// Either format; a binary file is told apart by its magic header
+	private static JsonReader newReader(File file) throws IOException
+	{
+		return BinarySaveFormat.newReader(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+	}
+
+	/**
+	 * Writes beside the file, forces it to disk, then renames it over the file, so a failure at
+	 * any point leaves the previous save intact.
+	 */
+	private static void writeAtomically(byte[] bytes, File file) throws IOException
+	{
+		final File tempFile = new File(file.getPath() + TEMP_SUFFIX);
+		try (FileOutputStream out = new FileOutputStream(tempFile))
+		{
+			out.write(bytes);
+			out.getFD().sync();
+		}
+
+		try
+		{
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private void rethrowWriteFailure() throws IOException
+	{
+		final IOException failure = writeFailure;
+		if (failure != null)
+		{
+			writeFailure = null;
+			// Which shards failed is unknown, so have the next save rewrite them all
+			rewriteShards = true;
+			throw failure;
+		}
+	}
+
+	private void replayJournal(List<String> lines, RecordMap<Assignment, AssignmentRecord> records)
+	{
+		for (String line : lines)
+		{
+			try
+			{
+				String entry = line;
+				final int schemaVersion = SchemaMigrations.readSchemaVersion(new JsonReader(new StringReader(entry)), CURRENT_SCHEMA_VERSION);
+				if (schemaVersion != CURRENT_SCHEMA_VERSION)
 				{
-					throw new IOException("Invalid instant value: " + value, e);
+					// Left by a client that stopped before an upgrade
+					StringWriter migrated = new StringWriter();
+					SchemaMigrations.migrate(new JsonReader(new StringReader(entry)), new JsonWriter(migrated), schemaVersion, CURRENT_SCHEMA_VERSION);
+					entry = migrated.toString();
 				}
+				SaveFileCodec.readJournalEntry(new JsonReader(new StringReader(entry)), CURRENT_SCHEMA_VERSION, records, changeListener);
+			}
+			catch (IOException | IllegalStateException e)
+			{
+				// Torn final line from a crash mid-append; everything before it is intact
+				log.warn("Stopping journal replay at an unreadable line", e);
+				return;
 			}
 		}
 	}
-}
+
+	private static void appendJournalLine(StringWriter lines, Assignment assignment, AssignmentRecord record) throws IOException
+	{
+		JsonWriter out = new JsonWriter(lines);
+		SaveFileCodec.writeJournalEntry(out, CURRENT_SCHEMA_VERSION, assignment, record);
+		out.flush();
+		lines.append('\n');
+	}
+
+	/**
+	 * Notes that everything in the records is on disk, so the journal starts over from them.
+	 */
+	private void rememberJournaled(RecordMap<Assignment, AssignmentRecord> assignmentRecords)
+	{
+		journaledRecords.clear();
+		journaledRecords.putAll(assignmentRecords);
+		assignmentRecords.values().forEach(record -> {
+			record.takeUnjournaled();
+			journalSequence = Math.max(journalSequence, record.getJournalSequence());
+		});
+	}
+
+	private RecordJournal journalFor(String dataFileName) throws IOException
+	{
+		final File journalFile = new File(getDataFile(dataFileName).getPath() + JOURNAL_SUFFIX);
+		if (journal == null || !journal.getFile().equals(journalFile))
+		{
+			final RecordJournal previous = journal;
+			if (previous != null)
+			{
+				ioExecutor.execute(() -> {
+					try
+					{
+						previous.close();
+					}
+					catch (IOException e)
+					{
+						log.warn("Could not close record journal {}", previous.getFile(), e);
+					}
+				});
+			}
+			journal = new RecordJournal(journalFile);
+			ioExecutor.execute(() -> journalBytes = journalFile.length());
+		}
+		return journal;
+	}
+
+	private <T> T runOnIoThread(Callable<T> task) throws Exception
+	{
+		try
+		{
+			return ioExecutor.submit(task).get();
+		}
+		catch (ExecutionException e)
+		{
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+	}}
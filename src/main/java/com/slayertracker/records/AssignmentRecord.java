@@ -24,24 +24,635 @@
  */
 package com.slayertracker.records;
 
-import com.google.gson.annotations.Expose;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.slayertracker.groups.Variant;
 import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 
 @Getter
 public class AssignmentRecord extends Record
 {
-	@Expose
+	private static final Set<String> DETAIL_FIELDS = Set.of("variantRecords", "customRecords", "regions", "gearRecords",
+		"sessionRows", "taskRows");
+
 	private final RecordMap<Variant, Record> variantRecords;
-	@Expose
 	private final CustomRecordSet<CustomRecord> customRecords;
+	private final ResultRowList sessionRows;
+	private final ResultRowList taskRows;
+	private final RegionLedger regions;
+	private final RecordMap<Long, GearRecord> gearRecords;
+	// Start of the task instance in progress, kept across logins until the task ends
+	private long[] openTaskRow;
+	// Number of the last journal line that changed this record, so replay skips lines it holds
+	@Setter
+	private long journalSequence;
+	// False while only the summary fields are read, until the rest is read from the full record
+	@Setter
+	private boolean detailLoaded = true;
+	// Deleted or replaced since the journal last took this record's changes. Deleted from the EDT
+	@Getter(AccessLevel.NONE)
+	private final Set<Variant> unjournaledVariantRemovals = ConcurrentHashMap.newKeySet();
+	@Getter(AccessLevel.NONE)
+	private final Set<Integer> unjournaledCustomRecordRemovals = ConcurrentHashMap.newKeySet();
+	@Getter(AccessLevel.NONE)
+	private boolean openTaskRowUnjournaled;
 
 	public AssignmentRecord(PropertyChangeListener pcl)
 	{
 		super(pcl);
 		variantRecords = new RecordMap<>(pcl);
 		customRecords = new CustomRecordSet<>(pcl);
+		sessionRows = new ResultRowList();
+		taskRows = new ResultRowList();
+		regions = new RegionLedger();
+		gearRecords = new RecordMap<>(pcl);
+	}
+
+	public void setOpenTaskRow(long[] openTaskRow)
+	{
+		this.openTaskRow = openTaskRow;
+		openTaskRowUnjournaled = true;
+		markDirty();
+	}
+
+	public void removeVariantRecord(Variant variant)
+	{
+		if (variantRecords.remove(variant) != null)
+		{
+			unjournaledVariantRemovals.add(variant);
+			markDirty();
+		}
+	}
+
+	public void removeCustomRecord(CustomRecord customRecord)
+	{
+		if (customRecords.remove(customRecord))
+		{
+			unjournaledCustomRecordRemovals.add(customRecord.getId());
+			markDirty();
+		}
+	}
+
+	public void clearCustomRecords()
+	{
+		customRecords.forEach(customRecord -> unjournaledCustomRecordRemovals.add(customRecord.getId()));
+		customRecords.clear();
+		markDirty();
+	}
+
+	/**
+	 * Writes only the fields the assignment list needs, leaving out the variant, custom and gear
+	 * records, the region ledger and the session and task rows.
+	 */
+	public void writeSummaryJson(JsonWriter out) throws IOException
+	{
+		out.beginObject();
+		writeSummaryFields(out);
+		out.endObject();
+	}
+
+	/**
+	 * Reads a summary written by {@link #writeSummaryJson}, leaving the record without detail
+	 * until {@link #mergeDetail} is called.
+	 */
+	public void readSummaryJson(JsonReader in, PropertyChangeListener pcl) throws IOException
+	{
+		in.beginObject();
+		while (in.hasNext())
+		{
+			final String name = in.nextName();
+			// Indexes written before the rows moved to the detail still hold them
+			if (DETAIL_FIELDS.contains(name) || in.peek() == JsonToken.NULL || !readField(name, in, pcl))
+			{
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		detailLoaded = false;
+	}
+
+	/**
+	 * Reads only the fields a summary leaves out from the full record written by
+	 * {@link #writeJson}.
+	 */
+	public void readDetailJson(JsonReader in, PropertyChangeListener pcl) throws IOException
+	{
+		in.beginObject();
+		while (in.hasNext())
+		{
+			final String name = in.nextName();
+			if (!DETAIL_FIELDS.contains(name) || in.peek() == JsonToken.NULL || !readField(name, in, pcl))
+			{
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		detailLoaded = true;
+	}
+
+	@Override
+	protected void writeFields(JsonWriter out) throws IOException
+	{
+		writeDetailFields(out);
+		writeSummaryFields(out);
+	}
+
+	private void writeDetailFields(JsonWriter out) throws IOException
+	{
+		out.name("variantRecords").beginObject();
+		for (Map.Entry<Variant, Record> entry : variantRecords.entrySet())
+		{
+			out.name(entry.getKey().getId());
+			entry.getValue().writeJson(out);
+		}
+		out.endObject();
+		out.name("customRecords").beginArray();
+		for (CustomRecord customRecord : customRecords)
+		{
+			customRecord.writeJson(out);
+		}
+		out.endArray();
+		out.name("regions");
+		regions.writeJson(out);
+		out.name("gearRecords").beginObject();
+		for (Map.Entry<Long, GearRecord> entry : gearRecords.entrySet())
+		{
+			out.name(Long.toString(entry.getKey()));
+			entry.getValue().writeJson(out);
+		}
+		out.endObject();
+		out.name("sessionRows");
+		sessionRows.writeJson(out);
+		out.name("taskRows");
+		taskRows.writeJson(out);
+	}
+
+	@Override
+	protected void writeChangedFields(JsonWriter out) throws IOException
+	{
+		if (!variantRecords.isEmpty())
+		{
+			out.name("variantRecords").beginObject();
+			for (Map.Entry<Variant, Record> entry : variantRecords.entrySet())
+			{
+				out.name(entry.getKey().getId());
+				entry.getValue().writeChangesJson(out);
+			}
+			out.endObject();
+		}
+		if (!customRecords.isEmpty())
+		{
+			out.name("customRecords").beginArray();
+			for (CustomRecord customRecord : customRecords)
+			{
+				customRecord.writeChangesJson(out);
+			}
+			out.endArray();
+		}
+		if (!regions.isEmpty())
+		{
+			out.name("regions");
+			regions.writeJson(out);
+		}
+		if (!gearRecords.isEmpty())
+		{
+			out.name("gearRecords").beginObject();
+			for (Map.Entry<Long, GearRecord> entry : gearRecords.entrySet())
+			{
+				out.name(Long.toString(entry.getKey()));
+				entry.getValue().writeChangesJson(out);
+			}
+			out.endObject();
+		}
+		if (sessionRows.size() > 0)
+		{
+			out.name("sessionRows");
+			sessionRows.writeJson(out);
+		}
+		if (taskRows.size() > 0)
+		{
+			out.name("taskRows");
+			taskRows.writeJson(out);
+		}
+		super.writeChangedFields(out);
+	}
+
+	private void writeSummaryFields(JsonWriter out) throws IOException
+	{
+		if (openTaskRow != null)
+		{
+			out.name("openTaskRow");
+			JsonCodecs.writeLongs(out, openTaskRow);
+		}
+		out.name("journalSequence").value(journalSequence);
+		// With the summary, so records added before the detail is read don't take a saved id
+		out.name("lastCustomRecordId").value(customRecords.getLastId());
+		super.writeFields(out);
+	}
+
+	@Override
+	protected boolean readField(String name, JsonReader in, PropertyChangeListener pcl) throws IOException
+	{
+		switch (name)
+		{
+			case "variantRecords":
+				in.beginObject();
+				while (in.hasNext())
+				{
+					final String id = in.nextName();
+					final Variant variant = Variant.getById(id)
+						.orElseThrow(() -> new IOException("Unknown variant id: " + id));
+					final Record record = new Record(pcl);
+					record.readJson(in, pcl);
+					variantRecords.put(variant, record);
+				}
+				in.endObject();
+				return true;
+			case "customRecords":
+				in.beginArray();
+				while (in.hasNext())
+				{
+					final CustomRecord customRecord = new CustomRecord(pcl);
+					customRecord.readJson(in, pcl);
+					customRecords.add(customRecord);
+				}
+				in.endArray();
+				return true;
+			case "sessionRows":
+				sessionRows.readJson(in);
+				return true;
+			case "taskRows":
+				taskRows.readJson(in);
+				return true;
+			case "regions":
+				regions.readJson(in);
+				return true;
+			case "gearRecords":
+				in.beginObject();
+				while (in.hasNext())
+				{
+					final String key = in.nextName();
+					final GearRecord gearRecord = new GearRecord(pcl);
+					gearRecord.readJson(in, pcl);
+					try
+					{
+						gearRecords.put(Long.parseLong(key), gearRecord);
+					}
+					catch (NumberFormatException e)
+					{
+						throw new IOException("Invalid gear fingerprint: " + key, e);
+					}
+				}
+				in.endObject();
+				return true;
+			case "openTaskRow":
+				openTaskRow = JsonCodecs.readLongs(in);
+				return true;
+			case "journalSequence":
+				journalSequence = in.nextLong();
+				return true;
+			case "lastCustomRecordId":
+				customRecords.raiseLastId(in.nextInt());
+				return true;
+			default:
+				return super.readField(name, in, pcl);
+		}
+	}
+
+	/**
+	 * Adds another assignment record into this one, merging variant and gear records by key and
+	 * taking over its custom records, under new ids, and its result rows. This record's open task
+	 * row is kept if it has one.
+	 */
+	public void merge(AssignmentRecord other)
+	{
+		super.merge(other);
+		other.variantRecords.forEach((variant, record) -> {
+			final Record existing = variantRecords.get(variant);
+			if (existing == null)
+			{
+				variantRecords.put(variant, record);
+			}
+			else
+			{
+				existing.merge(record);
+			}
+		});
+		for (CustomRecord customRecord : other.customRecords)
+		{
+			// The other record's ids may already be taken here, by records not read yet
+			customRecord.setId(0);
+			customRecords.add(customRecord);
+		}
+		other.gearRecords.forEach((fingerprint, record) -> {
+			final GearRecord existing = gearRecords.get(fingerprint);
+			if (existing == null)
+			{
+				gearRecords.put(fingerprint, record);
+			}
+			else
+			{
+				existing.merge(record);
+			}
+		});
+		regions.merge(other.regions);
+		sessionRows.addAll(other.sessionRows);
+		taskRows.addAll(other.taskRows);
+		if (openTaskRow == null && other.openTaskRow != null)
+		{
+			setOpenTaskRow(other.openTaskRow);
+		}
+	}
+
+	/**
+	 * Copies this record and everything it owns, detached from any listener, so another thread can
+	 * write it while this one keeps changing.
+	 */
+	public AssignmentRecord copy()
+	{
+		final AssignmentRecord copy = copySummary();
+		variantRecords.forEach((variant, record) -> {
+			final Record variantCopy = new Record(null);
+			variantCopy.add(record);
+			copy.variantRecords.put(variant, variantCopy);
+		});
+		for (CustomRecord customRecord : customRecords)
+		{
+			final CustomRecord customCopy = new CustomRecord(null);
+			customCopy.add(customRecord);
+			customCopy.setId(customRecord.getId());
+			customCopy.setName(customRecord.getName());
+			copy.customRecords.add(customCopy);
+		}
+		gearRecords.forEach((fingerprint, record) -> {
+			final GearRecord gearCopy = new GearRecord(record.getEquipment(), null);
+			gearCopy.add(record);
+			copy.gearRecords.put(fingerprint, gearCopy);
+		});
+		copy.regions.add(regions);
+		copy.sessionRows.addAll(sessionRows);
+		copy.taskRows.addAll(taskRows);
+		copy.detailLoaded = detailLoaded;
+		return copy;
+	}
+
+	/**
+	 * Copies only the fields {@link #writeSummaryJson} writes, as {@link #copy} does.
+	 */
+	public AssignmentRecord copySummary()
+	{
+		final AssignmentRecord copy = new AssignmentRecord(null);
+		copy.add(this);
+		copy.openTaskRow = openTaskRow == null ? null : openTaskRow.clone();
+		copy.journalSequence = journalSequence;
+		copy.customRecords.raiseLastId(customRecords.getLastId());
+		copy.detailLoaded = false;
+		return copy;
+	}
+
+	/**
+	 * {@link #mergeDetail} into a copy of this record, leaving this one as it is.
+	 */
+	public AssignmentRecord withDetail(AssignmentRecord detail)
+	{
+		final AssignmentRecord merged = copy();
+		merged.mergeDetail(detail);
+		return merged;
+	}
+
+	/**
+	 * Adds the detail read from this record's shard to what was credited since its summary was
+	 * read, merging variant and gear records by key and putting the saved rows first. Nothing is journaled or marked dirty, as the
+	 * shard already holds it.
+	 */
+	public void mergeDetail(AssignmentRecord detail)
+	{
+		detail.markSaved();
+		detail.variantRecords.forEach((variant, record) -> {
+			final Record existing = variantRecords.get(variant);
+			if (existing == null)
+			{
+				variantRecords.put(variant, record);
+			}
+			else
+			{
+				existing.add(record);
+			}
+		});
+		customRecords.addAll(detail.customRecords);
+		customRecords.raiseLastId(detail.customRecords.getLastId());
+		detail.gearRecords.forEach((fingerprint, record) -> {
+			final GearRecord existing = gearRecords.get(fingerprint);
+			if (existing == null)
+			{
+				gearRecords.put(fingerprint, record);
+			}
+			else
+			{
+				existing.add(record);
+			}
+		});
+		regions.add(detail.regions);
+		// Rows closed since the summary was read came after the saved ones
+		sessionRows.addAllBefore(detail.sessionRows);
+		taskRows.addAllBefore(detail.taskRows);
+		detailLoaded = true;
+	}
+
+	/**
+	 * Takes everything added to this record and the records it owns since the last call, or null
+	 * if nothing changed. Called whenever the record is journaled or saved, so each change is
+	 * written once.
+	 */
+	public RecordChanges takeUnjournaled()
+	{
+		final AssignmentRecord added = new AssignmentRecord(null);
+		boolean changed = false;
+
+		final Record own = super.takeUnjournaled();
+		if (own != null)
+		{
+			added.add(own);
+			changed = true;
+		}
+		for (Map.Entry<Variant, Record> entry : variantRecords.entrySet())
+		{
+			final Record variantAdded = entry.getValue().takeUnjournaled();
+			if (variantAdded != null)
+			{
+				added.variantRecords.put(entry.getKey(), variantAdded);
+				changed = true;
+			}
+		}
+		for (CustomRecord customRecord : customRecords)
+		{
+			final Record customAdded = customRecord.takeUnjournaled();
+			if (customAdded != null)
+			{
+				final CustomRecord entry = new CustomRecord(null);
+				entry.add(customAdded);
+				entry.setId(customRecord.getId());
+				entry.setName(customRecord.getName());
+				added.customRecords.add(entry);
+				changed = true;
+			}
+		}
+		for (Map.Entry<Long, GearRecord> entry : gearRecords.entrySet())
+		{
+			final Record gearAdded = entry.getValue().takeUnjournaled();
+			if (gearAdded != null)
+			{
+				final GearRecord gearEntry = new GearRecord(entry.getValue().getEquipment(), null);
+				gearEntry.add(gearAdded);
+				added.gearRecords.put(entry.getKey(), gearEntry);
+				changed = true;
+			}
+		}
+		final RegionLedger regionsAdded = regions.takeUnjournaled();
+		if (regionsAdded != null)
+		{
+			added.regions.add(regionsAdded);
+			changed = true;
+		}
+		final ResultRowList sessionRowsAdded = sessionRows.takeUnjournaled();
+		if (sessionRowsAdded != null)
+		{
+			added.sessionRows.addAll(sessionRowsAdded);
+			changed = true;
+		}
+		final ResultRowList taskRowsAdded = taskRows.takeUnjournaled();
+		if (taskRowsAdded != null)
+		{
+			added.taskRows.addAll(taskRowsAdded);
+			changed = true;
+		}
+
+		final Set<Variant> removedVariants = Set.copyOf(unjournaledVariantRemovals);
+		unjournaledVariantRemovals.removeAll(removedVariants);
+		final Set<Integer> removedCustomRecordIds = Set.copyOf(unjournaledCustomRecordRemovals);
+		unjournaledCustomRecordRemovals.removeAll(removedCustomRecordIds);
+		final boolean openTaskRowChanged = openTaskRowUnjournaled;
+		openTaskRowUnjournaled = false;
+		if (!changed && removedVariants.isEmpty() && removedCustomRecordIds.isEmpty() && !openTaskRowChanged)
+		{
+			return null;
+		}
+		return new RecordChanges(added, removedVariants, removedCustomRecordIds, openTaskRowChanged, openTaskRow);
+	}
+
+	/**
+	 * Applies a journal line's changes over this record, as read back from the snapshot they were
+	 * journaled after. Deletions are applied first, so a record deleted and started again within
+	 * one line keeps only what was added after.
+	 */
+	public void applyChanges(RecordChanges changes)
+	{
+		changes.getRemovedVariants().forEach(variantRecords::remove);
+		customRecords.removeIf(customRecord -> changes.getRemovedCustomRecordIds().contains(customRecord.getId()));
+
+		final AssignmentRecord added = changes.getAdded();
+		add(added);
+		added.variantRecords.forEach((variant, record) -> {
+			final Record existing = variantRecords.get(variant);
+			if (existing == null)
+			{
+				variantRecords.put(variant, record);
+			}
+			else
+			{
+				existing.add(record);
+			}
+		});
+		for (CustomRecord customRecord : added.customRecords)
+		{
+			final CustomRecord existing = customRecords.stream()
+				.filter(c -> c.getId() == customRecord.getId())
+				.findFirst()
+				.orElse(null);
+			if (existing == null)
+			{
+				customRecords.add(customRecord);
+			}
+			else
+			{
+				existing.add(customRecord);
+				existing.setName(customRecord.getName());
+			}
+		}
+		added.gearRecords.forEach((fingerprint, record) -> {
+			final GearRecord existing = gearRecords.get(fingerprint);
+			if (existing == null)
+			{
+				gearRecords.put(fingerprint, record);
+			}
+			else
+			{
+				existing.add(record);
+			}
+		});
+		regions.add(added.regions);
+		sessionRows.addAll(added.sessionRows);
+		taskRows.addAll(added.taskRows);
+		if (changes.isOpenTaskRowChanged())
+		{
+			openTaskRow = changes.getOpenTaskRow();
+		}
+		// Replayed changes are not in the shard yet
+		markDirty();
+	}
+
+	/**
+	 * Whether this record or anything it owns changed since it was read or last saved to its shard.
+	 */
+	@Override
+	public boolean isDirty()
+	{
+		if (super.isDirty() || regions.isDirty() || sessionRows.isDirty() || taskRows.isDirty())
+		{
+			return true;
+		}
+		for (Record variantRecord : variantRecords.values())
+		{
+			if (variantRecord.isDirty())
+			{
+				return true;
+			}
+		}
+		for (CustomRecord customRecord : customRecords)
+		{
+			if (customRecord.isDirty())
+			{
+				return true;
+			}
+		}
+		for (GearRecord gearRecord : gearRecords.values())
+		{
+			if (gearRecord.isDirty())
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void markSaved()
+	{
+		super.markSaved();
+		variantRecords.values().forEach(Record::markSaved);
+		customRecords.forEach(Record::markSaved);
+		gearRecords.values().forEach(Record::markSaved);
+		regions.markSaved();
+		sessionRows.markSaved();
+		taskRows.markSaved();
 	}
 
 	@Override
@@ -51,6 +662,10 @@ public class AssignmentRecord extends Record
 			super.toString() +
 			", variantRecords=" + variantRecords +
 			", customRecords=" + customRecords +
+			", sessionRows=" + sessionRows +
+			", taskRows=" + taskRows +
+			", regions=" + regions +
+			", gearRecords=" + gearRecords +
 			'}';
 	}
 }
@@ -24,8 +24,10 @@
  */
 package com.slayertracker.records;
 
-import com.google.gson.annotations.Expose;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import java.beans.PropertyChangeListener;
+import java.io.IOException;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -33,7 +35,8 @@ import lombok.Setter;
 @Setter
 public class CustomRecord extends Record
 {
-	@Expose
+	// Assigned by CustomRecordSet; 0 until added
+	private int id;
 	private String name = "New Custom Record";
 	private boolean recording = false;
 
@@ -44,6 +47,48 @@ public class CustomRecord extends Record
 
 	public CustomRecord(Record record, PropertyChangeListener pcl)
 	{
-		super(record, pcl);
+		super(pcl);
+		// Merged rather than copied, so the copy is journaled like any other credit
+		merge(record);
+	}
+
+	public void setName(String name)
+	{
+		this.name = name;
+		// Renames are journaled with the record's next changes
+		markUnjournaled();
+	}
+
+	@Override
+	protected void writeFields(JsonWriter out) throws IOException
+	{
+		out.name("id").value(id);
+		out.name("name").value(name);
+		super.writeFields(out);
+	}
+
+	@Override
+	protected void writeChangedFields(JsonWriter out) throws IOException
+	{
+		// Kept even when unchanged, as replay finds the record by id and takes its name
+		out.name("id").value(id);
+		out.name("name").value(name);
+		super.writeChangedFields(out);
+	}
+
+	@Override
+	protected boolean readField(String name, JsonReader in, PropertyChangeListener pcl) throws IOException
+	{
+		switch (name)
+		{
+			case "id":
+				id = in.nextInt();
+				return true;
+			case "name":
+				this.name = in.nextString();
+				return true;
+			default:
+				return super.readField(name, in, pcl);
+		}
 	}
 }
@@ -26,11 +26,20 @@ package com.slayertracker.records;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
-import java.util.HashSet;
+import java.util.concurrent.CopyOnWriteArraySet;
 
-public class CustomRecordSet<E extends CustomRecord> extends HashSet<E>
+/**
+ * Custom records of an assignment, in the order they were added.
+ * <p>
+ * Read from both the client thread and the EDT, so writes copy the backing array and iteration
+ * walks an immutable snapshot without locking. Each record is given an id unique within the set,
+ * and ids are never handed out twice, so a deleted record's journaled removal can't match a new one.
+ */
+public class CustomRecordSet<E extends CustomRecord> extends CopyOnWriteArraySet<E>
 {
 	private final PropertyChangeSupport support = new PropertyChangeSupport(this);
+	// Highest id handed out or added, saved with the assignment so it survives deletions
+	private int lastId;
 
 	public CustomRecordSet(PropertyChangeListener pcl)
 	{
@@ -41,6 +50,16 @@ public class CustomRecordSet<E extends CustomRecord> extends HashSet<E>
 	@Override
 	public boolean add(E record)
 	{
+		if (record.getId() == 0)
+		{
+			record.setId(++lastId);
+		}
+		else
+		{
+			raiseLastId(record.getId());
+		}
+		// Even an empty record is saved once added
+		record.markDirty();
 		boolean e = super.add(record);
 		support.firePropertyChange("CustomRecordSet add", false, e);
 		return e;
@@ -57,8 +76,17 @@ public class CustomRecordSet<E extends CustomRecord> extends HashSet<E>
 	@Override
 	public void clear()
 	{
-		Object oldSet = this.clone();
 		super.clear();
-		support.firePropertyChange("CustomRecordSet clear", oldSet, this);
+		support.firePropertyChange("CustomRecordSet clear", null, this);
+	}
+
+	int getLastId()
+	{
+		return lastId;
+	}
+
+	void raiseLastId(int id)
+	{
+		lastId = Math.max(lastId, id);
 	}
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.records;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.util.Arrays;
+import lombok.Getter;
+
+/**
+ * Record of the kills made while wearing one gear setup, keyed by {@link #fingerprint}.
+ */
+@Getter
+public class GearRecord extends Record
+{
+	// Item id worn in each equipment slot, -1 where empty
+	private int[] equipment;
+
+	public GearRecord(PropertyChangeListener pcl)
+	{
+		super(pcl);
+		equipment = new int[0];
+	}
+
+	public GearRecord(int[] equipment, PropertyChangeListener pcl)
+	{
+		super(pcl);
+		this.equipment = equipment.clone();
+	}
+
+	@Override
+	protected void writeFields(JsonWriter out) throws IOException
+	{
+		out.name("equipment");
+		JsonCodecs.writeInts(out, equipment);
+		super.writeFields(out);
+	}
+
+	@Override
+	protected void writeChangedFields(JsonWriter out) throws IOException
+	{
+		out.name("equipment");
+		JsonCodecs.writeInts(out, equipment);
+		super.writeChangedFields(out);
+	}
+
+	@Override
+	protected boolean readField(String name, JsonReader in, PropertyChangeListener pcl) throws IOException
+	{
+		if (name.equals("equipment"))
+		{
+			equipment = JsonCodecs.readInts(in);
+			return true;
+		}
+		return super.readField(name, in, pcl);
+	}
+
+	/**
+	 * 64-bit hash of the item worn in each slot. Quantities are ignored, so firing ammunition or
+	 * runes from a quiver does not change the setup.
+	 */
+	public static long fingerprint(int[] itemIds)
+	{
+		long hash = 0x9E3779B97F4A7C15L;
+		for (int slot = 0; slot < itemIds.length; slot++)
+		{
+			hash = mix(hash ^ ((long) slot << 32 | (itemIds[slot] & 0xFFFFFFFFL)));
+		}
+		return hash;
+	}
+
+	// SplitMix64 finalizer
+	private static long mix(long z)
+	{
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "GearRecord{" +
+			super.toString() +
+			", equipment=" + Arrays.toString(equipment) +
+			'}';
+	}
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.records;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from int keys to long values, without boxing.
+ * <p>
+ * Used for per-record ledgers (item id to quantity, region id to counters) where a
+ * {@code HashMap<Integer, Long>} would cost an entry object and two boxes per key.
+ * Missing keys read as 0. {@link #FREE} is reserved and cannot be used as a key.
+ */
+public class IntLongMap
+{
+	public static final int FREE = Integer.MIN_VALUE;
+
+	private static final int DEFAULT_CAPACITY = 8;
+
+	private int[] keys;
+	private long[] values;
+	private int size;
+
+	public IntLongMap()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	public IntLongMap(int expectedSize)
+	{
+		int capacity = DEFAULT_CAPACITY;
+		while (capacity < expectedSize * 2)
+		{
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	public IntLongMap(IntLongMap other)
+	{
+		keys = other.keys.clone();
+		values = other.values.clone();
+		size = other.size;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public boolean containsKey(int key)
+	{
+		return keys[indexOf(key)] != FREE;
+	}
+
+	public long get(int key)
+	{
+		int index = indexOf(key);
+		return keys[index] == FREE ? 0L : values[index];
+	}
+
+	public void put(int key, long value)
+	{
+		int index = slotFor(key);
+		values[index] = value;
+	}
+
+	/**
+	 * Adds {@code delta} to the value stored for {@code key} and returns the new value.
+	 */
+	public long add(int key, long delta)
+	{
+		int index = slotFor(key);
+		values[index] += delta;
+		return values[index];
+	}
+
+	public void addAll(IntLongMap other)
+	{
+		int[] otherKeys = other.keys;
+		long[] otherValues = other.values;
+		for (int i = 0; i < otherKeys.length; i++)
+		{
+			if (otherKeys[i] != FREE)
+			{
+				add(otherKeys[i], otherValues[i]);
+			}
+		}
+	}
+
+	public void clear()
+	{
+		Arrays.fill(keys, FREE);
+		Arrays.fill(values, 0L);
+		size = 0;
+	}
+
+	public void forEach(EntryConsumer consumer)
+	{
+		for (int i = 0; i < keys.length; i++)
+		{
+			if (keys[i] != FREE)
+			{
+				consumer.accept(keys[i], values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the keys in ascending order.
+	 */
+	public int[] keys()
+	{
+		int[] out = new int[size];
+		int n = 0;
+		for (int key : keys)
+		{
+			if (key != FREE)
+			{
+				out[n++] = key;
+			}
+		}
+		Arrays.sort(out);
+		return out;
+	}
+
+	private int slotFor(int key)
+	{
+		if (key == FREE)
+		{
+			throw new IllegalArgumentException("Reserved key: " + key);
+		}
+
+		int index = indexOf(key);
+		if (keys[index] == FREE)
+		{
+			if ((size + 1) * 2 > keys.length)
+			{
+				rehash(keys.length << 1);
+				index = indexOf(key);
+			}
+			keys[index] = key;
+			size++;
+		}
+		return index;
+	}
+
+	private int indexOf(int key)
+	{
+		int mask = keys.length - 1;
+		int index = mix(key) & mask;
+		while (keys[index] != FREE && keys[index] != key)
+		{
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+
+	private void rehash(int capacity)
+	{
+		int[] oldKeys = keys;
+		long[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldKeys[i] != FREE)
+			{
+				int index = indexOf(oldKeys[i]);
+				keys[index] = oldKeys[i];
+				values[index] = oldValues[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity)
+	{
+		keys = new int[capacity];
+		values = new long[capacity];
+		Arrays.fill(keys, FREE);
+	}
+
+	private static int mix(int key)
+	{
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (this == o)
+		{
+			return true;
+		}
+		if (!(o instanceof IntLongMap))
+		{
+			return false;
+		}
+		IntLongMap that = (IntLongMap) o;
+		if (size != that.size)
+		{
+			return false;
+		}
+		for (int i = 0; i < keys.length; i++)
+		{
+			if (keys[i] != FREE && (!that.containsKey(keys[i]) || that.get(keys[i]) != values[i]))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		int h = 0;
+		for (int i = 0; i < keys.length; i++)
+		{
+			if (keys[i] != FREE)
+			{
+				h += keys[i] ^ Long.hashCode(values[i]);
+			}
+		}
+		return h;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder("{");
+		forEach((key, value) -> {
+			if (sb.length() > 1)
+			{
+				sb.append(", ");
+			}
+			sb.append(key).append('=').append(value);
+		});
+		return sb.append('}').toString();
+	}
+
+	@FunctionalInterface
+	public interface EntryConsumer
+	{
+		void accept(int key, long value);
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.records;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Streaming helpers shared by the hand-written record codecs, which read and write the JSON
+ * layout older versions saved through Gson.
+ */
+public final class JsonCodecs
+{
+	private JsonCodecs()
+	{
+	}
+
+	public static void writeLongs(JsonWriter out, long[] values) throws IOException
+	{
+		out.beginArray();
+		for (long value : values)
+		{
+			out.value(value);
+		}
+		out.endArray();
+	}
+
+	public static long[] readLongs(JsonReader in) throws IOException
+	{
+		long[] values = new long[16];
+		int size = 0;
+		in.beginArray();
+		while (in.hasNext())
+		{
+			if (size == values.length)
+			{
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = in.nextLong();
+		}
+		in.endArray();
+		return Arrays.copyOf(values, size);
+	}
+
+	public static void writeInts(JsonWriter out, int[] values) throws IOException
+	{
+		out.beginArray();
+		for (int value : values)
+		{
+			out.value(value);
+		}
+		out.endArray();
+	}
+
+	public static int[] readInts(JsonReader in) throws IOException
+	{
+		int[] values = new int[16];
+		int size = 0;
+		in.beginArray();
+		while (in.hasNext())
+		{
+			if (size == values.length)
+			{
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = in.nextInt();
+		}
+		in.endArray();
+		return Arrays.copyOf(values, size);
+	}
+
+	public static void writeIntLongMap(JsonWriter out, IntLongMap map) throws IOException
+	{
+		out.beginObject();
+		for (int key : map.keys())
+		{
+			out.name(Integer.toString(key)).value(map.get(key));
+		}
+		out.endObject();
+	}
+
+	public static void readIntLongMap(JsonReader in, IntLongMap into) throws IOException
+	{
+		in.beginObject();
+		while (in.hasNext())
+		{
+			String key = in.nextName();
+			try
+			{
+				into.put(Integer.parseInt(key), in.nextLong());
+			}
+			catch (NumberFormatException e)
+			{
+				throw new IOException("Invalid ledger key: " + key, e);
+			}
+		}
+		in.endObject();
+	}
+
+	/**
+	 * Reads an ISO-8601 instant, or epoch millis as written by older versions.
+	 */
+	public static Instant readInstant(JsonReader in) throws IOException
+	{
+		String value = in.nextString();
+
+		try
+		{
+			return Instant.parse(value);
+		}
+		catch (DateTimeParseException e)
+		{
+			try
+			{
+				return Instant.ofEpochMilli(Long.parseLong(value));
+			}
+			catch (NumberFormatException ignored)
+			{
+				throw new IOException("Invalid instant value: " + value, e);
+			}
+		}
+	}
+}
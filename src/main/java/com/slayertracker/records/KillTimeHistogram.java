@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.records;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Fixed-size, log-scale histogram of kill durations in game ticks.
+ * <p>
+ * Each power-of-two octave is split into four linear sub-buckets, so the relative error of a
+ * reported percentile is at most ~25% from 4 ticks up to {@link #MAX_TICKS}; durations below 4
+ * ticks are exact. The bucket array is allocated on the first sample and never grows.
+ */
+public class KillTimeHistogram
+{
+	public static final int BUCKETS = 64;
+	public static final int MAX_TICKS = (1 << 17) - 1;
+
+	private static final int SUB_BUCKET_BITS = 2;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private int[] counts;
+	private long total;
+
+	public KillTimeHistogram()
+	{
+	}
+
+	public KillTimeHistogram(KillTimeHistogram other)
+	{
+		counts = other.counts == null ? null : other.counts.clone();
+		total = other.total;
+	}
+
+	public void add(int ticks)
+	{
+		if (ticks <= 0)
+		{
+			return;
+		}
+		if (counts == null)
+		{
+			counts = new int[BUCKETS];
+		}
+		counts[bucketOf(Math.min(ticks, MAX_TICKS))]++;
+		total++;
+	}
+
+	public void merge(KillTimeHistogram other)
+	{
+		if (other.counts == null)
+		{
+			return;
+		}
+		if (counts == null)
+		{
+			counts = new int[BUCKETS];
+		}
+		for (int bucket = 0; bucket < BUCKETS; bucket++)
+		{
+			counts[bucket] += other.counts[bucket];
+		}
+		total += other.total;
+	}
+
+	public long getTotal()
+	{
+		return total;
+	}
+
+	/**
+	 * Returns the duration in ticks at or below which {@code percentile} (0-1) of kills fall,
+	 * or -1 if nothing has been recorded.
+	 */
+	public int getPercentileTicks(double percentile)
+	{
+		if (counts == null || total == 0)
+		{
+			return -1;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(percentile * total));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++)
+		{
+			seen += counts[bucket];
+			if (seen >= rank)
+			{
+				return midpointOf(bucket);
+			}
+		}
+		return midpointOf(BUCKETS - 1);
+	}
+
+	public void writeJson(JsonWriter out) throws IOException
+	{
+		out.beginObject();
+		if (counts != null)
+		{
+			out.name("counts");
+			JsonCodecs.writeInts(out, counts);
+		}
+		out.name("total").value(total);
+		out.endObject();
+	}
+
+	public void readJson(JsonReader in) throws IOException
+	{
+		in.beginObject();
+		while (in.hasNext())
+		{
+			switch (in.nextName())
+			{
+				case "counts":
+					counts = Arrays.copyOf(JsonCodecs.readInts(in), BUCKETS);
+					break;
+				case "total":
+					total = in.nextLong();
+					break;
+				default:
+					in.skipValue();
+			}
+		}
+		in.endObject();
+	}
+
+	static int bucketOf(int ticks)
+	{
+		if (ticks < SUB_BUCKETS)
+		{
+			return ticks;
+		}
+
+		final int exponent = 31 - Integer.numberOfLeadingZeros(ticks);
+		final int subBucket = (ticks >> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return SUB_BUCKETS * (exponent - SUB_BUCKET_BITS + 1) + subBucket;
+	}
+
+	static int lowerBoundOf(int bucket)
+	{
+		if (bucket < SUB_BUCKETS)
+		{
+			return bucket;
+		}
+
+		final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		final int subBucket = bucket % SUB_BUCKETS;
+		return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	private static int midpointOf(int bucket)
+	{
+		if (bucket < SUB_BUCKETS)
+		{
+			return bucket;
+		}
+
+		final int width = 1 << (bucket / SUB_BUCKETS - 1);
+		return lowerBoundOf(bucket) + (width - 1) / 2;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "KillTimeHistogram{" +
+			"total=" + total +
+			", p50=" + getPercentileTicks(0.5) +
+			", p90=" + getPercentileTicks(0.9) +
+			'}';
+	}
+}
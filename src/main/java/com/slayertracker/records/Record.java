@@ -24,37 +24,77 @@
  */
 package com.slayertracker.records;
 
-import com.google.gson.annotations.Expose;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.slayertracker.SlayerTrackerConfig;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.IntToLongFunction;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import net.runelite.api.Constants;
 import net.runelite.api.NPC;
+import net.runelite.api.Skill;
+import net.runelite.client.game.ItemStack;
 
 @Getter
 public class Record
 {
-	@Expose
+	// Skills whose xp is attributed to kills, in the order of combatXp
+	public static final Skill[] COMBAT_SKILLS = {
+		Skill.ATTACK, Skill.STRENGTH, Skill.DEFENCE, Skill.RANGED, Skill.MAGIC, Skill.HITPOINTS, Skill.PRAYER
+	};
+
 	private int kc;
-	@Expose
 	private float hours;
-	@Expose
-	private int xp;
-	@Expose
-	private int ge;
-	@Expose
-	private int ha;
+	private long xp;
+	private long ge;
+	private long ha;
+	private final long[] combatXp;
+	// GE value of supplies consumed
+	private long supplyCost;
+	// Hitpoints removed from targets by the player's hitsplats
+	private long damage;
 	@Setter
-	@Expose
 	private Instant combatInstant;
+	// Time counted under every basis at once, independent of the recording mode
+	private long combatMillis;
+	private long taskMillis;
+	private long activeMillis;
+	// Item id -> quantity of every drop credited to this record
+	private final IntLongMap loot = new IntLongMap();
+	// Per-kill distributions: seconds from engagement to death, xp and GE value
+	private final RunningStats killTime;
+	private final RunningStats killXp;
+	private final RunningStats killLoot;
+	private final KillTimeHistogram killTimeHistogram;
 
 	private final Set<NPC> interactingNpcs = new HashSet<>();
 	private final PropertyChangeSupport support = new PropertyChangeSupport(this);
 
+	// Bumped by every mutator, so derived metrics are recomputed only after a change
+	private volatile int modCount;
+	@Getter(AccessLevel.NONE)
+	private volatile RecordMetrics metrics;
+	// What the mutators added since the journal last took it, or null if nothing was
+	@Getter(AccessLevel.NONE)
+	private Record unjournaled;
+	// False for aggregates that are rebuilt from the assignment records rather than saved
+	@Getter(AccessLevel.NONE)
+	private boolean journaled = true;
+	// Changed since it was read or last saved to its shard. Set from the EDT too, for deletions
+	@Getter(AccessLevel.NONE)
+	private volatile boolean dirty;
+
 	public Record()
 	{
 		kc = 0;
@@ -62,7 +102,12 @@ public class Record
 		xp = 0;
 		ge = 0;
 		ha = 0;
+		combatXp = new long[COMBAT_SKILLS.length];
 		combatInstant = Instant.now();
+		killTime = new RunningStats();
+		killXp = new RunningStats();
+		killLoot = new RunningStats();
+		killTimeHistogram = new KillTimeHistogram();
 	}
 
 	public Record(Record record)
@@ -72,7 +117,18 @@ public class Record
 		xp = record.getXp();
 		ge = record.getGe();
 		ha = record.getHa();
+		combatXp = record.getCombatXp().clone();
+		supplyCost = record.getSupplyCost();
+		damage = record.getDamage();
 		combatInstant = record.getCombatInstant();
+		combatMillis = record.getCombatMillis();
+		taskMillis = record.getTaskMillis();
+		activeMillis = record.getActiveMillis();
+		loot.addAll(record.getLoot());
+		killTime = new RunningStats(record.getKillTime());
+		killXp = new RunningStats(record.getKillXp());
+		killLoot = new RunningStats(record.getKillLoot());
+		killTimeHistogram = new KillTimeHistogram(record.getKillTimeHistogram());
 	}
 
 	public Record(PropertyChangeListener pcl)
@@ -87,50 +143,679 @@ public class Record
 		support.addPropertyChangeListener(pcl);
 	}
 
+	/**
+	 * A record whose changes are never journaled, for aggregates rebuilt from the assignment
+	 * records on load rather than saved.
+	 */
+	public static Record aggregate()
+	{
+		final Record record = new Record();
+		record.journaled = false;
+		return record;
+	}
+
 	public void incrementKc()
 	{
 		int oldVal = kc;
 		kc++;
+		final Record changes = unjournaled();
+		if (changes != null)
+		{
+			changes.kc++;
+		}
+		modCount++;
 		support.firePropertyChange("Record kc", oldVal, kc);
 	}
 
 	public void addToHours(Duration d)
 	{
+		if (d.isZero())
+		{
+			return;
+		}
 		float oldVal = hours;
-		hours = hours + (d.getSeconds() / 3600f);
+		final float added = d.getSeconds() / 3600f;
+		hours = hours + added;
+		final Record changes = unjournaled();
+		if (changes != null)
+		{
+			changes.hours += added;
+		}
+		modCount++;
 		support.firePropertyChange("Record hours", oldVal, hours);
 	}
 
-	public void addToXp(int i)
+	/**
+	 * Adds one tick's worth of time to each basis. Called every game tick, so unlike the other
+	 * mutators this does not fire a property change.
+	 */
+	public void addToTime(long combatMillis, long taskMillis, long activeMillis)
+	{
+		// Idle ticks add nothing, so they must neither journal the record nor invalidate its metrics
+		if (combatMillis == 0 && taskMillis == 0 && activeMillis == 0)
+		{
+			return;
+		}
+		this.combatMillis += combatMillis;
+		this.taskMillis += taskMillis;
+		this.activeMillis += activeMillis;
+		final Record changes = unjournaled();
+		if (changes != null)
+		{
+			changes.combatMillis += combatMillis;
+			changes.taskMillis += taskMillis;
+			changes.activeMillis += activeMillis;
+		}
+		modCount++;
+	}
+
+	public float getHours(SlayerTrackerConfig.TimeBasis timeBasis)
+	{
+		switch (timeBasis)
+		{
+			case IN_COMBAT:
+				return combatMillis / 3_600_000f;
+			case ON_TASK:
+				return taskMillis / 3_600_000f;
+			case ACTIVE:
+				return activeMillis / 3_600_000f;
+			default:
+				return hours;
+		}
+	}
+
+	public void addToXp(long i)
 	{
-		int oldVal = xp;
-		xp += i;
+		if (i == 0)
+		{
+			return;
+		}
+		long oldVal = xp;
+		xp = saturatingAdd(xp, i);
+		final Record changes = unjournaled();
+		if (changes != null)
+		{
+			changes.xp = saturatingAdd(changes.xp, i);
+		}
+		modCount++;
 		support.firePropertyChange("Record xp", oldVal, xp);
 	}
 
-	public void addToGe(int i)
+	public void addToGe(long i)
 	{
-		int oldVal = ge;
-		ge += i;
+		if (i == 0)
+		{
+			return;
+		}
+		long oldVal = ge;
+		ge = saturatingAdd(ge, i);
+		final Record changes = unjournaled();
+		if (changes != null)
+		{
+			changes.ge = saturatingAdd(changes.ge, i);
+		}
+		modCount++;
 		support.firePropertyChange("Record ge", oldVal, ge);
 	}
 
-	public void addToHa(int i)
+	public void addToHa(long i)
 	{
-		int oldVal = ha;
-		ha += i;
+		if (i == 0)
+		{
+			return;
+		}
+		long oldVal = ha;
+		ha = saturatingAdd(ha, i);
+		final Record changes = unjournaled();
+		if (changes != null)
+		{
+			changes.ha = saturatingAdd(changes.ha, i);
+		}
+		modCount++;
 		support.firePropertyChange("Record ha", oldVal, ha);
 	}
 
+	/**
+	 * @param skillIndex index into {@link #COMBAT_SKILLS}
+	 */
+	public void addToCombatXp(int skillIndex, long i)
+	{
+		if (i == 0)
+		{
+			return;
+		}
+		long oldVal = combatXp[skillIndex];
+		combatXp[skillIndex] = saturatingAdd(combatXp[skillIndex], i);
+		final Record changes = unjournaled();
+		if (changes != null)
+		{
+			changes.combatXp[skillIndex] = saturatingAdd(changes.combatXp[skillIndex], i);
+		}
+		modCount++;
+		support.firePropertyChange("Record combatXp", oldVal, combatXp[skillIndex]);
+	}
+
+	public long getCombatXpTotal()
+	{
+		long total = 0;
+		for (long skillXp : combatXp)
+		{
+			total = saturatingAdd(total, skillXp);
+		}
+		return total;
+	}
+
+	/**
+	 * Index of {@code skill} in {@link #COMBAT_SKILLS}, or -1 if it is not a combat skill.
+	 */
+	public static int combatSkillIndex(Skill skill)
+	{
+		for (int i = 0; i < COMBAT_SKILLS.length; i++)
+		{
+			if (COMBAT_SKILLS[i] == skill)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public void addToSupplyCost(long i)
+	{
+		if (i == 0)
+		{
+			return;
+		}
+		long oldVal = supplyCost;
+		supplyCost = saturatingAdd(supplyCost, i);
+		final Record changes = unjournaled();
+		if (changes != null)
+		{
+			changes.supplyCost = saturatingAdd(changes.supplyCost, i);
+		}
+		modCount++;
+		support.firePropertyChange("Record supplyCost", oldVal, supplyCost);
+	}
+
+	public void addToDamage(long i)
+	{
+		if (i == 0)
+		{
+			return;
+		}
+		long oldVal = damage;
+		damage = saturatingAdd(damage, i);
+		final Record changes = unjournaled();
+		if (changes != null)
+		{
+			changes.damage = saturatingAdd(changes.damage, i);
+		}
+		modCount++;
+		support.firePropertyChange("Record damage", oldVal, damage);
+	}
+
+	public void addKillDuration(int ticks)
+	{
+		final double seconds = ticks * Constants.GAME_TICK_LENGTH / 1000.0;
+		killTime.add(seconds);
+		killTimeHistogram.add(ticks);
+		final Record changes = unjournaled();
+		if (changes != null)
+		{
+			changes.killTime.add(seconds);
+			changes.killTimeHistogram.add(ticks);
+		}
+		modCount++;
+		support.firePropertyChange("Record killTime", null, killTime);
+	}
+
+	public void addKillXp(int i)
+	{
+		killXp.add(i);
+		final Record changes = unjournaled();
+		if (changes != null)
+		{
+			changes.killXp.add(i);
+		}
+		modCount++;
+		support.firePropertyChange("Record killXp", null, killXp);
+	}
+
+	public void addKillLoot(long value)
+	{
+		killLoot.add(value);
+		final Record changes = unjournaled();
+		if (changes != null)
+		{
+			changes.killLoot.add(value);
+		}
+		modCount++;
+		support.firePropertyChange("Record killLoot", null, killLoot);
+	}
+
+	public void addToLoot(Collection<ItemStack> items)
+	{
+		if (items.isEmpty())
+		{
+			return;
+		}
+		final Record changes = unjournaled();
+		for (ItemStack item : items)
+		{
+			loot.add(item.getId(), item.getQuantity());
+			if (changes != null)
+			{
+				changes.loot.add(item.getId(), item.getQuantity());
+			}
+		}
+		modCount++;
+		support.firePropertyChange("Record loot", null, loot);
+	}
+
+	/**
+	 * Adds another record's totals and per-kill distributions into this one.
+	 */
+	public void merge(Record other)
+	{
+		add(other);
+		final Record changes = unjournaled();
+		if (changes != null)
+		{
+			changes.add(other);
+		}
+		support.firePropertyChange("Record merge", null, other);
+	}
+
+	/**
+	 * {@link #merge} for totals that are already saved, such as a record's own detail read back
+	 * from disk, so they are not journaled again.
+	 */
+	void add(Record other)
+	{
+		kc += other.kc;
+		hours += other.hours;
+		combatMillis += other.combatMillis;
+		taskMillis += other.taskMillis;
+		activeMillis += other.activeMillis;
+		xp = saturatingAdd(xp, other.xp);
+		ge = saturatingAdd(ge, other.ge);
+		ha = saturatingAdd(ha, other.ha);
+		supplyCost = saturatingAdd(supplyCost, other.supplyCost);
+		damage = saturatingAdd(damage, other.damage);
+		for (int i = 0; i < combatXp.length && i < other.combatXp.length; i++)
+		{
+			combatXp[i] = saturatingAdd(combatXp[i], other.combatXp[i]);
+		}
+		if (other.combatInstant != null && (combatInstant == null || other.combatInstant.isAfter(combatInstant)))
+		{
+			combatInstant = other.combatInstant;
+		}
+		loot.addAll(other.loot);
+		killTime.merge(other.killTime);
+		killXp.merge(other.killXp);
+		killLoot.merge(other.killLoot);
+		killTimeHistogram.merge(other.killTimeHistogram);
+		modCount++;
+	}
+
+	/**
+	 * @return null if this record is never journaled
+	 */
+	private Record unjournaled()
+	{
+		// Every tracked change goes through here
+		dirty = true;
+		if (!journaled)
+		{
+			return null;
+		}
+		if (unjournaled == null)
+		{
+			unjournaled = new Record();
+		}
+		return unjournaled;
+	}
+
+	/**
+	 * Marks this record changed for the journal without adding anything to it.
+	 */
+	void markUnjournaled()
+	{
+		unjournaled();
+	}
+
+	/**
+	 * Whether this record changed since it was read or {@link #markSaved} was last called.
+	 */
+	public boolean isDirty()
+	{
+		return dirty;
+	}
+
+	/**
+	 * Called once the record is copied to be written to its shard. A write that fails marks every
+	 * shard for rewriting instead, so the flag is not restored.
+	 */
+	public void markSaved()
+	{
+		dirty = false;
+	}
+
+	void markDirty()
+	{
+		dirty = true;
+	}
+
+	/**
+	 * Takes what the mutators added since the last call, to be added over the saved record on
+	 * replay, or null if nothing was.
+	 */
+	Record takeUnjournaled()
+	{
+		final Record changes = unjournaled;
+		unjournaled = null;
+		if (changes != null)
+		{
+			changes.combatInstant = combatInstant;
+		}
+		return changes;
+	}
+
+	public RecordMetrics getMetrics(SlayerTrackerConfig.TimeBasis timeBasis)
+	{
+		final int currentModCount = modCount;
+		RecordMetrics cached = metrics;
+		if (cached == null || cached.getModCount() != currentModCount || cached.getTimeBasis() != timeBasis)
+		{
+			cached = new RecordMetrics(this, currentModCount, timeBasis);
+			metrics = cached;
+		}
+		return cached;
+	}
+
+	/**
+	 * {@code a + b}, clamped to the long range instead of wrapping. Branch-free, as it runs for
+	 * every credited record on each kill.
+	 */
+	static long saturatingAdd(long a, long b)
+	{
+		final long sum = a + b;
+		// All ones when a and b share a sign that the sum does not
+		final long overflow = ((a ^ sum) & (b ^ sum)) >> 63;
+		// Long.MAX_VALUE when a is non-negative, Long.MIN_VALUE otherwise
+		final long limit = (a >> 63) ^ Long.MAX_VALUE;
+		return (sum & ~overflow) | (limit & overflow);
+	}
+
+	/**
+	 * {@code a * b}, clamped to the long range instead of wrapping.
+	 */
+	static long saturatingMultiply(long a, long b)
+	{
+		final long product = a * b;
+		// The high half of a product that fits is only the sign extension of the low half
+		if (Math.multiplyHigh(a, b) != product >> 63)
+		{
+			return (a ^ b) < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+		}
+		return product;
+	}
+
+	/**
+	 * Values the loot ledger with the given per-item price, e.g. current GE prices,
+	 * rather than the prices at the time of each kill.
+	 */
+	public long getLootValue(IntToLongFunction itemPrice)
+	{
+		long[] total = {0L};
+		loot.forEach((itemId, quantity) ->
+			total[0] = saturatingAdd(total[0], saturatingMultiply(itemPrice.applyAsLong(itemId), quantity)));
+		return total[0];
+	}
+
+	/**
+	 * Writes this record as a JSON object, one field per counter or distribution.
+	 */
+	public void writeJson(JsonWriter out) throws IOException
+	{
+		out.beginObject();
+		writeFields(out);
+		out.endObject();
+	}
+
+	/**
+	 * Reads fields written by {@link #writeJson}, or by the Gson binding older versions saved
+	 * with, into this record.
+	 * Unknown fields are skipped.
+	 *
+	 * @param pcl listener for any nested records created while reading
+	 */
+	public void readJson(JsonReader in, PropertyChangeListener pcl) throws IOException
+	{
+		in.beginObject();
+		while (in.hasNext())
+		{
+			final String name = in.nextName();
+			if (in.peek() == JsonToken.NULL)
+			{
+				in.nextNull();
+			}
+			else if (!readField(name, in, pcl))
+			{
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		modCount++;
+	}
+
+	protected void writeFields(JsonWriter out) throws IOException
+	{
+		out.name("kc").value(kc);
+		out.name("hours").value(Float.valueOf(hours));
+		out.name("xp").value(xp);
+		out.name("ge").value(ge);
+		out.name("ha").value(ha);
+		out.name("combatXp");
+		JsonCodecs.writeLongs(out, combatXp);
+		out.name("supplyCost").value(supplyCost);
+		out.name("damage").value(damage);
+		if (combatInstant != null)
+		{
+			out.name("combatInstant").value(combatInstant.toString());
+		}
+		out.name("combatMillis").value(combatMillis);
+		out.name("taskMillis").value(taskMillis);
+		out.name("activeMillis").value(activeMillis);
+		out.name("loot");
+		JsonCodecs.writeIntLongMap(out, loot);
+		out.name("killTime");
+		killTime.writeJson(out);
+		out.name("killXp");
+		killXp.writeJson(out);
+		out.name("killLoot");
+		killLoot.writeJson(out);
+		out.name("killTimeHistogram");
+		killTimeHistogram.writeJson(out);
+	}
+
+	/**
+	 * {@link #writeJson} without the fields that are zero or empty, for a record holding only what
+	 * was added since the last journal line. Reading it back leaves those fields at zero.
+	 */
+	public void writeChangesJson(JsonWriter out) throws IOException
+	{
+		out.beginObject();
+		writeChangedFields(out);
+		out.endObject();
+	}
+
+	protected void writeChangedFields(JsonWriter out) throws IOException
+	{
+		if (kc != 0)
+		{
+			out.name("kc").value(kc);
+		}
+		if (hours != 0)
+		{
+			out.name("hours").value(Float.valueOf(hours));
+		}
+		if (xp != 0)
+		{
+			out.name("xp").value(xp);
+		}
+		if (ge != 0)
+		{
+			out.name("ge").value(ge);
+		}
+		if (ha != 0)
+		{
+			out.name("ha").value(ha);
+		}
+		for (long skillXp : combatXp)
+		{
+			if (skillXp != 0)
+			{
+				out.name("combatXp");
+				JsonCodecs.writeLongs(out, combatXp);
+				break;
+			}
+		}
+		if (supplyCost != 0)
+		{
+			out.name("supplyCost").value(supplyCost);
+		}
+		if (damage != 0)
+		{
+			out.name("damage").value(damage);
+		}
+		if (combatInstant != null)
+		{
+			out.name("combatInstant").value(combatInstant.toString());
+		}
+		if (combatMillis != 0)
+		{
+			out.name("combatMillis").value(combatMillis);
+		}
+		if (taskMillis != 0)
+		{
+			out.name("taskMillis").value(taskMillis);
+		}
+		if (activeMillis != 0)
+		{
+			out.name("activeMillis").value(activeMillis);
+		}
+		if (!loot.isEmpty())
+		{
+			out.name("loot");
+			JsonCodecs.writeIntLongMap(out, loot);
+		}
+		if (killTime.getCount() != 0)
+		{
+			out.name("killTime");
+			killTime.writeJson(out);
+		}
+		if (killXp.getCount() != 0)
+		{
+			out.name("killXp");
+			killXp.writeJson(out);
+		}
+		if (killLoot.getCount() != 0)
+		{
+			out.name("killLoot");
+			killLoot.writeJson(out);
+		}
+		if (killTimeHistogram.getTotal() != 0)
+		{
+			out.name("killTimeHistogram");
+			killTimeHistogram.writeJson(out);
+		}
+	}
+
+	/**
+	 * @return false if {@code name} is not a field of this record, leaving its value unread
+	 */
+	protected boolean readField(String name, JsonReader in, PropertyChangeListener pcl) throws IOException
+	{
+		switch (name)
+		{
+			case "kc":
+				kc = in.nextInt();
+				return true;
+			case "hours":
+				hours = (float) in.nextDouble();
+				return true;
+			case "xp":
+				xp = in.nextLong();
+				return true;
+			case "ge":
+				ge = in.nextLong();
+				return true;
+			case "ha":
+				ha = in.nextLong();
+				return true;
+			case "combatXp":
+				final long[] saved = JsonCodecs.readLongs(in);
+				System.arraycopy(saved, 0, combatXp, 0, Math.min(saved.length, combatXp.length));
+				return true;
+			case "supplyCost":
+				supplyCost = in.nextLong();
+				return true;
+			case "damage":
+				damage = in.nextLong();
+				return true;
+			case "combatInstant":
+				combatInstant = JsonCodecs.readInstant(in);
+				return true;
+			case "combatMillis":
+				combatMillis = in.nextLong();
+				return true;
+			case "taskMillis":
+				taskMillis = in.nextLong();
+				return true;
+			case "activeMillis":
+				activeMillis = in.nextLong();
+				return true;
+			case "loot":
+				JsonCodecs.readIntLongMap(in, loot);
+				return true;
+			case "killTime":
+				killTime.readJson(in);
+				return true;
+			case "killXp":
+				killXp.readJson(in);
+				return true;
+			case "killLoot":
+				killLoot.readJson(in);
+				return true;
+			case "killTimeHistogram":
+				killTimeHistogram.readJson(in);
+				return true;
+			default:
+				return false;
+		}
+	}
+
 	@Override
 	public String toString()
 	{
 		return "Record{" +
 			"kc=" + kc +
 			", hours=" + hours +
+			", combatMillis=" + combatMillis +
+			", taskMillis=" + taskMillis +
+			", activeMillis=" + activeMillis +
 			", xp=" + xp +
 			", ge=" + ge +
 			", ha=" + ha +
+			", combatXp=" + Arrays.toString(combatXp) +
+			", supplyCost=" + supplyCost +
+			", damage=" + damage +
+			", loot=" + loot +
+			", killTime=" + killTime +
+			", killTimeHistogram=" + killTimeHistogram +
+			", killXp=" + killXp +
+			", killLoot=" + killLoot +
 			'}';
 	}
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.records;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.slayertracker.groups.Variant;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * What an assignment record gained between two journal lines, to be applied over the saved record
+ * by {@link AssignmentRecord#applyChanges}.
+ * <p>
+ * Counters, distributions, loot and rows are additive, so a line only holds what was added since
+ * the one before it. Deletions and the open task row are not, so they are carried alongside.
+ */
+@Getter(AccessLevel.PACKAGE)
+public class RecordChanges
+{
+	// Variant, gear and custom records in here hold only their own additions
+	private final AssignmentRecord added;
+	private final Set<Variant> removedVariants;
+	private final Set<Integer> removedCustomRecordIds;
+	private final boolean openTaskRowChanged;
+	private final long[] openTaskRow;
+
+	RecordChanges(AssignmentRecord added, Set<Variant> removedVariants, Set<Integer> removedCustomRecordIds,
+		boolean openTaskRowChanged, long[] openTaskRow)
+	{
+		this.added = added;
+		this.removedVariants = removedVariants;
+		this.removedCustomRecordIds = removedCustomRecordIds;
+		this.openTaskRowChanged = openTaskRowChanged;
+		this.openTaskRow = openTaskRow;
+	}
+
+	public void writeJson(JsonWriter out) throws IOException
+	{
+		out.beginObject();
+		out.name("added");
+		added.writeChangesJson(out);
+		if (!removedVariants.isEmpty())
+		{
+			out.name("removedVariants").beginArray();
+			for (Variant variant : removedVariants)
+			{
+				out.value(variant.getId());
+			}
+			out.endArray();
+		}
+		if (!removedCustomRecordIds.isEmpty())
+		{
+			out.name("removedCustomRecords").beginArray();
+			for (int id : removedCustomRecordIds)
+			{
+				out.value(id);
+			}
+			out.endArray();
+		}
+		if (openTaskRowChanged)
+		{
+			// Null once the task is over
+			out.name("openTaskRow");
+			if (openTaskRow == null)
+			{
+				out.nullValue();
+			}
+			else
+			{
+				JsonCodecs.writeLongs(out, openTaskRow);
+			}
+		}
+		out.endObject();
+	}
+
+	/**
+	 * @param pcl listener for the records read, which are adopted by the record the changes are
+	 * applied to
+	 */
+	public static RecordChanges readJson(JsonReader in, PropertyChangeListener pcl) throws IOException
+	{
+		final AssignmentRecord added = new AssignmentRecord(pcl);
+		final Set<Variant> removedVariants = new HashSet<>();
+		final Set<Integer> removedCustomRecordIds = new HashSet<>();
+		boolean openTaskRowChanged = false;
+		long[] openTaskRow = null;
+
+		in.beginObject();
+		while (in.hasNext())
+		{
+			switch (in.nextName())
+			{
+				case "added":
+					added.readJson(in, pcl);
+					break;
+				case "removedVariants":
+					in.beginArray();
+					while (in.hasNext())
+					{
+						final String id = in.nextString();
+						removedVariants.add(Variant.getById(id)
+							.orElseThrow(() -> new IOException("Unknown variant id: " + id)));
+					}
+					in.endArray();
+					break;
+				case "removedCustomRecords":
+					in.beginArray();
+					while (in.hasNext())
+					{
+						removedCustomRecordIds.add(in.nextInt());
+					}
+					in.endArray();
+					break;
+				case "openTaskRow":
+					openTaskRowChanged = true;
+					if (in.peek() == JsonToken.NULL)
+					{
+						in.nextNull();
+					}
+					else
+					{
+						openTaskRow = JsonCodecs.readLongs(in);
+					}
+					break;
+				default:
+					in.skipValue();
+			}
+		}
+		in.endObject();
+		return new RecordChanges(added, removedVariants, removedCustomRecordIds, openTaskRowChanged, openTaskRow);
+	}
+}
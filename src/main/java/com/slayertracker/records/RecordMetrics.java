@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.records;
+
+import com.slayertracker.SlayerTrackerConfig;
+import lombok.Getter;
+import net.runelite.api.Constants;
+
+/**
+ * Rates and per-kill averages derived from a record, computed once per change.
+ * <p>
+ * Obtained through {@link Record#getMetrics}, which reuses the last instance until the record's
+ * modification counter or the time basis changes, so the stats panel, sorting and the optimizer
+ * share a single computation. Intervals are NaN when there are too few kills to estimate them.
+ */
+@Getter
+public final class RecordMetrics
+{
+	private final int modCount;
+	private final SlayerTrackerConfig.TimeBasis timeBasis;
+
+	private final double hours;
+	private final double kcPerHour;
+	private final double xpPerHour;
+	// Combined xp/h across Record.COMBAT_SKILLS
+	private final double combatXpPerHour;
+	private final double gePerHour;
+	private final double haPerHour;
+	// Loot value per hour less supplies consumed
+	private final double netGePerHour;
+	private final double netHaPerHour;
+	// Damage per second of in-combat time, regardless of the time basis
+	private final double dps;
+
+	// 95% confidence interval of the hourly rates, from the per-kill distributions
+	private final double xpPerHourLow;
+	private final double xpPerHourHigh;
+	private final double gePerHourLow;
+	private final double gePerHourHigh;
+
+	// Seconds from engagement to death
+	private final long killTimeSamples;
+	private final double killTimeMean;
+	private final double killTimeError;
+	private final double killTimeP50;
+	private final double killTimeP90;
+
+	RecordMetrics(Record record, int modCount, SlayerTrackerConfig.TimeBasis timeBasis)
+	{
+		this.modCount = modCount;
+		this.timeBasis = timeBasis;
+
+		hours = record.getHours(timeBasis);
+		kcPerHour = record.getKc() / hours;
+		xpPerHour = record.getXp() / hours;
+		combatXpPerHour = record.getCombatXpTotal() / hours;
+		gePerHour = record.getGe() / hours;
+		haPerHour = record.getHa() / hours;
+		netGePerHour = (record.getGe() - record.getSupplyCost()) / hours;
+		netHaPerHour = (record.getHa() - record.getSupplyCost()) / hours;
+		dps = record.getCombatMillis() > 0 ? record.getDamage() * 1000.0 / record.getCombatMillis() : Double.NaN;
+
+		final RunningStats killXp = record.getKillXp();
+		xpPerHourLow = lowerBound(kcPerHour, killXp);
+		xpPerHourHigh = upperBound(kcPerHour, killXp);
+		final RunningStats killLoot = record.getKillLoot();
+		gePerHourLow = lowerBound(kcPerHour, killLoot);
+		gePerHourHigh = upperBound(kcPerHour, killLoot);
+
+		final RunningStats killTime = record.getKillTime();
+		killTimeSamples = killTime.getCount();
+		killTimeMean = killTime.getMean();
+		killTimeError = killTime.getConfidenceHalfWidth();
+		killTimeP50 = ticksToSeconds(record.getKillTimeHistogram().getPercentileTicks(0.5));
+		killTimeP90 = ticksToSeconds(record.getKillTimeHistogram().getPercentileTicks(0.9));
+	}
+
+	/**
+	 * Half-width of the 95% confidence interval of the GE rate.
+	 */
+	public double getGePerHourError()
+	{
+		return (gePerHourHigh - gePerHourLow) / 2;
+	}
+
+	private static double lowerBound(double kcPerHour, RunningStats perKill)
+	{
+		if (perKill.getCount() < 2 || !Double.isFinite(kcPerHour))
+		{
+			return Double.NaN;
+		}
+		return kcPerHour * Math.max(0, perKill.getMean() - perKill.getConfidenceHalfWidth());
+	}
+
+	private static double upperBound(double kcPerHour, RunningStats perKill)
+	{
+		if (perKill.getCount() < 2 || !Double.isFinite(kcPerHour))
+		{
+			return Double.NaN;
+		}
+		return kcPerHour * (perKill.getMean() + perKill.getConfidenceHalfWidth());
+	}
+
+	private static double ticksToSeconds(int ticks)
+	{
+		return Math.max(0, ticks) * Constants.GAME_TICK_LENGTH / 1000.0;
+	}
+}
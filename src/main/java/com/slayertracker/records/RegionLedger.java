@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.records;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Kills, xp, GE value, damage and on-task time of one assignment, broken down by map region id.
+ * <p>
+ * Only touched when the player changes region, damages a target or a kill is credited. At most
+ * {@link #MAX_REGIONS} regions are kept; anything beyond is pooled under {@link #OTHER_REGION} so
+ * memory stays bounded.
+ */
+public class RegionLedger
+{
+	public static final int OTHER_REGION = -1;
+	static final int MAX_REGIONS = 64;
+
+	// Every region seen has a key here, so it doubles as the region index
+	private final IntLongMap millis = new IntLongMap();
+	private final IntLongMap kc = new IntLongMap();
+	private final IntLongMap xp = new IntLongMap();
+	private final IntLongMap ge = new IntLongMap();
+	private final IntLongMap damage = new IntLongMap();
+	// Changed since it was read or last saved
+	private boolean dirty;
+	// What was added since the journal last took it, or null if nothing was
+	private RegionLedger unjournaled;
+
+	public void addMillis(int regionId, long ms)
+	{
+		if (ms == 0)
+		{
+			return;
+		}
+		add(regionId, ms, 0, 0, 0, 0);
+		unjournaled().add(regionId, ms, 0, 0, 0, 0);
+	}
+
+	public void addKill(int regionId)
+	{
+		add(regionId, 0, 1, 0, 0, 0);
+		unjournaled().add(regionId, 0, 1, 0, 0, 0);
+	}
+
+	public void addXp(int regionId, long amount)
+	{
+		if (amount == 0)
+		{
+			return;
+		}
+		add(regionId, 0, 0, amount, 0, 0);
+		unjournaled().add(regionId, 0, 0, amount, 0, 0);
+	}
+
+	public void addGe(int regionId, long amount)
+	{
+		if (amount == 0)
+		{
+			return;
+		}
+		add(regionId, 0, 0, 0, amount, 0);
+		unjournaled().add(regionId, 0, 0, 0, amount, 0);
+	}
+
+	public void addDamage(int regionId, long amount)
+	{
+		if (amount == 0)
+		{
+			return;
+		}
+		add(regionId, 0, 0, 0, 0, amount);
+		unjournaled().add(regionId, 0, 0, 0, 0, amount);
+	}
+
+	/**
+	 * Adds another ledger's totals into this one, region by region.
+	 */
+	public void merge(RegionLedger other)
+	{
+		add(other);
+		unjournaled().add(other);
+	}
+
+	/**
+	 * {@link #merge} for totals that are already saved, so they are not journaled again.
+	 */
+	void add(RegionLedger other)
+	{
+		for (int regionId : other.getRegionIds())
+		{
+			add(regionId, other.millis.get(regionId), other.kc.get(regionId), other.xp.get(regionId),
+				other.ge.get(regionId), other.damage.get(regionId));
+		}
+	}
+
+	/**
+	 * Takes what was added since the last call, or null if nothing was.
+	 */
+	RegionLedger takeUnjournaled()
+	{
+		final RegionLedger changes = unjournaled;
+		unjournaled = null;
+		return changes;
+	}
+
+	private void add(int regionId, long millisAdded, long kcAdded, long xpAdded, long geAdded, long damageAdded)
+	{
+		final int slot = slotFor(regionId);
+		millis.add(slot, millisAdded);
+		if (kcAdded != 0)
+		{
+			kc.add(slot, kcAdded);
+		}
+		if (xpAdded != 0)
+		{
+			xp.add(slot, xpAdded);
+		}
+		if (geAdded != 0)
+		{
+			ge.add(slot, geAdded);
+		}
+		if (damageAdded != 0)
+		{
+			damage.add(slot, damageAdded);
+		}
+	}
+
+	private RegionLedger unjournaled()
+	{
+		dirty = true;
+		if (unjournaled == null)
+		{
+			unjournaled = new RegionLedger();
+		}
+		return unjournaled;
+	}
+
+	public int[] getRegionIds()
+	{
+		return millis.keys();
+	}
+
+	public long getMillis(int regionId)
+	{
+		return millis.get(regionId);
+	}
+
+	public long getKc(int regionId)
+	{
+		return kc.get(regionId);
+	}
+
+	public long getXp(int regionId)
+	{
+		return xp.get(regionId);
+	}
+
+	public long getGe(int regionId)
+	{
+		return ge.get(regionId);
+	}
+
+	public long getDamage(int regionId)
+	{
+		return damage.get(regionId);
+	}
+
+	public boolean isDirty()
+	{
+		return dirty;
+	}
+
+	public void markSaved()
+	{
+		dirty = false;
+	}
+
+	public boolean isEmpty()
+	{
+		return millis.isEmpty();
+	}
+
+	public void writeJson(JsonWriter out) throws IOException
+	{
+		out.beginObject();
+		out.name("millis");
+		JsonCodecs.writeIntLongMap(out, millis);
+		out.name("kc");
+		JsonCodecs.writeIntLongMap(out, kc);
+		out.name("xp");
+		JsonCodecs.writeIntLongMap(out, xp);
+		out.name("ge");
+		JsonCodecs.writeIntLongMap(out, ge);
+		out.name("damage");
+		JsonCodecs.writeIntLongMap(out, damage);
+		out.endObject();
+	}
+
+	public void readJson(JsonReader in) throws IOException
+	{
+		in.beginObject();
+		while (in.hasNext())
+		{
+			switch (in.nextName())
+			{
+				case "millis":
+					JsonCodecs.readIntLongMap(in, millis);
+					break;
+				case "kc":
+					JsonCodecs.readIntLongMap(in, kc);
+					break;
+				case "xp":
+					JsonCodecs.readIntLongMap(in, xp);
+					break;
+				case "ge":
+					JsonCodecs.readIntLongMap(in, ge);
+					break;
+				case "damage":
+					JsonCodecs.readIntLongMap(in, damage);
+					break;
+				default:
+					in.skipValue();
+			}
+		}
+		in.endObject();
+	}
+
+	private int slotFor(int regionId)
+	{
+		if (millis.containsKey(regionId))
+		{
+			return regionId;
+		}
+		// Keep the last slot for the overflow bucket
+		final int slot = millis.size() < MAX_REGIONS - 1 ? regionId : OTHER_REGION;
+		millis.add(slot, 0);
+		return slot;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "RegionLedger{" +
+			"regions=" + millis.size() +
+			'}';
+	}
+}
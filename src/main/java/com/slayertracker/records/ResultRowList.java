@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.records;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Append-only list of fixed-width result rows, one per session or task instance.
+ * <p>
+ * Rows are stored back to back in a single {@code long[]} with {@link #STRIDE} columns each, so
+ * per-session and per-task comparisons read a few primitives per row rather than replaying kills.
+ * Rows are appended at most a few times per session, so the array grows to fit exactly.
+ */
+public class ResultRowList
+{
+	public static final int START_MILLIS = 0;
+	public static final int END_MILLIS = 1;
+	public static final int ASSIGNED = 2;
+	public static final int KC = 3;
+	public static final int XP = 4;
+	public static final int GE = 5;
+	public static final int HA = 6;
+	public static final int COMBAT_MILLIS = 7;
+	public static final int STRIDE = 8;
+
+	private long[] rows = new long[0];
+	// Rows the journal has already taken
+	private int journaledRows;
+	// Appended to since it was read or last saved
+	private boolean dirty;
+
+	public ResultRowList()
+	{
+	}
+
+	public ResultRowList(ResultRowList other)
+	{
+		rows = other.rows.clone();
+	}
+
+	/**
+	 * Captures the counters of {@code record} as the start of a row, to be passed to {@link #close}.
+	 */
+	public static long[] open(Record record, long startMillis, long assigned)
+	{
+		long[] row = new long[STRIDE];
+		row[START_MILLIS] = startMillis;
+		row[ASSIGNED] = assigned;
+		row[KC] = record.getKc();
+		row[XP] = record.getXp();
+		row[GE] = record.getGe();
+		row[HA] = record.getHa();
+		row[COMBAT_MILLIS] = record.getCombatMillis();
+		return row;
+	}
+
+	/**
+	 * Appends the row opened by {@link #open}, with each counter replaced by its change since then.
+	 */
+	public void close(long[] openRow, Record record, long endMillis)
+	{
+		int offset = rows.length;
+		rows = Arrays.copyOf(rows, offset + STRIDE);
+		rows[offset + START_MILLIS] = openRow[START_MILLIS];
+		rows[offset + END_MILLIS] = endMillis;
+		rows[offset + ASSIGNED] = openRow[ASSIGNED];
+		rows[offset + KC] = record.getKc() - openRow[KC];
+		rows[offset + XP] = record.getXp() - openRow[XP];
+		rows[offset + GE] = record.getGe() - openRow[GE];
+		rows[offset + HA] = record.getHa() - openRow[HA];
+		rows[offset + COMBAT_MILLIS] = record.getCombatMillis() - openRow[COMBAT_MILLIS];
+		dirty = true;
+	}
+
+	/**
+	 * Whether any counter of {@code record} has moved since {@code openRow} was captured.
+	 */
+	public static boolean hasChanged(long[] openRow, Record record)
+	{
+		return record.getKc() != openRow[KC]
+			|| record.getXp() != openRow[XP]
+			|| record.getGe() != openRow[GE]
+			|| record.getHa() != openRow[HA]
+			|| record.getCombatMillis() != openRow[COMBAT_MILLIS];
+	}
+
+	public boolean isDirty()
+	{
+		return dirty;
+	}
+
+	public void markSaved()
+	{
+		dirty = false;
+	}
+
+	/**
+	 * Takes the rows appended since the last call, or null if there are none.
+	 */
+	ResultRowList takeUnjournaled()
+	{
+		final int size = size();
+		if (journaledRows == size)
+		{
+			return null;
+		}
+		final ResultRowList changes = new ResultRowList();
+		changes.rows = Arrays.copyOfRange(rows, journaledRows * STRIDE, rows.length);
+		journaledRows = size;
+		return changes;
+	}
+
+	public void addAll(ResultRowList other)
+	{
+		final int offset = rows.length;
+		rows = Arrays.copyOf(rows, offset + other.rows.length);
+		System.arraycopy(other.rows, 0, rows, offset, other.rows.length);
+	}
+
+	/**
+	 * Inserts rows that came before these, such as those saved before this list was read. They
+	 * are not journaled again.
+	 */
+	void addAllBefore(ResultRowList earlier)
+	{
+		final long[] merged = Arrays.copyOf(earlier.rows, earlier.rows.length + rows.length);
+		System.arraycopy(rows, 0, merged, earlier.rows.length, rows.length);
+		rows = merged;
+		journaledRows += earlier.size();
+	}
+
+	public void writeJson(JsonWriter out) throws IOException
+	{
+		out.beginObject();
+		out.name("rows");
+		JsonCodecs.writeLongs(out, rows);
+		out.endObject();
+	}
+
+	public void readJson(JsonReader in) throws IOException
+	{
+		in.beginObject();
+		while (in.hasNext())
+		{
+			if (in.nextName().equals("rows"))
+			{
+				rows = JsonCodecs.readLongs(in);
+			}
+			else
+			{
+				in.skipValue();
+			}
+		}
+		in.endObject();
+	}
+
+	public int size()
+	{
+		return rows.length / STRIDE;
+	}
+
+	public long get(int row, int column)
+	{
+		return rows[row * STRIDE + column];
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ResultRowList{" +
+			"size=" + size() +
+			'}';
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.records;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Online mean and variance of a per-kill quantity (Welford's algorithm).
+ * <p>
+ * Each sample is folded in with O(1) work and no history is kept, so a record can report
+ * confidence intervals on its per-kill averages without a kill log.
+ */
+public class RunningStats
+{
+	// Two-sided 95% normal quantile
+	private static final double Z_95 = 1.959964;
+
+	private long count;
+	private double mean;
+	private double m2;
+
+	public RunningStats()
+	{
+	}
+
+	public RunningStats(RunningStats other)
+	{
+		count = other.count;
+		mean = other.mean;
+		m2 = other.m2;
+	}
+
+	public void add(double sample)
+	{
+		count++;
+		double delta = sample - mean;
+		mean += delta / count;
+		m2 += delta * (sample - mean);
+	}
+
+	/**
+	 * Folds another accumulator into this one (Chan et al. parallel update).
+	 */
+	public void merge(RunningStats other)
+	{
+		if (other.count == 0)
+		{
+			return;
+		}
+		if (count == 0)
+		{
+			count = other.count;
+			mean = other.mean;
+			m2 = other.m2;
+			return;
+		}
+
+		final long n = count + other.count;
+		final double delta = other.mean - mean;
+		mean += delta * other.count / n;
+		m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+		count = n;
+	}
+
+	public long getCount()
+	{
+		return count;
+	}
+
+	public double getMean()
+	{
+		return count == 0 ? 0.0 : mean;
+	}
+
+	/**
+	 * Unbiased sample variance; 0 until there are at least two samples.
+	 */
+	public double getVariance()
+	{
+		return count < 2 ? 0.0 : m2 / (count - 1);
+	}
+
+	public double getStandardDeviation()
+	{
+		return Math.sqrt(getVariance());
+	}
+
+	public double getStandardError()
+	{
+		return count < 2 ? 0.0 : Math.sqrt(getVariance() / count);
+	}
+
+	/**
+	 * Half-width of the 95% confidence interval of the mean.
+	 */
+	public double getConfidenceHalfWidth()
+	{
+		return Z_95 * getStandardError();
+	}
+
+	public void writeJson(JsonWriter out) throws IOException
+	{
+		out.beginObject();
+		out.name("count").value(count);
+		out.name("mean").value(mean);
+		out.name("m2").value(m2);
+		out.endObject();
+	}
+
+	public void readJson(JsonReader in) throws IOException
+	{
+		in.beginObject();
+		while (in.hasNext())
+		{
+			switch (in.nextName())
+			{
+				case "count":
+					count = in.nextLong();
+					break;
+				case "mean":
+					mean = in.nextDouble();
+					break;
+				case "m2":
+					m2 = in.nextDouble();
+					break;
+				default:
+					in.skipValue();
+			}
+		}
+		in.endObject();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "RunningStats{" +
+			"count=" + count +
+			", mean=" + mean +
+			", sd=" + getStandardDeviation() +
+			'}';
+	}
+}
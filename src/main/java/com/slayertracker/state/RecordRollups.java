@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.slayertracker.state;
+
+import com.slayertracker.groups.Assignment;
+import com.slayertracker.groups.Master;
+import com.slayertracker.records.AssignmentRecord;
+import com.slayertracker.records.Record;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import lombok.Getter;
+
+/**
+ * Aggregates of all assignment records: global, bosses vs. normal tasks, and per Slayer master
+ * task pool.
+ * <p>
+ * Kept current by routing every assignment-level delta through {@link #forEachRollup}, so
+ * totals never require iterating the assignment records. A full {@link #rebuild} is only needed
+ * when records are loaded or deleted.
+ */
+@Getter
+public class RecordRollups
+{
+	private static final Map<Assignment, Master[]> MASTERS_BY_ASSIGNMENT = new EnumMap<>(Assignment.class);
+
+	static
+	{
+		for (Assignment assignment : Assignment.values())
+		{
+			MASTERS_BY_ASSIGNMENT.put(assignment, Arrays.stream(Master.values())
+				.filter(master -> master.assigns(assignment))
+				.toArray(Master[]::new));
+		}
+	}
+
+	private Record global;
+	private Record bosses;
+	private Record tasks;
+	private final Map<Master, Record> masters = new EnumMap<>(Master.class);
+
+	public RecordRollups()
+	{
+		clear();
+	}
+
+	public void forEachRollup(Assignment assignment, Consumer<Record> credit)
+	{
+		credit.accept(global);
+		credit.accept(assignment.isBoss() ? bosses : tasks);
+		for (Master master : MASTERS_BY_ASSIGNMENT.get(assignment))
+		{
+			credit.accept(masters.get(master));
+		}
+	}
+
+	public void rebuild(Map<Assignment, AssignmentRecord> assignmentRecords)
+	{
+		clear();
+		assignmentRecords.forEach((assignment, assignmentRecord) ->
+			forEachRollup(assignment, rollup -> rollup.merge(assignmentRecord)));
+	}
+
+	public void clear()
+	{
+		global = Record.aggregate();
+		bosses = Record.aggregate();
+		tasks = Record.aggregate();
+		for (Master master : Master.values())
+		{
+			masters.put(master, Record.aggregate());
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "RecordRollups{" +
+			"global=" + global +
+			", bosses=" + bosses +
+			", tasks=" + tasks +
+			'}';
+	}
+}
@@ -26,18 +26,25 @@
 package com.slayertracker.state;
 
 import com.slayertracker.groups.Assignment;
+import com.slayertracker.groups.Variant;
 import com.slayertracker.records.AssignmentRecord;
+import com.slayertracker.records.IntLongMap;
+import com.slayertracker.records.Record;
 import com.slayertracker.records.RecordMap;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import lombok.Getter;
 import lombok.Setter;
+import net.runelite.api.Item;
 import net.runelite.api.NPC;
 
 @Getter
@@ -48,40 +55,110 @@ public class TrackerState implements PropertyChangeListener
 
 	private final PlayerUnlockState playerUnlockState = new PlayerUnlockState();
 	private final RecordMap<Assignment, AssignmentRecord> assignmentRecords;
+	private final RecordRollups rollups = new RecordRollups();
 
 	private final Deque<EndedInteraction> endedInteractions = new ArrayDeque<>();
 	private final Deque<AmountProc> taskAmountChanges = new ArrayDeque<>();
 	private final Deque<AmountProc> expeditiousProcs = new ArrayDeque<>();
 	private final Deque<KillEvent> killEvents = new ArrayDeque<>();
 	private final Deque<XpDropEvent> xpDropEvents = new ArrayDeque<>();
+	// Tick each target was first engaged, for time-to-kill
+	private final Map<NPC, Integer> interactionStartTicks = new HashMap<>();
+	// Targets hit this tick by the player's hitsplats, including cannon and splash hits with no interaction
+	private final HitBuffer hits = new HitBuffer();
 
 	private Assignment currentAssignment;
 	@Setter
 	private int remainingAmount;
 	@Setter
 	private int cachedXp = -1;
+	// Per combat skill (Record.COMBAT_SKILLS order): last seen xp, and xp gained since the last kill allocation
+	private final int[] cachedCombatXp = new int[Record.COMBAT_SKILLS.length];
+	private final int[] pendingCombatXp = new int[Record.COMBAT_SKILLS.length];
 	@Setter
 	private String profileFileName;
+	// Time accounting: the variant credited with on-task time, and the last tick spent engaged
+	@Setter
+	private Variant lastEngagedVariant;
+	@Setter
+	private int lastActiveTick;
+	// Counters of each assignment record at login, closed into session rows at logout
+	private final Map<Assignment, long[]> sessionStartRows = new HashMap<>();
+	@Setter
+	private long sessionStartMillis;
+	// Set when the task may have started or ended, so open task rows are reconciled
+	@Setter
+	private boolean taskRowsDirty;
+	// Region the player is in (-1 until known) and on-task ticks spent there not yet flushed to the ledger
+	@Setter
+	private int currentRegionId = -1;
+	@Setter
+	private int pendingRegionTicks;
+	// Worn item ids and their fingerprint (0 until known); the scratch array is reused for every equipment change
+	@Setter
+	private long gearFingerprint;
+	@Setter
+	private int[] equipment = new int[0];
+	@Setter
+	private int[] equipmentScratch = new int[0];
+	// Supply tracking: last container contents, the change per item id not yet valued, and dropped
+	// loot not yet picked up, so picking it up is not mistaken for restocking
+	private final ContainerSnapshot inventorySnapshot = new ContainerSnapshot();
+	private final ContainerSnapshot wornSnapshot = new ContainerSnapshot();
+	private final IntLongMap supplyDelta = new IntLongMap();
+	private final IntLongMap unclaimedLoot = new IntLongMap();
+	@Setter
+	private boolean supplyFlushPending;
+	// Set by any record change, cleared once the change is journaled or saved respectively
+	@Setter
+	private boolean journalDirty;
+	@Setter
+	private boolean unsavedChanges;
+	@Setter
+	private long lastSaveMillis;
 
 	@Inject
 	public TrackerState()
 	{
 		assignmentRecords = new RecordMap<>(this);
+		Arrays.fill(cachedCombatXp, -1);
 	}
 
 	public void clear()
 	{
 		playerUnlockState.clear();
 		assignmentRecords.clear();
+		rollups.clear();
 		endedInteractions.clear();
 		taskAmountChanges.clear();
 		expeditiousProcs.clear();
 		killEvents.clear();
 		xpDropEvents.clear();
+		interactionStartTicks.clear();
+		hits.clear();
 		currentAssignment = null;
 		remainingAmount = 0;
 		cachedXp = -1;
+		Arrays.fill(cachedCombatXp, -1);
+		Arrays.fill(pendingCombatXp, 0);
 		profileFileName = null;
+		lastEngagedVariant = null;
+		lastActiveTick = 0;
+		sessionStartRows.clear();
+		sessionStartMillis = 0;
+		taskRowsDirty = false;
+		currentRegionId = -1;
+		pendingRegionTicks = 0;
+		gearFingerprint = 0;
+		equipment = new int[0];
+		inventorySnapshot.clear();
+		wornSnapshot.clear();
+		supplyDelta.clear();
+		unclaimedLoot.clear();
+		supplyFlushPending = false;
+		journalDirty = false;
+		unsavedChanges = false;
+		lastSaveMillis = 0;
 	}
 
 	public void setCurrentAssignment(@Nullable Assignment assignment)
@@ -106,9 +183,128 @@ public class TrackerState implements PropertyChangeListener
 	@Override
 	public void propertyChange(PropertyChangeEvent evt)
 	{
+		// Records added, replaced or removed; per-kill deltas reach the rollups directly
+		if (evt.getSource() == assignmentRecords)
+		{
+			rollups.rebuild(assignmentRecords);
+		}
+		journalDirty = true;
+		unsavedChanges = true;
 		support.firePropertyChange(evt);
 	}
 
+	/**
+	 * Last seen contents of an item container, in arrays reused between events so diffing does not allocate.
+	 */
+	public static class ContainerSnapshot
+	{
+		private int[] ids = new int[0];
+		private int[] quantities = new int[0];
+		private int size;
+		private boolean seeded;
+
+		/**
+		 * Adds the change in quantity of each item id since the previous call to {@code delta}, then
+		 * stores {@code items}. The first call only seeds the snapshot.
+		 */
+		public void diffInto(Item[] items, IntLongMap delta)
+		{
+			if (seeded)
+			{
+				addTo(delta, -1);
+			}
+
+			if (ids.length < items.length)
+			{
+				ids = new int[items.length];
+				quantities = new int[items.length];
+			}
+			size = items.length;
+			for (int i = 0; i < size; i++)
+			{
+				ids[i] = items[i].getId();
+				quantities[i] = items[i].getQuantity();
+			}
+
+			if (seeded)
+			{
+				addTo(delta, 1);
+			}
+			seeded = true;
+		}
+
+		public void clear()
+		{
+			size = 0;
+			seeded = false;
+		}
+
+		private void addTo(IntLongMap delta, int sign)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				if (ids[i] >= 0 && quantities[i] > 0)
+				{
+					delta.add(ids[i], (long) sign * quantities[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Slayer targets hit since the last game tick and the damage dealt to each, in parallel arrays
+	 * so recording a hitsplat is a short scan and two array writes.
+	 */
+	public static class HitBuffer
+	{
+		private NPC[] npcs = new NPC[8];
+		private int[] damage = new int[8];
+		private int size;
+
+		public void add(NPC npc, int amount)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				if (npcs[i] == npc)
+				{
+					damage[i] += amount;
+					return;
+				}
+			}
+
+			if (size == npcs.length)
+			{
+				npcs = Arrays.copyOf(npcs, size * 2);
+				damage = Arrays.copyOf(damage, size * 2);
+			}
+			npcs[size] = npc;
+			damage[size] = amount;
+			size++;
+		}
+
+		public int size()
+		{
+			return size;
+		}
+
+		public NPC getNpc(int i)
+		{
+			return npcs[i];
+		}
+
+		public int getDamage(int i)
+		{
+			return damage[i];
+		}
+
+		public void clear()
+		{
+			// Drop references so despawned npcs are not retained
+			Arrays.fill(npcs, 0, size, null);
+			size = 0;
+		}
+	}
+
 	@Getter
 	public static class EndedInteraction
 	{
@@ -177,16 +373,35 @@ public class TrackerState implements PropertyChangeListener
 		private final NPC npc;
 		private final Assignment assignment;
 		private final int tick;
+		private final int startTick;
+		private final int regionId;
+		private final long gearFingerprint;
 
 		private boolean kcLogged;
 		private boolean xpLogged;
 		private boolean lootLogged;
 
-		public KillEvent(NPC npc, Assignment assignment, int tick)
+		// Credited to the kill so far, for the kill history
+		private int xp;
+		private long ge;
+		private long ha;
+
+		public KillEvent(NPC npc, Assignment assignment, int tick, int startTick, int regionId, long gearFingerprint)
 		{
 			this.npc = npc;
 			this.assignment = assignment;
 			this.tick = tick;
+			this.startTick = startTick;
+			this.regionId = regionId;
+			this.gearFingerprint = gearFingerprint;
+		}
+
+		/**
+		 * Ticks from first engaging the NPC to its death, or -1 if the engagement was not seen.
+		 */
+		public int getDurationTicks()
+		{
+			return startTick < 0 ? -1 : tick - startTick;
 		}
 
 		public void markKcLogged()
@@ -204,6 +419,17 @@ public class TrackerState implements PropertyChangeListener
 			lootLogged = true;
 		}
 
+		public void addXp(int xp)
+		{
+			this.xp += xp;
+		}
+
+		public void addLoot(long ge, long ha)
+		{
+			this.ge += ge;
+			this.ha += ha;
+		}
+
 		public boolean isCompleted()
 		{
 			return kcLogged && lootLogged && xpLogged;
@@ -212,7 +438,7 @@ public class TrackerState implements PropertyChangeListener
 		@Override
 		public String toString()
 		{
-			return "npc=" + npc + ", npc name=" + npc.getName() + ", assignment=" + assignment + ", tick=" + tick + ", kcL=" + kcLogged + ", xpL=" + xpLogged + ", lootL=" + lootLogged;
+			return "npc=" + npc + ", npc name=" + npc.getName() + ", assignment=" + assignment + ", tick=" + tick + ", startTick=" + startTick + ", regionId=" + regionId + ", kcL=" + kcLogged + ", xpL=" + xpLogged + ", lootL=" + lootLogged;
 		}
 	}
 
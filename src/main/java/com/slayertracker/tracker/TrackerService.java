@@ -32,19 +32,30 @@ import com.slayertracker.persistence.ProfileContext;
 import com.slayertracker.persistence.RecordRepository;
 import com.slayertracker.records.AssignmentRecord;
 import com.slayertracker.records.CustomRecord;
+import com.slayertracker.records.GearRecord;
+import com.slayertracker.records.IntLongMap;
 import com.slayertracker.records.Record;
+import com.slayertracker.records.RecordMap;
+import com.slayertracker.records.RegionLedger;
+import com.slayertracker.records.ResultRowList;
 import com.slayertracker.state.TrackerState;
 import com.slayertracker.views.RecordingModePanel;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -57,19 +68,31 @@ import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Actor;
 import net.runelite.api.ChatMessageType;
 import net.runelite.api.Client;
+import net.runelite.api.Constants;
 import net.runelite.api.GameState;
+import net.runelite.api.Hitsplat;
+import net.runelite.api.Item;
 import net.runelite.api.NPC;
+import net.runelite.api.Player;
 import net.runelite.api.Skill;
+import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.ChatMessage;
+import net.runelite.api.events.HitsplatApplied;
 import net.runelite.api.events.InteractingChanged;
+import net.runelite.api.events.ItemContainerChanged;
 import net.runelite.api.events.StatChanged;
 import net.runelite.api.events.VarbitChanged;
+import net.runelite.api.gameval.InterfaceID;
+import net.runelite.api.gameval.InventoryID;
 import net.runelite.api.gameval.ItemID;
 import net.runelite.api.gameval.VarPlayerID;
 import net.runelite.api.gameval.VarbitID;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.events.NpcLootReceived;
 import net.runelite.client.game.ItemManager;
+import net.runelite.client.game.ItemStack;
 import net.runelite.client.game.NPCManager;
 import net.runelite.client.plugins.slayer.SlayerConfig;
 import net.runelite.client.plugins.slayer.SlayerPluginService;
@@ -80,6 +103,7 @@ import net.runelite.client.util.Text;
 public class TrackerService
 {
 	private final Client client;
+	private final ClientThread clientThread;
 	private final ConfigManager configManager;
 	private final ItemManager itemManager;
 	private final NPCManager npcManager;
@@ -91,6 +115,12 @@ public class TrackerService
 	@Getter
 	@Setter
 	private RecordingModeController recordingModeController;
+	// Told when the records of the profile logged into could not be read
+	@Setter
+	private Runnable loadFailureHandler;
+	// Login load still running on the I/O thread. Until it completes, kills are credited to fresh
+	// assignment records, which are merged into the loaded ones when it does
+	private CompletableFuture<RecordMap<Assignment, AssignmentRecord>> recordsLoad;
 
 	private static final Pattern BRACELET_OF_SLAUGHTER_ACTIVATE_PATTERN = Pattern.compile(
 		"Your bracelet of slaughter prevents your slayer count from decreasing."
@@ -99,13 +129,19 @@ public class TrackerService
 		"Your expeditious bracelet helps you progress your slayer (?:task )?faster."
 	);
 
+	private final SupplyValuer supplyValuer = new SupplyValuer();
+	private final Runnable supplyFlush = this::flushSupplyDelta;
+
 	final int QUEUE_PRUNE_TICKS = 20;
+	// Ticks without an engaged target before on-task time stops counting as active
+	final int IDLE_TIMEOUT_TICKS = 50;
 
 	@Inject
 	public TrackerService(TrackerState state,
 						  RecordRepository recordRepository,
 						  ProfileContext profileContext,
 						  Client client,
+						  ClientThread clientThread,
 						  ConfigManager configManager,
 						  ItemManager itemManager,
 						  NPCManager npcManager,
@@ -115,6 +151,7 @@ public class TrackerService
 		this.recordRepository = recordRepository;
 		this.profileContext = profileContext;
 		this.client = client;
+		this.clientThread = clientThread;
 		this.configManager = configManager;
 		this.itemManager = itemManager;
 		this.npcManager = npcManager;
@@ -126,25 +163,273 @@ public class TrackerService
 		if (client.getGameState() == GameState.LOGGED_IN)
 		{
 			state.setCachedXp(client.getSkillExperience(Skill.SLAYER));
+			for (int i = 0; i < Record.COMBAT_SKILLS.length; i++)
+			{
+				state.getCachedCombatXp()[i] = client.getSkillExperience(Record.COMBAT_SKILLS[i]);
+			}
 		}
 	}
 
+	/**
+	 * Starts reading the profile's records in the background, so the client thread never waits on
+	 * the disk at login.
+	 */
 	public void handleLogin() throws Exception
 	{
 		Optional<String> fileName = profileContext.getProfileFileName();
 		state.setProfileFileName(fileName.orElse(null));
+
+		refreshCurrentAssignmentFromConfig();
+		openSession();
+		state.setUnsavedChanges(false);
+		state.setLastSaveMillis(System.currentTimeMillis());
+
 		if (fileName.isPresent())
 		{
-			state.getAssignmentRecords().putAll(recordRepository.load(fileName.get()));
+			// The task in progress is credited first, so its records are read whole with the summaries
+			startRecordsLoad(recordRepository.loadAsync(fileName.get(), state.getCurrentAssignment()));
 		}
+	}
 
-		refreshCurrentAssignmentFromConfig();
+	void startRecordsLoad(CompletableFuture<RecordMap<Assignment, AssignmentRecord>> load)
+	{
+		recordsLoad = load;
+		load.whenComplete((records, e) -> clientThread.invokeLater(() -> finishRecordsLoad(load)));
+	}
+
+	/**
+	 * Swaps the loaded records in, merging in whatever was credited while they loaded.
+	 */
+	private void finishRecordsLoad(CompletableFuture<RecordMap<Assignment, AssignmentRecord>> load)
+	{
+		if (load != recordsLoad)
+		{
+			// Already finished, or logged out before it completed
+			return;
+		}
+		recordsLoad = null;
+
+		final RecordMap<Assignment, AssignmentRecord> loaded;
+		try
+		{
+			loaded = load.join();
+		}
+		catch (CompletionException e)
+		{
+			log.warn("Could not load records", e.getCause());
+			// Saving would write this session's records over the ones that could not be read
+			state.setProfileFileName(null);
+			if (loadFailureHandler != null)
+			{
+				loadFailureHandler.run();
+			}
+			return;
+		}
+
+		final RecordMap<Assignment, AssignmentRecord> assignmentRecords = state.getAssignmentRecords();
+		loaded.forEach((assignment, loadedRecord) -> {
+			// Measured from the saved totals, so what was credited while loading counts towards the session
+			state.getSessionStartRows().put(assignment, ResultRowList.open(loadedRecord, state.getSessionStartMillis(), 0));
+
+			// A summary takes the pending records as they are, and its detail adds to them once read
+			final AssignmentRecord pending = assignmentRecords.get(assignment);
+			if (pending != null)
+			{
+				loadedRecord.merge(pending);
+			}
+		});
+		// One change for the whole swap, so the rollups are rebuilt once
+		assignmentRecords.putAll(loaded);
+
+		loadRecordDetail(state.getCurrentAssignment());
+		state.setTaskRowsDirty(true);
+	}
+
+	/**
+	 * Merges in a login load that has completed. Never waits on one still running.
+	 *
+	 * @return false while a load is still running, as records must not be closed or saved without it
+	 */
+	private boolean finishCompletedRecordsLoad()
+	{
+		final CompletableFuture<RecordMap<Assignment, AssignmentRecord>> load = recordsLoad;
+		if (load == null)
+		{
+			return true;
+		}
+		if (!load.isDone())
+		{
+			return false;
+		}
+		finishRecordsLoad(load);
+		return true;
 	}
 
 	public void handleLogout() throws Exception
 	{
-		saveRecords();
+		flushRegionTime();
+		final CompletableFuture<Void> saved = closeAndSaveRecords();
 		state.clear();
+		// Throws if the save failed at once. One left for the load to complete logs its own failure
+		saved.getNow(null);
+	}
+
+	/**
+	 * Closes the session and saves the records. A login load still running is not waited on:
+	 * once it completes, what was credited in the meantime is merged into it and saved instead.
+	 *
+	 * @return completes once the records are handed to the repository, on the client thread
+	 */
+	public CompletableFuture<Void> closeAndSaveRecords()
+	{
+		final CompletableFuture<RecordMap<Assignment, AssignmentRecord>> load = recordsLoad;
+		if (load == null || load.isDone())
+		{
+			try
+			{
+				closeSession();
+				saveRecords();
+				return CompletableFuture.completedFuture(null);
+			}
+			catch (Exception e)
+			{
+				return CompletableFuture.failedFuture(e);
+			}
+		}
+
+		// Detached from the state, which is cleared or reused by the next login before the load completes
+		recordsLoad = null;
+		final Map<Assignment, AssignmentRecord> pending = new EnumMap<>(Assignment.class);
+		pending.putAll(state.getAssignmentRecords());
+		final String profileFileName = state.getProfileFileName();
+		final long sessionStartMillis = state.getSessionStartMillis();
+		state.getSessionStartRows().clear();
+		state.setSessionStartMillis(0);
+
+		final CompletableFuture<Void> saved = new CompletableFuture<>();
+		load.whenComplete((loaded, e) -> clientThread.invokeLater(() -> {
+			if (e != null)
+			{
+				log.warn("Could not load records", e);
+				if (loadFailureHandler != null)
+				{
+					loadFailureHandler.run();
+				}
+				saved.complete(null);
+				return;
+			}
+			try
+			{
+				final Map<Assignment, long[]> sessionStartRows = new HashMap<>();
+				pending.forEach((assignment, pendingRecord) -> {
+					final AssignmentRecord loadedRecord = loaded.get(assignment);
+					if (loadedRecord == null)
+					{
+						loaded.put(assignment, pendingRecord);
+						return;
+					}
+					sessionStartRows.put(assignment, ResultRowList.open(loadedRecord, sessionStartMillis, 0));
+					loadedRecord.merge(pendingRecord);
+				});
+				if (sessionStartMillis != 0)
+				{
+					closeSessionRows(loaded, sessionStartRows, sessionStartMillis);
+				}
+				if (profileFileName != null)
+				{
+					recordRepository.save(loaded, profileFileName);
+				}
+				saved.complete(null);
+			}
+			catch (Exception ex)
+			{
+				log.warn("Could not save records", ex);
+				saved.completeExceptionally(ex);
+			}
+		}));
+		return saved;
+	}
+
+	private void openSession()
+	{
+		final long now = System.currentTimeMillis();
+		state.setSessionStartMillis(now);
+		state.getSessionStartRows().clear();
+		state.getAssignmentRecords().forEach((assignment, ar) ->
+			state.getSessionStartRows().put(assignment, ResultRowList.open(ar, now, 0)));
+	}
+
+	/**
+	 * Appends a session row to every assignment record that changed since login.
+	 */
+	private void closeSession()
+	{
+		if (!finishCompletedRecordsLoad() || state.getSessionStartMillis() == 0)
+		{
+			return;
+		}
+
+		closeSessionRows(state.getAssignmentRecords(), state.getSessionStartRows(), state.getSessionStartMillis());
+		state.getSessionStartRows().clear();
+		state.setSessionStartMillis(0);
+	}
+
+	private static void closeSessionRows(Map<Assignment, AssignmentRecord> assignmentRecords, Map<Assignment, long[]> startRows,
+		long sessionStartMillis)
+	{
+		final long now = System.currentTimeMillis();
+		final long[] emptyRow = new long[ResultRowList.STRIDE];
+		emptyRow[ResultRowList.START_MILLIS] = sessionStartMillis;
+		assignmentRecords.forEach((assignment, ar) -> {
+			final long[] startRow = startRows.getOrDefault(assignment, emptyRow);
+			if (ResultRowList.hasChanged(startRow, ar))
+			{
+				ar.getSessionRows().close(startRow, ar, now);
+			}
+		});
+	}
+
+	/**
+	 * Closes the task rows of assignments that are no longer in progress, and opens one for the
+	 * current task. Waits until pending kills are credited so the last kill lands in its task.
+	 */
+	private void reconcileTaskRows()
+	{
+		if (!state.isTaskRowsDirty() || !state.getKillEvents().isEmpty() || recordsLoad != null)
+		{
+			return;
+		}
+		state.setTaskRowsDirty(false);
+
+		final long now = System.currentTimeMillis();
+		final AssignmentRecord current = state.getCurrentAssignmentRecord();
+		state.getAssignmentRecords().values().forEach(ar -> {
+			if (ar.getOpenTaskRow() != null && (ar != current || state.getRemainingAmount() == 0))
+			{
+				ar.getTaskRows().close(ar.getOpenTaskRow(), ar, now);
+				ar.setOpenTaskRow(null);
+			}
+		});
+
+		if (current != null && state.getRemainingAmount() > 0)
+		{
+			openTaskRowIfNeeded(current);
+		}
+	}
+
+	/**
+	 * Opens the task row of the current assignment if it has none. Called when its record is first
+	 * engaged too, since a new task's count varp only changes once its first kill is in.
+	 */
+	private void openTaskRowIfNeeded(AssignmentRecord assignmentRecord)
+	{
+		if (assignmentRecord.getOpenTaskRow() != null || recordsLoad != null
+			|| client.getVarpValue(VarPlayerID.SLAYER_COUNT) <= 0)
+		{
+			return;
+		}
+		assignmentRecord.setOpenTaskRow(ResultRowList.open(assignmentRecord, System.currentTimeMillis(),
+			client.getVarpValue(VarPlayerID.SLAYER_COUNT_ORIGINAL)));
 	}
 
 	public void handleVarbitChanged(VarbitChanged event)
@@ -256,6 +541,7 @@ public class TrackerService
 		{
 			return;
 		}
+		state.setTaskRowsDirty(true);
 		final int amountDelta = state.getRemainingAmount() - event.getValue();
 		if (amountDelta > 0)
 		{
@@ -266,12 +552,19 @@ public class TrackerService
 
 	public void handleSlayerTaskChange()
 	{
+		flushRegionTime();
 		refreshCurrentAssignmentFromConfig();
+		state.setTaskRowsDirty(true);
 
+		state.getInteractionStartTicks().clear();
+		state.setLastEngagedVariant(null);
+		state.getUnclaimedLoot().clear();
+		state.getHits().clear();
 		state.getAssignmentRecords().values().forEach(ar -> {
 			ar.getInteractingNpcs().clear();
 			ar.getVariantRecords().values().forEach(variantRecord -> variantRecord.getInteractingNpcs().clear());
 			ar.getCustomRecords().forEach(customRecord -> customRecord.getInteractingNpcs().clear());
+			ar.getGearRecords().values().forEach(gearRecord -> gearRecord.getInteractingNpcs().clear());
 		});
 	}
 
@@ -311,11 +604,11 @@ public class TrackerService
 	private void handleTargetInteractingStart(NPC npc)
 	{
 		state.getEndedInteractions().removeIf(endedInteraction -> endedInteraction.getNpc() == npc);
-
+		state.getInteractionStartTicks().putIfAbsent(npc, client.getTickCount());
 
 		final Instant now = Instant.now();
 
-		AssignmentRecord assignmentRecord = state.getAssignmentRecords().computeIfAbsent(state.getCurrentAssignment(), r -> new AssignmentRecord(state));
+		final AssignmentRecord assignmentRecord = createTargetRecords(npc);
 		if (!recordingModeController.isRecording())
 		{
 			log("set combat instant @S");
@@ -323,7 +616,7 @@ public class TrackerService
 		}
 		assignmentRecord.getInteractingNpcs().add(npc);
 		state.getCurrentAssignment().getVariantMatchingNpc(npc).ifPresent(variant -> {
-			Record variantRecord = assignmentRecord.getVariantRecords().computeIfAbsent(variant, r -> new Record(state));
+			Record variantRecord = assignmentRecord.getVariantRecords().get(variant);
 			if (!recordingModeController.isRecording())
 			{
 				variantRecord.setCombatInstant(now);
@@ -339,20 +632,54 @@ public class TrackerService
 				}
 				customRecord.getInteractingNpcs().add(npc);
 			});
+		if (state.getGearFingerprint() != 0)
+		{
+			GearRecord gearRecord = assignmentRecord.getGearRecords().get(state.getGearFingerprint());
+			if (!recordingModeController.isRecording())
+			{
+				gearRecord.setCombatInstant(now);
+			}
+			gearRecord.getInteractingNpcs().add(npc);
+		}
 
 		recordingModeController.setRecording(true);
 	}
 
+	/**
+	 * Creates the current assignment's records that a kill of {@code npc} is credited to: the
+	 * assignment with its task row, the matching variant and the worn gear setup.
+	 */
+	private AssignmentRecord createTargetRecords(NPC npc)
+	{
+		final AssignmentRecord assignmentRecord = state.getAssignmentRecords().computeIfAbsent(state.getCurrentAssignment(), r -> new AssignmentRecord(state));
+		openTaskRowIfNeeded(assignmentRecord);
+		state.getCurrentAssignment().getVariantMatchingNpc(npc).ifPresent(variant -> {
+			state.setLastEngagedVariant(variant);
+			assignmentRecord.getVariantRecords().computeIfAbsent(variant, r -> new Record(state));
+		});
+		if (state.getGearFingerprint() != 0)
+		{
+			assignmentRecord.getGearRecords().computeIfAbsent(state.getGearFingerprint(),
+				fingerprint -> new GearRecord(state.getEquipment(), state));
+		}
+		return assignmentRecord;
+	}
+
 	private void handleInteractingEnd()
 	{
 		final Instant now = Instant.now();
 		final int currentTick = client.getTickCount();
 
 		Set<NPC> endedInteractionNpcs = new HashSet<>();
-		state.getAssignmentRecords().values().forEach(ar -> {
-			updateInteractingNpcs(ar, now, endedInteractionNpcs);
+		state.getAssignmentRecords().forEach((assignment, ar) -> {
+			final Duration added = updateInteractingNpcs(ar, now, endedInteractionNpcs);
+			if (!added.isZero())
+			{
+				state.getRollups().forEachRollup(assignment, rollup -> rollup.addToHours(added));
+			}
 			ar.getVariantRecords().values().forEach(vr -> updateInteractingNpcs(vr, now, endedInteractionNpcs));
 			ar.getCustomRecords().forEach(cr -> updateInteractingNpcs(cr, now, endedInteractionNpcs));
+			ar.getGearRecords().values().forEach(gr -> updateInteractingNpcs(gr, now, endedInteractionNpcs));
 		});
 
 		for (NPC npc : endedInteractionNpcs)
@@ -403,8 +730,12 @@ public class TrackerService
 		}
 	}
 
-	private void updateInteractingNpcs(Record record, Instant now, Set<NPC> endedInteractionNpcs)
+	/**
+	 * Ends interactions that are over and returns the combat time added to the record.
+	 */
+	private Duration updateInteractingNpcs(Record record, Instant now, Set<NPC> endedInteractionNpcs)
 	{
+		final Duration[] added = {Duration.ZERO};
 		final Predicate<NPC> isNotInteracting = npc ->
 			client.getTopLevelWorldView().npcs().stream().noneMatch(worldNpc -> worldNpc.equals(npc))
 				|| npc.isDead()
@@ -420,6 +751,7 @@ public class TrackerService
 					Duration duration = Duration.between(record.getCombatInstant(), now);
 					log("Added duration: ", duration);
 					record.addToHours(duration);
+					added[0] = added[0].plus(duration);
 				}
 				log("set combat instant @E");
 				record.setCombatInstant(now);
@@ -428,6 +760,140 @@ public class TrackerService
 			}
 			return false;
 		});
+		return added[0];
+	}
+
+	public void handleItemContainerChanged(ItemContainerChanged event)
+	{
+		final int containerId = event.getContainerId();
+		if (containerId != InventoryID.INV && containerId != InventoryID.WORN)
+		{
+			return;
+		}
+
+		final Item[] items = event.getItemContainer().getItems();
+		if (containerId == InventoryID.WORN)
+		{
+			updateGearFingerprint(items);
+			state.getWornSnapshot().diffInto(items, state.getSupplyDelta());
+		}
+		else
+		{
+			state.getInventorySnapshot().diffInto(items, state.getSupplyDelta());
+		}
+
+		// Equipping an item fires one event per container; value the combined change once both are in
+		if (!state.isSupplyFlushPending())
+		{
+			state.setSupplyFlushPending(true);
+			clientThread.invokeLater(supplyFlush);
+		}
+	}
+
+	private void updateGearFingerprint(Item[] items)
+	{
+		int[] scratch = state.getEquipmentScratch();
+		if (scratch.length != items.length)
+		{
+			scratch = new int[items.length];
+			state.setEquipmentScratch(scratch);
+		}
+		for (int slot = 0; slot < items.length; slot++)
+		{
+			scratch[slot] = items[slot].getId();
+		}
+
+		final long fingerprint = GearRecord.fingerprint(scratch);
+		if (fingerprint != state.getGearFingerprint())
+		{
+			state.setGearFingerprint(fingerprint);
+			state.setEquipment(scratch.clone());
+		}
+	}
+
+	/**
+	 * Values the net change of carried items since the last flush. A net loss while actively on
+	 * task is charged as supplies; gains are ignored, and picked-up loot is netted out first.
+	 */
+	private void flushSupplyDelta()
+	{
+		state.setSupplyFlushPending(false);
+		final IntLongMap delta = state.getSupplyDelta();
+		if (delta.isEmpty())
+		{
+			return;
+		}
+
+		supplyValuer.net = 0;
+		delta.forEach(supplyValuer);
+		delta.clear();
+
+		if (supplyValuer.net < 0 && isConsumingSupplies())
+		{
+			creditSupplyCost(-supplyValuer.net);
+		}
+	}
+
+	private boolean isConsumingSupplies()
+	{
+		final Widget bank = client.getWidget(InterfaceID.BANKMAIN, 0);
+		return state.getCurrentAssignmentRecord() != null
+			&& state.getRemainingAmount() > 0
+			&& client.getTickCount() - state.getLastActiveTick() <= IDLE_TIMEOUT_TICKS
+			&& (bank == null || bank.isHidden());
+	}
+
+	private void creditSupplyCost(long cost)
+	{
+		final AssignmentRecord assignmentRecord = state.getCurrentAssignmentRecord();
+		assignmentRecord.addToSupplyCost(cost);
+		state.getRollups().forEachRollup(state.getCurrentAssignment(), rollup -> rollup.addToSupplyCost(cost));
+		if (state.getLastEngagedVariant() != null)
+		{
+			Record variantRecord = assignmentRecord.getVariantRecords().get(state.getLastEngagedVariant());
+			if (variantRecord != null)
+			{
+				variantRecord.addToSupplyCost(cost);
+			}
+		}
+		for (CustomRecord customRecord : assignmentRecord.getCustomRecords())
+		{
+			if (customRecord.isRecording())
+			{
+				customRecord.addToSupplyCost(cost);
+			}
+		}
+		GearRecord gearRecord = assignmentRecord.getGearRecords().get(state.getGearFingerprint());
+		if (gearRecord != null)
+		{
+			gearRecord.addToSupplyCost(cost);
+		}
+	}
+
+	/**
+	 * Sums the GE value of a per-item quantity change. Reused across flushes so valuing does not allocate.
+	 */
+	private class SupplyValuer implements IntLongMap.EntryConsumer
+	{
+		private long net;
+
+		@Override
+		public void accept(int itemId, long change)
+		{
+			if (change > 0)
+			{
+				final long claimed = Math.min(change, state.getUnclaimedLoot().get(itemId));
+				if (claimed > 0)
+				{
+					state.getUnclaimedLoot().add(itemId, -claimed);
+					change -= claimed;
+				}
+			}
+			if (change != 0)
+			{
+				net += change * itemManager.getItemPrice(itemId);
+			}
+		}
 	}
 
 	public void handleChatMessage(ChatMessage event)
@@ -464,6 +930,7 @@ public class TrackerService
 	{
 		if (event.getSkill() != Skill.SLAYER)
 		{
+			handleCombatStatChanged(event);
 			return;
 		}
 
@@ -486,6 +953,125 @@ public class TrackerService
 		state.setCachedXp(newSlayerXp);
 	}
 
+	/**
+	 * Adds combat skill xp gained while engaged with task targets to the per-skill accumulators,
+	 * which are split across kills alongside Slayer xp.
+	 */
+	private void handleCombatStatChanged(StatChanged event)
+	{
+		final int skillIndex = Record.combatSkillIndex(event.getSkill());
+		if (skillIndex < 0)
+		{
+			return;
+		}
+
+		final int[] cached = state.getCachedCombatXp();
+		final int previousXp = cached[skillIndex];
+		cached[skillIndex] = event.getXp();
+		if (previousXp == -1 || event.getXp() <= previousXp)
+		{
+			return;
+		}
+
+		if (client.getTickCount() - state.getLastActiveTick() <= QUEUE_PRUNE_TICKS)
+		{
+			state.getPendingCombatXp()[skillIndex] += event.getXp() - previousXp;
+		}
+	}
+
+	/**
+	 * Notes slayer targets hit by the player's hitsplats and the damage dealt, so kills from a cannon,
+	 * splash or bouncing projectiles reach the kill pipeline without an InteractingChanged. Called for
+	 * every hitsplat in the scene, so the common rejections come first and cost a field read each.
+	 */
+	public void handleHitsplatApplied(HitsplatApplied event)
+	{
+		final Hitsplat hitsplat = event.getHitsplat();
+		if (!hitsplat.isMine())
+		{
+			return;
+		}
+		final Actor actor = event.getActor();
+		if (!(actor instanceof NPC) || state.getCurrentAssignment() == null)
+		{
+			return;
+		}
+		final NPC npc = (NPC) actor;
+		if (slayerPluginService.getTargets().contains(npc))
+		{
+			state.getHits().add(npc, hitsplat.getAmount());
+		}
+	}
+
+	/**
+	 * Credits the damage dealt this tick, and gives each target hit an ended interaction unless an
+	 * interaction is already tracking it, so its death is picked up by
+	 * {@link #populateKillEventsFromInteractions}.
+	 */
+	void flushHits(int currentTick)
+	{
+		final TrackerState.HitBuffer hits = state.getHits();
+		if (hits.size() == 0)
+		{
+			return;
+		}
+
+		state.setLastActiveTick(currentTick);
+		final Assignment assignment = state.getCurrentAssignment();
+		// Indexed once, rather than searched per hit, and the touched entries moved to the back together
+		final Map<NPC, TrackerState.EndedInteraction> endedByNpc = new HashMap<>();
+		for (TrackerState.EndedInteraction endedInteraction : state.getEndedInteractions())
+		{
+			endedByNpc.putIfAbsent(endedInteraction.getNpc(), endedInteraction);
+		}
+		final Set<TrackerState.EndedInteraction> refreshed = new LinkedHashSet<>();
+		for (int i = 0; i < hits.size(); i++)
+		{
+			final NPC npc = hits.getNpc(i);
+			final int damage = hits.getDamage(i);
+			// The task may have ended since the hit landed
+			if (assignment == null)
+			{
+				continue;
+			}
+
+			final AssignmentRecord assignmentRecord = createTargetRecords(npc);
+			if (damage > 0)
+			{
+				forEachCreditedRecord(assignment, npc, state.getGearFingerprint(), record -> record.addToDamage(damage));
+				if (state.getCurrentRegionId() >= 0)
+				{
+					assignmentRecord.getRegions().addDamage(state.getCurrentRegionId(), damage);
+				}
+			}
+
+			if (assignmentRecord.getInteractingNpcs().contains(npc))
+			{
+				continue;
+			}
+
+			TrackerState.EndedInteraction entry = endedByNpc.get(npc);
+			if (entry == null)
+			{
+				entry = new TrackerState.EndedInteraction(npc, currentTick, npc.isDead());
+				endedByNpc.put(npc, entry);
+			}
+			else
+			{
+				entry.updateTick(currentTick);
+			}
+			refreshed.add(entry);
+			state.getInteractionStartTicks().putIfAbsent(npc, currentTick);
+		}
+		hits.clear();
+
+		if (!refreshed.isEmpty())
+		{
+			state.getEndedInteractions().removeIf(refreshed::contains);
+			state.getEndedInteractions().addAll(refreshed);
+		}
+	}
+
 	public void handleGameTick()
 	{
 		runQueueCycle();
@@ -494,10 +1080,14 @@ public class TrackerService
 	private void runQueueCycle()
 	{
 		final int currentTick = client.getTickCount();
+		flushHits(currentTick);
+		accrueTime(currentTick);
+		trackRegion();
 		pruneEndedInteractions(currentTick);
 		populateKillEventsFromInteractions(currentTick);
 		pruneKillEvents(currentTick);
 		pruneXpDropEvents(currentTick);
+		pruneCombatXp(currentTick);
 		pruneTaskAmountChanges(currentTick);
 		pruneExpeditiousProcs(currentTick);
 
@@ -513,6 +1103,103 @@ public class TrackerService
 			}
 			return false;
 		});
+
+		reconcileTaskRows();
+		journalChanges();
+	}
+
+	/**
+	 * Adds this tick to the combat, on-task and active time of the current assignment's records,
+	 * so every rate basis is available without re-recording.
+	 */
+	private void accrueTime(int currentTick)
+	{
+		final Assignment assignment = state.getCurrentAssignment();
+		final AssignmentRecord assignmentRecord = state.getCurrentAssignmentRecord();
+		if (assignment == null || assignmentRecord == null)
+		{
+			return;
+		}
+
+		final boolean inCombat = !assignmentRecord.getInteractingNpcs().isEmpty();
+		if (inCombat)
+		{
+			state.setLastActiveTick(currentTick);
+		}
+		final boolean onTask = state.getRemainingAmount() > 0;
+		final boolean active = onTask && currentTick - state.getLastActiveTick() <= IDLE_TIMEOUT_TICKS;
+
+		accrueTime(assignmentRecord, inCombat, onTask, active);
+		state.getRollups().forEachRollup(assignment, rollup -> accrueTime(rollup, inCombat, onTask, active));
+		assignmentRecord.getVariantRecords().forEach((variant, variantRecord) -> {
+			final boolean engaged = variant.equals(state.getLastEngagedVariant());
+			accrueTime(variantRecord, !variantRecord.getInteractingNpcs().isEmpty(), onTask && engaged, active && engaged);
+		});
+		for (CustomRecord customRecord : assignmentRecord.getCustomRecords())
+		{
+			if (customRecord.isRecording())
+			{
+				accrueTime(customRecord, !customRecord.getInteractingNpcs().isEmpty(), onTask, active);
+			}
+		}
+		// Only the setup being worn, so its in-combat time is the basis of its DPS
+		final GearRecord gearRecord = assignmentRecord.getGearRecords().get(state.getGearFingerprint());
+		if (gearRecord != null)
+		{
+			accrueTime(gearRecord, !gearRecord.getInteractingNpcs().isEmpty(), onTask, active);
+		}
+	}
+
+	/**
+	 * Counts on-task ticks in the player's region, writing them to the assignment's region
+	 * ledger only when the region changes or a kill is credited.
+	 */
+	private void trackRegion()
+	{
+		final Player player = client.getLocalPlayer();
+		if (player == null)
+		{
+			return;
+		}
+
+		final int regionId = WorldPoint.fromLocalInstance(client, player.getLocalLocation()).getRegionID();
+		if (regionId != state.getCurrentRegionId())
+		{
+			flushRegionTime();
+			state.setCurrentRegionId(regionId);
+		}
+		if (state.getCurrentAssignment() != null && state.getRemainingAmount() > 0)
+		{
+			state.setPendingRegionTicks(state.getPendingRegionTicks() + 1);
+		}
+	}
+
+	private void flushRegionTime()
+	{
+		final AssignmentRecord assignmentRecord = state.getCurrentAssignmentRecord();
+		if (assignmentRecord != null && state.getCurrentRegionId() >= 0 && state.getPendingRegionTicks() > 0)
+		{
+			assignmentRecord.getRegions().addMillis(state.getCurrentRegionId(),
+				(long) state.getPendingRegionTicks() * Constants.GAME_TICK_LENGTH);
+		}
+		state.setPendingRegionTicks(0);
+	}
+
+	private void creditRegion(TrackerState.KillEvent killEvent, Consumer<RegionLedger> credit)
+	{
+		final AssignmentRecord assignmentRecord = state.getAssignmentRecords().get(killEvent.getAssignment());
+		if (assignmentRecord != null && killEvent.getRegionId() >= 0)
+		{
+			credit.accept(assignmentRecord.getRegions());
+		}
+	}
+
+	private static void accrueTime(Record record, boolean inCombat, boolean onTask, boolean active)
+	{
+		record.addToTime(
+			inCombat ? Constants.GAME_TICK_LENGTH : 0,
+			onTask ? Constants.GAME_TICK_LENGTH : 0,
+			active ? Constants.GAME_TICK_LENGTH : 0);
 	}
 
 	private void pruneEndedInteractions(int currentTick)
@@ -526,6 +1213,7 @@ public class TrackerService
 			if (expired)
 			{
 				log("EndedInteraction expired:", endedInteraction, endedInteraction.getNpc().isDead());
+				state.getInteractionStartTicks().remove(endedInteraction.getNpc());
 				state.getEndedInteractions().removeFirst();
 				continue;
 			}
@@ -556,6 +1244,17 @@ public class TrackerService
 			{
 				onKillEventCompleted(killEvent);
 			}
+			else if (expired && killEvent.isKcLogged())
+			{
+				if (!killEvent.isLootLogged())
+				{
+					// No loot event fires for a kill that dropped nothing, but it is still a kill
+					// worth 0 gp, and leaving it out would skew the gp per kill upwards
+					forEachCreditedRecord(killEvent, record -> record.addKillLoot(0));
+				}
+				// Counted, but its xp or loot never came
+				appendKillHistory(killEvent);
+			}
 			if (expired || completed)
 			{
 				state.getKillEvents().removeFirst();
@@ -565,6 +1264,15 @@ public class TrackerService
 		}
 	}
 
+	private void pruneCombatXp(int currentTick)
+	{
+		// Xp from a fight that never produced a kill
+		if (currentTick - state.getLastActiveTick() > QUEUE_PRUNE_TICKS)
+		{
+			Arrays.fill(state.getPendingCombatXp(), 0);
+		}
+	}
+
 	private void pruneXpDropEvents(int currentTick)
 	{
 		while (!state.getXpDropEvents().isEmpty())
@@ -651,7 +1359,9 @@ public class TrackerService
 		{
 			if (state.getKillEvents().stream().noneMatch(killEvent -> killEvent.getNpc() == npc))
 			{
-				state.getKillEvents().addLast(new TrackerState.KillEvent(npc, state.getCurrentAssignment(), currentTick));
+				Integer startTick = state.getInteractionStartTicks().remove(npc);
+				state.getKillEvents().addLast(new TrackerState.KillEvent(npc, state.getCurrentAssignment(), currentTick,
+					startTick == null ? -1 : startTick, state.getCurrentRegionId(), state.getGearFingerprint()));
 			}
 		}
 	}
@@ -721,8 +1431,9 @@ public class TrackerService
 		if (!xpEligibleKillEvents.isEmpty() && xpToAllocate > 0)
 		{
 			state.getXpDropEvents().clear();
-			Map<TrackerState.KillEvent, Integer> killEventXpAllocations = calculateXpAllocations(xpToAllocate, xpEligibleKillEvents);
-			applyXpAllocations(killEventXpAllocations);
+			final int[] weights = getXpAllocationWeights(xpEligibleKillEvents);
+			applyXpAllocations(xpEligibleKillEvents, allocateByWeight(xpToAllocate, weights));
+			applyCombatXpAllocations(xpEligibleKillEvents, weights);
 			xpEligibleKillEvents.forEach(ke -> {
 				ke.markXpLogged();
 				if (ke.isCompleted())
@@ -750,24 +1461,17 @@ public class TrackerService
 					break;
 				}
 
-				// Increment if record exists. Record should have been created on interacting start;
-				// if not, do nothing to avoid record with hours = 0;
-				Assignment assignment = killEvent.getAssignment();
-				AssignmentRecord assignmentRecord = state.getAssignmentRecords().get(assignment);
-				if (assignmentRecord != null)
-				{
-					assignmentRecord.incrementKc();
-					assignment.getVariantMatchingNpc(killEvent.getNpc()).ifPresent(variant -> {
-						Record variantRecord = assignmentRecord.getVariantRecords().get(variant);
-						if (variantRecord != null)
-						{
-							variantRecord.incrementKc();
-						}
-					});
-					assignmentRecord.getCustomRecords().stream()
-						.filter(CustomRecord::isRecording)
-						.forEach(Record::incrementKc);
-				}
+				final int durationTicks = killEvent.getDurationTicks();
+				forEachCreditedRecord(killEvent, record -> {
+					record.incrementKc();
+					if (durationTicks > 0)
+					{
+						record.addKillDuration(durationTicks);
+					}
+				});
+
+				flushRegionTime();
+				creditRegion(killEvent, regions -> regions.addKill(killEvent.getRegionId()));
 
 				killEvent.markKcLogged();
 				if (killEvent.isCompleted())
@@ -789,36 +1493,51 @@ public class TrackerService
 		}
 	}
 
-	private Map<TrackerState.KillEvent, Integer> calculateXpAllocations(int xpToAllocate, List<TrackerState.KillEvent> killEvents)
+	private int[] getXpAllocationWeights(List<TrackerState.KillEvent> killEvents)
 	{
-		Map<TrackerState.KillEvent, Integer> killEventXpAllocations = new HashMap<>();
+		final int[] weights = new int[killEvents.size()];
+		for (int i = 0; i < weights.length; i++)
+		{
+			weights[i] = getSlayerXpForKillEvent(killEvents.get(i));
+		}
+		return weights;
+	}
 
-		final int npcXpTotal = killEvents.stream().mapToInt(this::getSlayerXpForKillEvent).sum();
-		if (npcXpTotal <= 0)
+	/**
+	 * Splits {@code total} in proportion to {@code weights}, giving the rounding remainder to the
+	 * last share so the shares always sum to the total. All zero if the weights sum to zero.
+	 */
+	private int[] allocateByWeight(int total, int[] weights)
+	{
+		final int[] allocations = new int[weights.length];
+
+		int weightTotal = 0;
+		for (int weight : weights)
+		{
+			weightTotal += weight;
+		}
+		if (weightTotal <= 0)
 		{
-			log("xp-allocation-npcXpTotal=0", killEvents);
-			return killEventXpAllocations;
+			log("xp-allocation-npcXpTotal=0", weights.length);
+			return allocations;
 		}
 
-		int remainingXp = xpToAllocate;
-		for (int i = 0; i < killEvents.size(); i++)
+		int remaining = total;
+		for (int i = 0; i < weights.length; i++)
 		{
-			TrackerState.KillEvent killEvent = killEvents.get(i);
-			int killEventXpAllocation;
-			if (i == killEvents.size() - 1)
+			if (i == weights.length - 1)
 			{
-				killEventXpAllocation = remainingXp;
+				allocations[i] = remaining;
 			}
 			else
 			{
-				double killEventXpRatio = (double) getSlayerXpForKillEvent(killEvent) / npcXpTotal;
-				killEventXpAllocation = Math.min((int) Math.round(xpToAllocate * killEventXpRatio), remainingXp);
-				remainingXp -= killEventXpAllocation;
+				double ratio = (double) weights[i] / weightTotal;
+				allocations[i] = Math.min((int) Math.round(total * ratio), remaining);
+				remaining -= allocations[i];
 			}
-			killEventXpAllocations.put(killEvent, killEventXpAllocation);
 		}
 
-		return killEventXpAllocations;
+		return allocations;
 	}
 
 	private int getSlayerXpForKillEvent(TrackerState.KillEvent killEvent)
@@ -841,46 +1560,60 @@ public class TrackerService
 			});
 	}
 
-	private void applyXpAllocations(Map<TrackerState.KillEvent, Integer> killEventXpAllocations)
+	private void applyXpAllocations(List<TrackerState.KillEvent> killEvents, int[] killEventXpAllocations)
 	{
-		if (killEventXpAllocations.isEmpty())
+		for (int i = 0; i < killEvents.size(); i++)
 		{
-			log("xp-allocation-couldn't-apply-no-killEventXpAllocations");
-			return;
-		}
-
-		killEventXpAllocations.forEach((killEvent, killEventXpAllocation) -> {
+			final TrackerState.KillEvent killEvent = killEvents.get(i);
+			final int killEventXpAllocation = killEventXpAllocations[i];
 			if (killEventXpAllocation <= 0)
 			{
 				log("xp-allocation-killEventXpAllocation<=0", killEvent, killEventXpAllocation);
-				return;
+				continue;
 			}
 
 			Assignment assignment = killEvent.getAssignment();
 			if (assignment == null)
 			{
 				log("xp-allocation-missing-assignment", killEvent);
-				return;
+				continue;
+			}
+
+			forEachCreditedRecord(killEvent, record -> {
+				record.addToXp(killEventXpAllocation);
+				record.addKillXp(killEventXpAllocation);
+			});
+			killEvent.addXp(killEventXpAllocation);
+			creditRegion(killEvent, regions -> regions.addXp(killEvent.getRegionId(), killEventXpAllocation));
+		}
+	}
+
+	/**
+	 * Splits the combat xp gained since the last allocation across the same kills, with the same
+	 * weights as Slayer xp.
+	 */
+	void applyCombatXpAllocations(List<TrackerState.KillEvent> killEvents, int[] weights)
+	{
+		final int[] pending = state.getPendingCombatXp();
+		for (int skillIndex = 0; skillIndex < pending.length; skillIndex++)
+		{
+			if (pending[skillIndex] <= 0)
+			{
+				continue;
 			}
 
-			// Increment if record exists. Record should have been created on interacting start;
-			// if not, do nothing to avoid record with hours = 0;
-			AssignmentRecord assignmentRecord = state.getAssignmentRecords().get(assignment);
-			if (assignmentRecord != null)
+			final int[] allocations = allocateByWeight(pending[skillIndex], weights);
+			pending[skillIndex] = 0;
+			for (int i = 0; i < killEvents.size(); i++)
 			{
-				assignmentRecord.addToXp(killEventXpAllocation);
-				assignment.getVariantMatchingNpc(killEvent.getNpc()).ifPresent(variant -> {
-					Record variantRecord = assignmentRecord.getVariantRecords().get(variant);
-					if (variantRecord != null)
-					{
-						variantRecord.addToXp(killEventXpAllocation);
-					}
-				});
-				assignmentRecord.getCustomRecords().stream()
-					.filter(CustomRecord::isRecording)
-					.forEach(customRecord -> customRecord.addToXp(killEventXpAllocation));
+				final int skill = skillIndex;
+				final int amount = allocations[i];
+				if (amount > 0 && killEvents.get(i).getAssignment() != null)
+				{
+					forEachCreditedRecord(killEvents.get(i), record -> record.addToCombatXp(skill, amount));
+				}
 			}
-		});
+		}
 	}
 
 	public void handleNpcLootReceived(NpcLootReceived event)
@@ -893,51 +1626,87 @@ public class TrackerService
 			return;
 		}
 
-		final int lootGe = event.getItems().stream().mapToInt(itemStack ->
-			itemManager.getItemPrice(itemStack.getId()) * itemStack.getQuantity()
+		// Only loot that could offset supplies is held until picked up; the buffer lasts until the
+		// task changes, so drops off-task would only pile up
+		if (killEvent.getAssignment() != null && killEvent.getAssignment() == state.getCurrentAssignment())
+		{
+			for (ItemStack item : event.getItems())
+			{
+				state.getUnclaimedLoot().add(item.getId(), item.getQuantity());
+			}
+		}
+
+		final long lootGe = event.getItems().stream().mapToLong(itemStack ->
+			(long) itemManager.getItemPrice(itemStack.getId()) * itemStack.getQuantity()
 		).sum();
 
-		final int lootHa = event.getItems().stream().mapToInt(itemStack -> {
+		final long lootHa = event.getItems().stream().mapToLong(itemStack -> {
 			if (itemStack.getId() == ItemID.COINS)
 			{
 				return itemStack.getQuantity();
 			}
 			else
 			{
-				return itemManager.getItemComposition(itemStack.getId()).getHaPrice() * itemStack.getQuantity();
+				return (long) itemManager.getItemComposition(itemStack.getId()).getHaPrice() * itemStack.getQuantity();
 			}
 		}).sum();
 
+		forEachCreditedRecord(killEvent, record -> {
+			record.addToLoot(event.getItems());
+			record.addToGe(lootGe);
+			record.addToHa(lootHa);
+			record.addKillLoot(lootGe);
+		});
+		creditRegion(killEvent, regions -> regions.addGe(killEvent.getRegionId(), lootGe));
+		killEvent.addLoot(lootGe, lootHa);
+
+		killEvent.markLootLogged();
+		if (killEvent.isCompleted())
+		{
+			onKillEventCompleted(killEvent);
+			state.getKillEvents().remove(killEvent);
+		}
+	}
+
+	/**
+	 * Applies a kill-derived delta to the assignment record and its rollups, the variant record
+	 * matching the NPC, and every custom record that is currently recording.
+	 */
+	private void forEachCreditedRecord(TrackerState.KillEvent killEvent, Consumer<Record> credit)
+	{
+		forEachCreditedRecord(killEvent.getAssignment(), killEvent.getNpc(), killEvent.getGearFingerprint(), credit);
+	}
+
+	private void forEachCreditedRecord(Assignment assignment, NPC npc, long gearFingerprint, Consumer<Record> credit)
+	{
 		// Increment if record exists. Record should have been created on interacting start;
 		// if not, do nothing to avoid record with hours = 0;
-		Assignment assignment = killEvent.getAssignment();
 		AssignmentRecord assignmentRecord = state.getAssignmentRecords().get(assignment);
-		if (assignmentRecord != null)
+		if (assignmentRecord == null)
 		{
-			assignmentRecord.addToGe(lootGe);
-			assignmentRecord.addToHa(lootHa);
-			assignment.getVariantMatchingNpc(npc).ifPresent(variant -> {
-				Record variantRecord = assignmentRecord.getVariantRecords().get(variant);
-				if (variantRecord != null)
-				{
-					variantRecord.addToGe(lootGe);
-					variantRecord.addToHa(lootHa);
-				}
-			});
-			assignmentRecord.getCustomRecords().stream()
-				.filter(CustomRecord::isRecording)
-				.forEach(customRecord -> {
-					customRecord.addToGe(lootGe);
-					customRecord.addToHa(lootHa);
-				});
+			return;
 		}
 
-		killEvent.markLootLogged();
-		if (killEvent.isCompleted())
+		credit.accept(assignmentRecord);
+		state.getRollups().forEachRollup(assignment, credit);
+		assignment.getVariantMatchingNpc(npc).ifPresent(variant -> {
+			Record variantRecord = assignmentRecord.getVariantRecords().get(variant);
+			if (variantRecord != null)
+			{
+				credit.accept(variantRecord);
+			}
+		});
+		if (gearFingerprint != 0)
 		{
-			onKillEventCompleted(killEvent);
-			state.getKillEvents().remove(killEvent);
+			GearRecord gearRecord = assignmentRecord.getGearRecords().get(gearFingerprint);
+			if (gearRecord != null)
+			{
+				credit.accept(gearRecord);
+			}
 		}
+		assignmentRecord.getCustomRecords().stream()
+			.filter(CustomRecord::isRecording)
+			.forEach(credit);
 	}
 
 	private TrackerState.KillEvent nextUnloggedKillEvent(Iterator<TrackerState.KillEvent> iterator)
@@ -974,15 +1743,138 @@ public class TrackerService
 	{
 		NPC npc = killEvent.getNpc();
 		state.getEndedInteractions().removeIf(endedInteraction -> endedInteraction.getNpc() == npc);
+		appendKillHistory(killEvent);
+	}
+
+	private void appendKillHistory(TrackerState.KillEvent killEvent)
+	{
+		final Assignment assignment = killEvent.getAssignment();
+		if (assignment == null || state.getProfileFileName() == null)
+		{
+			return;
+		}
+
+		final NPC npc = killEvent.getNpc();
+		final int variant = npc == null ? -1 : assignment.getVariantMatchingNpc(npc)
+			.map(Variant::getOrdinal)
+			.orElse(-1);
+		recordRepository.appendKillHistory(state.getProfileFileName(), killEvent.getTick(), System.currentTimeMillis(),
+			assignment.ordinal(), variant, killEvent.getXp(), killEvent.getGe(), killEvent.getHa(), killEvent.getDurationTicks());
+	}
+
+	/**
+	 * Appends the assignments changed since the last tick to the journal, so a crash loses at most
+	 * the current tick rather than the whole session.
+	 */
+	private void journalChanges()
+	{
+		if (!state.isJournalDirty() || state.getProfileFileName() == null || recordsLoad != null)
+		{
+			return;
+		}
+		state.setJournalDirty(false);
+
+		try
+		{
+			recordRepository.journal(state.getAssignmentRecords(), state.getProfileFileName());
+		}
+		catch (Exception e)
+		{
+			log.warn("Could not journal record changes", e);
+		}
 	}
 
 	public void saveRecords() throws Exception
 	{
-		if (state.getProfileFileName() == null)
+		if (!finishCompletedRecordsLoad() || state.getProfileFileName() == null)
 		{
 			return;
 		}
 		recordRepository.save(state.getAssignmentRecords(), state.getProfileFileName());
+		state.setUnsavedChanges(false);
+		state.setLastSaveMillis(System.currentTimeMillis());
+	}
+
+	/**
+	 * Waits for saves still being written in the background.
+	 */
+	public void flushRecords() throws Exception
+	{
+		recordRepository.flush();
+	}
+
+	/**
+	 * Saves in the background if records changed and the last save is older than the interval.
+	 */
+	public void autosave(int intervalMinutes)
+	{
+		if (intervalMinutes <= 0
+			|| recordsLoad != null
+			|| !state.isUnsavedChanges()
+			|| System.currentTimeMillis() - state.getLastSaveMillis() < Duration.ofMinutes(intervalMinutes).toMillis())
+		{
+			return;
+		}
+
+		try
+		{
+			saveRecords();
+		}
+		catch (Exception e)
+		{
+			log.warn("Autosave failed", e);
+		}
+	}
+
+	/**
+	 * Reads the variant, custom and gear records of an assignment loaded from the summary index
+	 * in the background, and merges them into what was credited in the meantime.
+	 */
+	public void loadRecordDetail(Assignment assignment)
+	{
+		loadRecordDetail(assignment, () -> {});
+	}
+
+	/**
+	 * {@link #loadRecordDetail(Assignment)}, then runs {@code then} on the client thread once the
+	 * assignment's records are whole. {@code then} is dropped if they cannot be read.
+	 */
+	public void loadRecordDetail(Assignment assignment, Runnable then)
+	{
+		final CompletableFuture<RecordMap<Assignment, AssignmentRecord>> load = recordsLoad;
+		if (load != null)
+		{
+			if (!load.isDone())
+			{
+				// The summaries the detail belongs to are not in yet
+				load.whenComplete((records, e) -> clientThread.invokeLater(() -> loadRecordDetail(assignment, then)));
+				return;
+			}
+			finishRecordsLoad(load);
+		}
+
+		final AssignmentRecord assignmentRecord = assignment == null ? null : state.getAssignmentRecords().get(assignment);
+		final String profileFileName = state.getProfileFileName();
+		if (assignmentRecord == null || assignmentRecord.isDetailLoaded() || profileFileName == null)
+		{
+			then.run();
+			return;
+		}
+
+		recordRepository.loadDetail(assignment, profileFileName).whenComplete((detail, e) -> clientThread.invokeLater(() -> {
+			if (e != null)
+			{
+				log.warn("Could not load {} records", assignment, e);
+				return;
+			}
+			// Logged out, or the records were replaced, while it was read
+			if (state.getAssignmentRecords().get(assignment) != assignmentRecord || !profileFileName.equals(state.getProfileFileName()))
+			{
+				return;
+			}
+			recordRepository.mergeDetail(assignment, assignmentRecord, detail);
+			then.run();
+		}));
 	}
 
 	private void refreshCurrentAssignmentFromConfig()
@@ -992,6 +1884,7 @@ public class TrackerService
 			.ifPresentOrElse(assignment -> {
 				state.setCurrentAssignment(assignment);
 				state.setRemainingAmount(client.getVarpValue(VarPlayerID.SLAYER_COUNT));
+				loadRecordDetail(assignment);
 			}, () -> {
 				state.setCurrentAssignment(null);
 				state.setRemainingAmount(0);
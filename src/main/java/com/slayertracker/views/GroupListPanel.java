@@ -32,10 +32,16 @@ import com.slayertracker.views.recordpanels.AssignmentRecordPanel;
 import com.slayertracker.views.recordpanels.CustomRecordPanel;
 import com.slayertracker.views.recordpanels.RecordPanel;
 import com.slayertracker.views.recordpanels.VariantRecordPanel;
+import com.slayertracker.views.recordpanels.components.BreakdownPanel;
+import com.slayertracker.views.recordpanels.components.GearBreakdownPanel;
+import com.slayertracker.views.recordpanels.components.LocationBreakdownPanel;
+import com.slayertracker.views.recordpanels.components.LootBreakdownPanel;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.function.BiFunction;
 import javax.swing.BoxLayout;
@@ -55,14 +61,14 @@ public class GroupListPanel extends JPanel implements RecordListPanel
 
 	private final AssignmentRecordPanel assignmentRecordPanel;
 	private final Set<VariantRecordPanel> variantRecordPanels = new HashSet<>();
-	private final Set<CustomRecordPanel> customRecordPanels = new HashSet<>();
+	private final Set<CustomRecordPanel> customRecordPanels = new LinkedHashSet<>();
 	private final RecordInteractionHandler recordInteractionHandler;
 
 	GroupListPanel(Assignment assignment,
 				   AssignmentRecord assignmentRecord,
 				   SlayerTrackerConfig config,
 				   ItemManager itemManager,
-				   BiFunction<Record, SlayerTrackerConfig.LootUnit, Long> sortFunction,
+				   BiFunction<Record, SlayerTrackerConfig, Long> sortFunction,
 				   RecordInteractionHandler recordInteractionHandler)
 	{
 		this.assignment = assignment;
@@ -93,7 +99,7 @@ public class GroupListPanel extends JPanel implements RecordListPanel
 		update(sortFunction);
 	}
 
-	void update(BiFunction<Record, SlayerTrackerConfig.LootUnit, Long> sortFunction)
+	void update(BiFunction<Record, SlayerTrackerConfig, Long> sortFunction)
 	{
 		// Remove/Update/Add Panels
 
@@ -158,14 +164,15 @@ public class GroupListPanel extends JPanel implements RecordListPanel
 		add(assignmentRecordPanel);
 
 		variantRecordPanels.stream()
-			.sorted(Comparator.comparing(p -> sortFunction.apply(p.getRecord(), config.lootUnit())))
+			.sorted(Comparator.comparing(p -> sortFunction.apply(p.getRecord(), config)))
 			.forEachOrdered(variantRecordPanel -> {
 				variantRecordPanel.setBorder(new EmptyBorder(0, 36, 0, 0));
 				add(variantRecordPanel);
 			});
 
 		customRecordPanels.stream()
-			.sorted(Comparator.comparing(p -> sortFunction.apply(p.getRecord(), config.lootUnit())))
+			.sorted(Comparator.comparing((CustomRecordPanel p) -> sortFunction.apply(p.getRecord(), config))
+				.thenComparingInt(p -> p.getRecord().getId()))
 			.forEachOrdered(customRecordPanel -> {
 				customRecordPanel.setBorder(new EmptyBorder(0, 36, 0, 0));
 				add(customRecordPanel);
@@ -175,6 +182,24 @@ public class GroupListPanel extends JPanel implements RecordListPanel
 		repaint();
 	}
 
+	void showLoot(List<LootBreakdownPanel.Entry> entries, long recordedValue)
+	{
+		BreakdownPanel.showDialog(this, "Top Drops", "No drops recorded yet.", entries,
+			() -> new LootBreakdownPanel(entries, recordedValue, itemManager));
+	}
+
+	void showLocations(List<LocationBreakdownPanel.Entry> entries)
+	{
+		BreakdownPanel.showDialog(this, "Locations", "No locations recorded yet.", entries,
+			() -> new LocationBreakdownPanel(entries));
+	}
+
+	void showGearSetups(List<GearBreakdownPanel.Entry> entries)
+	{
+		BreakdownPanel.showDialog(this, "Gear Setups", "No gear setups recorded yet.", entries,
+			() -> new GearBreakdownPanel(entries, itemManager));
+	}
+
 	void toggleCollapsedAll()
 	{
 		if (assignmentRecordPanel.isCollapsed())
@@ -190,6 +215,7 @@ public class GroupListPanel extends JPanel implements RecordListPanel
 	private void expandAll()
 	{
 		// Expand Assignment Record panel and all of its Variant Record panels
+		recordInteractionHandler.loadDetail();
 		assignmentRecordPanel.expand();
 		variantRecordPanels.forEach(variantRecordPanel ->
 			variantRecordPanel.setVisible(true));
@@ -7,11 +7,23 @@ import com.slayertracker.records.AssignmentRecord;
 import com.slayertracker.records.CustomRecord;
 import com.slayertracker.records.Record;
 import com.slayertracker.records.RecordMap;
+import com.slayertracker.records.RegionLedger;
+import com.slayertracker.views.recordpanels.components.GearBreakdownPanel;
+import com.slayertracker.views.recordpanels.components.LocationBreakdownPanel;
+import com.slayertracker.views.recordpanels.components.LootBreakdownPanel;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.swing.SwingUtilities;
 import lombok.Getter;
+import net.runelite.api.EquipmentInventorySlot;
+import net.runelite.client.callback.ClientThread;
 import net.runelite.client.game.ItemManager;
 
 public class GroupListPresenter implements RecordInteractionHandler
@@ -22,7 +34,11 @@ public class GroupListPresenter implements RecordInteractionHandler
 	private final AssignmentRecord record;
 	private final RecordMap<Assignment, AssignmentRecord> assignmentRecords;
 	private final PropertyChangeListener changeListener;
-	private final Supplier<BiFunction<Record, SlayerTrackerConfig.LootUnit, Long>> sortFunctionSupplier;
+	private final SlayerTrackerConfig config;
+	private final ItemManager itemManager;
+	private final ClientThread clientThread;
+	private final BiConsumer<Assignment, Runnable> recordDetailLoader;
+	private final Supplier<BiFunction<Record, SlayerTrackerConfig, Long>> sortFunctionSupplier;
 	@Getter
 	private final GroupListPanel view;
 
@@ -32,17 +48,23 @@ public class GroupListPresenter implements RecordInteractionHandler
 		RecordMap<Assignment, AssignmentRecord> assignmentRecords,
 		SlayerTrackerConfig config,
 		ItemManager itemManager,
-		Supplier<BiFunction<Record, SlayerTrackerConfig.LootUnit, Long>> sortFunctionSupplier)
+		ClientThread clientThread,
+		BiConsumer<Assignment, Runnable> recordDetailLoader,
+		Supplier<BiFunction<Record, SlayerTrackerConfig, Long>> sortFunctionSupplier)
 	{
 		this.assignment = assignment;
 		this.changeListener = changeListener;
+		this.config = config;
+		this.itemManager = itemManager;
+		this.clientThread = clientThread;
+		this.recordDetailLoader = recordDetailLoader;
 		this.assignmentRecords = assignmentRecords;
 		this.sortFunctionSupplier = sortFunctionSupplier;
 		this.record = assignmentRecords.get(assignment);
 		this.view = new GroupListPanel(assignment, record, config, itemManager, sortFunctionSupplier.get(), this);
 	}
 
-	public void update(BiFunction<Record, SlayerTrackerConfig.LootUnit, Long> sortFunction)
+	public void update(BiFunction<Record, SlayerTrackerConfig, Long> sortFunction)
 	{
 		view.update(sortFunction);
 	}
@@ -50,17 +72,94 @@ public class GroupListPresenter implements RecordInteractionHandler
 	@Override
 	public void addCustomRecord()
 	{
-		CustomRecord customRecord = new CustomRecord(changeListener);
-		System.out.println(customRecord.getInteractingNpcs());
-		record.getCustomRecords().add(customRecord);
-		update(sortFunctionSupplier.get());
+		// Custom records still on disk must be in before a new one is numbered
+		clientThread.invokeLater(() -> recordDetailLoader.accept(assignment, () -> {
+			CustomRecord customRecord = new CustomRecord(changeListener);
+			record.getCustomRecords().add(customRecord);
+			SwingUtilities.invokeLater(() -> update(sortFunctionSupplier.get()));
+		}));
 	}
 
 	@Override
 	public void copyRecordToCustom(Record source)
 	{
-		record.getCustomRecords().add(new CustomRecord(source, changeListener));
-		update(sortFunctionSupplier.get());
+		clientThread.invokeLater(() -> recordDetailLoader.accept(assignment, () -> {
+			record.getCustomRecords().add(new CustomRecord(source, changeListener));
+			SwingUtilities.invokeLater(() -> update(sortFunctionSupplier.get()));
+		}));
+	}
+
+	@Override
+	public void loadDetail()
+	{
+		if (record.isDetailLoaded())
+		{
+			return;
+		}
+
+		// Records are read and written on the client thread
+		clientThread.invokeLater(() -> recordDetailLoader.accept(assignment,
+			() -> SwingUtilities.invokeLater(() -> update(sortFunctionSupplier.get()))));
+	}
+
+	@Override
+	public void showLoot(Record source)
+	{
+		// Item compositions and prices must be read on the client thread
+		clientThread.invokeLater(() -> {
+			List<LootBreakdownPanel.Entry> entries = new ArrayList<>();
+			source.getLoot().forEach((itemId, quantity) ->
+				entries.add(new LootBreakdownPanel.Entry(
+					itemId,
+					itemManager.getItemComposition(itemId).getName(),
+					quantity,
+					itemManager.getItemPrice(itemId))));
+			final long recordedValue = source.getGe();
+			SwingUtilities.invokeLater(() -> view.showLoot(entries, recordedValue));
+		});
+	}
+
+	@Override
+	public void showLocations()
+	{
+		// The ledger is written on the client thread, so read it there too
+		clientThread.invokeLater(() -> recordDetailLoader.accept(assignment, () -> {
+			final RegionLedger regions = record.getRegions();
+			List<LocationBreakdownPanel.Entry> entries = new ArrayList<>();
+			for (int regionId : regions.getRegionIds())
+			{
+				entries.add(new LocationBreakdownPanel.Entry(
+					regionId,
+					regions.getKc(regionId),
+					regions.getXp(regionId),
+					regions.getGe(regionId),
+					regions.getDamage(regionId),
+					regions.getMillis(regionId)));
+			}
+			SwingUtilities.invokeLater(() -> view.showLocations(entries));
+		}));
+	}
+
+	@Override
+	public void showGearSetups()
+	{
+		// Item names must be read on the client thread
+		clientThread.invokeLater(() -> recordDetailLoader.accept(assignment, () -> {
+			List<GearBreakdownPanel.Entry> entries = new ArrayList<>();
+			record.getGearRecords().values().forEach(gearRecord -> {
+				final int[] equipment = gearRecord.getEquipment();
+				final int weaponId = EquipmentInventorySlot.WEAPON.getSlotIdx() < equipment.length
+					? equipment[EquipmentInventorySlot.WEAPON.getSlotIdx()]
+					: -1;
+				final String items = Arrays.stream(equipment)
+					.filter(itemId -> itemId >= 0)
+					.mapToObj(itemId -> itemManager.getItemComposition(itemId).getName())
+					.collect(Collectors.joining(", "));
+				entries.add(new GearBreakdownPanel.Entry(weaponId, items, gearRecord.getKc(),
+					gearRecord.getMetrics(config.timeBasis())));
+			});
+			SwingUtilities.invokeLater(() -> view.showGearSetups(entries));
+		}));
 	}
 
 	@Override
@@ -72,14 +171,14 @@ public class GroupListPresenter implements RecordInteractionHandler
 	@Override
 	public void deleteVariant(Variant variant)
 	{
-		record.getVariantRecords().remove(variant);
+		record.removeVariantRecord(variant);
 		update(sortFunctionSupplier.get());
 	}
 
 	@Override
 	public void deleteCustomRecord(CustomRecord customRecord)
 	{
-		record.getCustomRecords().remove(customRecord);
+		record.removeCustomRecord(customRecord);
 		update(sortFunctionSupplier.get());
 	}
 
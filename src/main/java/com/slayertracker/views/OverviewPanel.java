@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.views;
+
+import com.slayertracker.SlayerTrackerConfig;
+import com.slayertracker.records.Record;
+import com.slayertracker.views.recordpanels.components.StatsPanel;
+import javax.swing.BoxLayout;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.border.EmptyBorder;
+import net.runelite.client.ui.ColorScheme;
+
+class OverviewPanel extends JPanel
+{
+	private final JPanel bodyPanel;
+
+	OverviewPanel()
+	{
+		setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+
+		JPanel headerPanel = new JPanel();
+		headerPanel.setLayout(new BoxLayout(headerPanel, BoxLayout.X_AXIS));
+		headerPanel.setBorder(new EmptyBorder(4, 4, 4, 4));
+		headerPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR.darker());
+		headerPanel.add(new JLabel("All Tasks"));
+		add(headerPanel);
+
+		bodyPanel = new JPanel();
+		bodyPanel.setLayout(new BoxLayout(bodyPanel, BoxLayout.X_AXIS));
+		bodyPanel.setBackground(ColorScheme.DARKER_GRAY_COLOR);
+		bodyPanel.setBorder(new EmptyBorder(4, 4, 4, 4));
+		add(bodyPanel);
+	}
+
+	void update(Record rollup, SlayerTrackerConfig config)
+	{
+		bodyPanel.removeAll();
+		bodyPanel.add(new StatsPanel(rollup, config.lootUnit(), config.timeBasis()));
+	}
+}
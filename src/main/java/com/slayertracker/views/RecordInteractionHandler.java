@@ -9,8 +9,16 @@ public interface RecordInteractionHandler
 {
 	void addCustomRecord();
 
+	void loadDetail();
+
 	void copyRecordToCustom(Record record);
 
+	void showLoot(Record record);
+
+	void showLocations();
+
+	void showGearSetups();
+
 	void deleteAssignment(Assignment assignment);
 
 	void deleteVariant(Variant variant);
@@ -35,6 +35,7 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -44,6 +45,7 @@ import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import lombok.Getter;
+import net.runelite.client.callback.ClientThread;
 import net.runelite.client.game.ItemManager;
 import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.DynamicGridLayout;
@@ -58,25 +60,32 @@ public class SlayerTrackerPanel extends PluginPanel
 	private final TrackerState trackerState;
 	private final RecordMap<Assignment, AssignmentRecord> assignmentRecords;
 	private final ItemManager itemManager;
+	private final ClientThread clientThread;
 	private final SlayerTrackerConfig config;
+	private final BiConsumer<Assignment, Runnable> recordDetailLoader;
 
 	private final PluginErrorPanel welcomeText;
 	private final JButton resetAllButton;
 	private final JButton resetCustomButton;
 	private final RecordingModePanel recordingModePanel;
 	private final RecordingModePresenter recordingModePresenter;
+	private final OverviewPanel overviewPanel;
 	private final JPanel assignmentListPanel;
 	private final JComboBox<String> sorterComboBox;
 	private final Set<GroupListPresenter> groupListPresenters = new HashSet<>();
 
 	public SlayerTrackerPanel(TrackerState trackerState,
 							  SlayerTrackerConfig config,
-							  ItemManager itemManager)
+							  ItemManager itemManager,
+							  ClientThread clientThread,
+							  BiConsumer<Assignment, Runnable> recordDetailLoader)
 	{
 		this.trackerState = trackerState;
 		this.assignmentRecords = trackerState.getAssignmentRecords();
 		this.itemManager = itemManager;
+		this.clientThread = clientThread;
 		this.config = config;
+		this.recordDetailLoader = recordDetailLoader;
 
 		setLayout(new DynamicGridLayout(0, 1, 0, VERTICAL_GAP));
 
@@ -98,6 +107,10 @@ public class SlayerTrackerPanel extends PluginPanel
 		recordingModePresenter = new RecordingModePresenter(recordingModePanel);
 		add(recordingModePanel);
 
+		// Overview panel
+		overviewPanel = new OverviewPanel();
+		add(overviewPanel);
+
 		// Assignment list panel
 		assignmentListPanel = new JPanel();
 		assignmentListPanel.setLayout(new DynamicGridLayout(0, 1, 0, VERTICAL_GAP));
@@ -134,8 +147,10 @@ public class SlayerTrackerPanel extends PluginPanel
 
 			if (result == JOptionPane.YES_OPTION)
 			{
-				assignmentRecords.values().forEach(assignmentRecord ->
-					assignmentRecord.getCustomRecords().clear());
+				// Records not yet read in full still have custom records on disk
+				clientThread.invokeLater(() ->
+					assignmentRecords.forEach((assignment, assignmentRecord) ->
+						recordDetailLoader.accept(assignment, assignmentRecord::clearCustomRecords)));
 			}
 		});
 		add(resetCustomButton);
@@ -145,7 +160,7 @@ public class SlayerTrackerPanel extends PluginPanel
 
 	public void update()
 	{
-		BiFunction<Record, SlayerTrackerConfig.LootUnit, Long> sortFunction = SortOrder.values()[sorterComboBox.getSelectedIndex()].sortFunction;
+		BiFunction<Record, SlayerTrackerConfig, Long> sortFunction = SortOrder.values()[sorterComboBox.getSelectedIndex()].sortFunction;
 
 		// Remove/Update/Add Panels
 
@@ -166,6 +181,8 @@ public class SlayerTrackerPanel extends PluginPanel
 					assignmentRecords,
 					config,
 					itemManager,
+					clientThread,
+					recordDetailLoader,
 					() -> sortFunction);
 				groupListPresenters.add(groupListPresenter);
 			}
@@ -173,6 +190,9 @@ public class SlayerTrackerPanel extends PluginPanel
 
 		// Rebuild
 
+		overviewPanel.setVisible(!groupListPresenters.isEmpty());
+		overviewPanel.update(trackerState.getRollups().getGlobal(), config);
+
 		assignmentListPanel.removeAll();
 
 		if (groupListPresenters.isEmpty())
@@ -184,7 +204,7 @@ public class SlayerTrackerPanel extends PluginPanel
 		{
 			// Group List Panels
 			groupListPresenters.stream()
-				.sorted(Comparator.comparing(presenter -> sortFunction.apply(presenter.getView().getRecord(), config.lootUnit())))
+				.sorted(Comparator.comparing(presenter -> sortFunction.apply(presenter.getView().getRecord(), config)))
 				.forEachOrdered(presenter -> assignmentListPanel.add(presenter.getView()));
 		}
 
@@ -211,21 +231,21 @@ public class SlayerTrackerPanel extends PluginPanel
 	private enum SortOrder
 	{
 		RECENTLY_KILLED("Recently Killed",
-			(r, u) -> -1 * r.getCombatInstant().getEpochSecond()
+			(r, c) -> -1 * r.getCombatInstant().getEpochSecond()
 		),
 		XP_RATE("XP Rate ",
-			(r, u) -> (long) Math.round(-1 * r.getXp() / r.getHours())
+			(r, c) -> Math.round(-1 * r.getMetrics(c.timeBasis()).getXpPerHour())
 		),
 		GP_RATE("GP Rate",
-			(r, u) -> u.equals(SlayerTrackerConfig.LootUnit.GRAND_EXCHANGE)
-				? (long) Math.round(-1 * r.getGe() / r.getHours())
-				: (long) Math.round(-1 * r.getHa() / r.getHours())
+			(r, c) -> c.lootUnit().equals(SlayerTrackerConfig.LootUnit.GRAND_EXCHANGE)
+				? Math.round(-1 * r.getMetrics(c.timeBasis()).getGePerHour())
+				: Math.round(-1 * r.getMetrics(c.timeBasis()).getHaPerHour())
 		);
 
 		final String label;
-		final BiFunction<Record, SlayerTrackerConfig.LootUnit, Long> sortFunction;
+		final BiFunction<Record, SlayerTrackerConfig, Long> sortFunction;
 
-		SortOrder(String label, BiFunction<Record, SlayerTrackerConfig.LootUnit, Long> sortFunction)
+		SortOrder(String label, BiFunction<Record, SlayerTrackerConfig, Long> sortFunction)
 		{
 			this.label = label;
 			this.sortFunction = sortFunction;
@@ -89,6 +89,16 @@ public class AssignmentRecordPanel extends RecordPanel
 				recordInteractionHandler.deleteAssignment(assignment);
 			}
 		});
+		// Locations button
+		final JMenuItem showLocationsMenuItem = new JMenuItem("Locations");
+		showLocationsMenuItem.addActionListener(e ->
+			recordInteractionHandler.showLocations());
+		popupMenu.insert(showLocationsMenuItem, popupMenu.getComponentIndex(resetMenuItem));
+		// Gear setups button
+		final JMenuItem showGearSetupsMenuItem = new JMenuItem("Gear Setups");
+		showGearSetupsMenuItem.addActionListener(e ->
+			recordInteractionHandler.showGearSetups());
+		popupMenu.insert(showGearSetupsMenuItem, popupMenu.getComponentIndex(resetMenuItem));
 
 		// Stats panel
 
@@ -123,7 +123,7 @@ public class CustomRecordPanel extends RecordPanel
 
 		// Stats Panel
 
-		statsPanel = new StatsPanel(record, getGroupListPanel().getConfig().lootUnit());
+		statsPanel = new StatsPanel(record, getGroupListPanel().getConfig().lootUnit(), getGroupListPanel().getConfig().timeBasis());
 		bodyPanel.add(statsPanel);
 
 		add(headerPanel);
@@ -77,6 +77,10 @@ public class RecordPanel extends JPanel implements RecordListPanel
 		final JMenuItem copyToCustomRecordMenuItem = new JMenuItem("Copy to Custom Record");
 		copyToCustomRecordMenuItem.addActionListener(e ->
 			recordInteractionHandler.copyRecordToCustom(record));
+		// Top drops button
+		final JMenuItem showLootMenuItem = new JMenuItem("Top Drops");
+		showLootMenuItem.addActionListener(e ->
+			recordInteractionHandler.showLoot(record));
 		popupMenu = getComponentPopupMenu();
 		if (popupMenu == null)
 		{
@@ -85,6 +89,7 @@ public class RecordPanel extends JPanel implements RecordListPanel
 			headerPanel.setComponentPopupMenu(popupMenu);
 		}
 		popupMenu.add(copyToCustomRecordMenuItem);
+		popupMenu.add(showLootMenuItem);
 		popupMenu.add(resetMenuItem);
 
 		// Body Panel
@@ -93,13 +98,13 @@ public class RecordPanel extends JPanel implements RecordListPanel
 		bodyPanel.setBackground((ColorScheme.DARKER_GRAY_COLOR));
 		bodyPanel.setBorder(new EmptyBorder(4, 4, 4, 4));
 
-		statsPanel = new StatsPanel(record, groupListPanel.getConfig().lootUnit());
+		statsPanel = new StatsPanel(record, groupListPanel.getConfig().lootUnit(), groupListPanel.getConfig().timeBasis());
 	}
 
 	public void update()
 	{
 		bodyPanel.remove(statsPanel);
-		statsPanel = new StatsPanel(record, groupListPanel.getConfig().lootUnit());
+		statsPanel = new StatsPanel(record, groupListPanel.getConfig().lootUnit(), groupListPanel.getConfig().timeBasis());
 		bodyPanel.add(statsPanel);
 	}
 
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.views.recordpanels.components;
+
+import java.awt.Component;
+import java.awt.GridLayout;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import net.runelite.client.ui.FontManager;
+
+/**
+ * Dialog body listing the top entries of a record breakdown, one label per entry.
+ */
+public abstract class BreakdownPanel<E> extends JPanel
+{
+	private static final int MAX_ROWS = 10;
+
+	BreakdownPanel()
+	{
+		setLayout(new GridLayout(0, 1, 0, 2));
+	}
+
+	/**
+	 * Shows the breakdown in a dialog, or {@code emptyMessage} if there are no entries.
+	 */
+	public static void showDialog(Component parent, String title, String emptyMessage, List<?> entries, Supplier<BreakdownPanel<?>> panel)
+	{
+		if (entries.isEmpty())
+		{
+			JOptionPane.showMessageDialog(parent, emptyMessage, title, JOptionPane.PLAIN_MESSAGE);
+			return;
+		}
+
+		JOptionPane.showMessageDialog(parent, panel.get(), title, JOptionPane.PLAIN_MESSAGE);
+	}
+
+	void addRows(List<E> entries, Comparator<E> order)
+	{
+		entries.stream()
+			.sorted(order)
+			.limit(MAX_ROWS)
+			.forEachOrdered(entry -> add(createRow(entry)));
+	}
+
+	abstract JLabel createRow(E entry);
+
+	static JLabel createLabel(String text)
+	{
+		JLabel label = new JLabel(text);
+		label.setFont(FontManager.getRunescapeSmallFont());
+		return label;
+	}
+}
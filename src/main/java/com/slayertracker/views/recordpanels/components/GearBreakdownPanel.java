@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.views.recordpanels.components;
+
+import com.slayertracker.records.RecordMetrics;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import javax.swing.JLabel;
+import lombok.Getter;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.util.QuantityFormatter;
+
+public class GearBreakdownPanel extends BreakdownPanel<GearBreakdownPanel.Entry>
+{
+	private final ItemManager itemManager;
+
+	public GearBreakdownPanel(List<Entry> entries, ItemManager itemManager)
+	{
+		this.itemManager = itemManager;
+		addRows(entries, Comparator.comparingLong(Entry::getKc).reversed());
+	}
+
+	@Override
+	JLabel createRow(Entry entry)
+	{
+		final RecordMetrics metrics = entry.getMetrics();
+		JLabel label = createLabel(QuantityFormatter.formatNumber(entry.getKc()) + " kc, "
+			+ QuantityFormatter.formatNumber(perHour(metrics.getKcPerHour())) + " kc/h, "
+			+ QuantityFormatter.quantityToStackSize(perHour(metrics.getXpPerHour())) + " xp/h, "
+			+ QuantityFormatter.quantityToStackSize(perHour(metrics.getGePerHour())) + " gp/h");
+		label.setToolTipText(Double.isNaN(metrics.getDps())
+			? entry.getItems()
+			: String.format(Locale.ROOT, "%s (%.2f dps)", entry.getItems(), metrics.getDps()));
+		if (entry.getWeaponId() >= 0)
+		{
+			itemManager.getImage(entry.getWeaponId()).addTo(label);
+		}
+		return label;
+	}
+
+	private static long perHour(double rate)
+	{
+		return Double.isFinite(rate) ? Math.round(rate) : 0;
+	}
+
+	@Getter
+	public static class Entry
+	{
+		private final int weaponId;
+		private final String items;
+		private final long kc;
+		private final RecordMetrics metrics;
+
+		public Entry(int weaponId, String items, long kc, RecordMetrics metrics)
+		{
+			this.weaponId = weaponId;
+			this.items = items;
+			this.kc = kc;
+			this.metrics = metrics;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.views.recordpanels.components;
+
+import com.slayertracker.records.RegionLedger;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import javax.swing.JLabel;
+import lombok.Getter;
+import net.runelite.client.util.QuantityFormatter;
+
+public class LocationBreakdownPanel extends BreakdownPanel<LocationBreakdownPanel.Entry>
+{
+	public LocationBreakdownPanel(List<Entry> entries)
+	{
+		addRows(entries, Comparator.comparingLong(Entry::getKc).reversed());
+	}
+
+	@Override
+	JLabel createRow(Entry entry)
+	{
+		final double hours = entry.getMillis() / 3_600_000.0;
+		JLabel label = createLabel(
+			(entry.getRegionId() == RegionLedger.OTHER_REGION ? "Other" : "Region " + entry.getRegionId())
+				+ ": " + QuantityFormatter.formatNumber(entry.getKc()) + " kc, "
+				+ QuantityFormatter.formatNumber(perHour(entry.getKc(), hours)) + " kc/h, "
+				+ QuantityFormatter.quantityToStackSize(perHour(entry.getXp(), hours)) + " xp/h, "
+				+ QuantityFormatter.quantityToStackSize(perHour(entry.getGe(), hours)) + " gp/h");
+		// Regions only count on-task time, so this is damage per on-task second
+		label.setToolTipText(String.format(Locale.ROOT, "%.1f hours on task, %.2f dps",
+			hours, entry.getMillis() > 0 ? entry.getDamage() * 1000.0 / entry.getMillis() : 0));
+		return label;
+	}
+
+	private static long perHour(long value, double hours)
+	{
+		return hours > 0 ? Math.round(value / hours) : 0;
+	}
+
+	@Getter
+	public static class Entry
+	{
+		private final int regionId;
+		private final long kc;
+		private final long xp;
+		private final long ge;
+		private final long damage;
+		private final long millis;
+
+		public Entry(int regionId, long kc, long xp, long ge, long damage, long millis)
+		{
+			this.regionId = regionId;
+			this.kc = kc;
+			this.xp = xp;
+			this.ge = ge;
+			this.damage = damage;
+			this.millis = millis;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026, Jeremy Bahadirli <https://github.com/jeremybahadirli>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.slayertracker.views.recordpanels.components;
+
+import java.util.Comparator;
+import java.util.List;
+import javax.swing.JLabel;
+import lombok.Getter;
+import net.runelite.client.game.ItemManager;
+import net.runelite.client.util.QuantityFormatter;
+
+public class LootBreakdownPanel extends BreakdownPanel<LootBreakdownPanel.Entry>
+{
+	private final ItemManager itemManager;
+
+	public LootBreakdownPanel(List<Entry> entries, long recordedValue, ItemManager itemManager)
+	{
+		this.itemManager = itemManager;
+
+		final long currentValue = entries.stream().mapToLong(Entry::getValue).sum();
+		add(createLabel("Current value: " + QuantityFormatter.formatNumber(currentValue) + " gp"));
+		add(createLabel("Recorded value: " + QuantityFormatter.formatNumber(recordedValue) + " gp"));
+
+		addRows(entries, Comparator.comparingLong(Entry::getValue).reversed());
+	}
+
+	@Override
+	JLabel createRow(Entry entry)
+	{
+		JLabel label = createLabel(entry.getName()
+			+ " x " + QuantityFormatter.formatNumber(entry.getQuantity())
+			+ ": " + QuantityFormatter.quantityToStackSize(entry.getValue()) + " gp");
+		itemManager.getImage(entry.getItemId()).addTo(label);
+		return label;
+	}
+
+	@Getter
+	public static class Entry
+	{
+		private final int itemId;
+		private final String name;
+		private final long quantity;
+		private final long value;
+
+		public Entry(int itemId, String name, long quantity, int price)
+		{
+			this.itemId = itemId;
+			this.name = name;
+			this.quantity = quantity;
+			this.value = quantity * price;
+		}
+	}
+}
@@ -26,9 +26,11 @@ package com.slayertracker.views.recordpanels.components;
 
 import com.slayertracker.SlayerTrackerConfig;
 import com.slayertracker.records.Record;
+import com.slayertracker.records.RecordMetrics;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.GridLayout;
+import java.util.Locale;
 import javax.annotation.Nullable;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -38,9 +40,10 @@ import net.runelite.client.util.QuantityFormatter;
 public class StatsPanel extends JPanel
 {
 
-	public StatsPanel(Record record, SlayerTrackerConfig.LootUnit lootUnit)
+	public StatsPanel(Record record, SlayerTrackerConfig.LootUnit lootUnit, SlayerTrackerConfig.TimeBasis timeBasis)
 	{
-		GpValues gpValues = new GpValues(record, lootUnit);
+		final RecordMetrics metrics = record.getMetrics(timeBasis);
+		GpValues gpValues = new GpValues(record, metrics, lootUnit);
 
 		setLayout(new GridLayout());
 		setOpaque(false);
@@ -48,12 +51,12 @@ public class StatsPanel extends JPanel
 		add(buildStatColumn(new String[][]{
 			{
 				"kc: ",
-				QuantityFormatter.quantityToRSDecimalStack(record.getKc(), true),
+				formatStack(record.getKc()),
 				QuantityFormatter.formatNumber(record.getKc()) + " kc"
 			},
 			{
 				"xp: ",
-				QuantityFormatter.quantityToRSDecimalStack(record.getXp(), true),
+				formatStack(record.getXp()),
 				QuantityFormatter.formatNumber(record.getXp()) + " xp"
 			},
 			{
@@ -66,13 +69,17 @@ public class StatsPanel extends JPanel
 		add(buildStatColumn(new String[][]{
 			{
 				"kc/h: ",
-				QuantityFormatter.quantityToRSDecimalStack(Math.round(record.getKc() / record.getHours()), true),
-				QuantityFormatter.formatNumber(Math.round(record.getKc() / record.getHours())) + " kc/h"
+				formatStack(Math.round(metrics.getKcPerHour())),
+				QuantityFormatter.formatNumber(Math.round(metrics.getKcPerHour())) + " kc/h"
+					+ killTimeSuffix(metrics)
+					+ dpsSuffix(metrics)
 			},
 			{
 				"xp/h: ",
-				QuantityFormatter.quantityToRSDecimalStack(Math.round(record.getXp() / record.getHours()), true),
-				QuantityFormatter.formatNumber(Math.round(record.getXp() / record.getHours())) + " xp/h"
+				formatStack(Math.round(metrics.getXpPerHour())),
+				QuantityFormatter.formatNumber(Math.round(metrics.getXpPerHour())) + " xp/h"
+					+ confidenceSuffix(metrics.getXpPerHourLow(), metrics.getXpPerHourHigh())
+					+ combatXpSuffix(record, metrics)
 			},
 			{
 				gpValues.rateLabel,
@@ -82,6 +89,74 @@ public class StatsPanel extends JPanel
 		}));
 	}
 
+	private static String killTimeSuffix(RecordMetrics metrics)
+	{
+		if (metrics.getKillTimeSamples() < 2)
+		{
+			return "";
+		}
+
+		return String.format(Locale.ROOT, " (kill time %.1fs ± %.1fs, p50 %.1fs, p90 %.1fs)",
+			metrics.getKillTimeMean(),
+			metrics.getKillTimeError(),
+			metrics.getKillTimeP50(),
+			metrics.getKillTimeP90());
+	}
+
+	private static String dpsSuffix(RecordMetrics metrics)
+	{
+		if (Double.isNaN(metrics.getDps()))
+		{
+			return "";
+		}
+
+		return String.format(Locale.ROOT, " (%.2f dps)", metrics.getDps());
+	}
+
+	/**
+	 * 95% confidence interval of an hourly rate, from the per-kill distribution scaled by kills per hour.
+	 */
+	private static String confidenceSuffix(double low, double high)
+	{
+		if (Double.isNaN(low))
+		{
+			return "";
+		}
+
+		return " (95% CI: "
+			+ QuantityFormatter.formatNumber(Math.round(low))
+			+ " - "
+			+ QuantityFormatter.formatNumber(Math.round(high))
+			+ ")";
+	}
+
+	private static String combatXpSuffix(Record record, RecordMetrics metrics)
+	{
+		if (record.getCombatXpTotal() <= 0)
+		{
+			return "";
+		}
+
+		return " (combat " + QuantityFormatter.formatNumber(Math.round(metrics.getCombatXpPerHour())) + " xp/h)";
+	}
+
+	private static String supplySuffix(long supplyCost, long net, String unit)
+	{
+		if (supplyCost <= 0)
+		{
+			return "";
+		}
+
+		return " (" + QuantityFormatter.formatNumber(net) + unit + " net of supplies)";
+	}
+
+	private static String formatStack(long value)
+	{
+		return value == (int) value
+			? QuantityFormatter.quantityToRSDecimalStack((int) value, true)
+			: QuantityFormatter.quantityToStackSize(value);
+	}
+
 	private JPanel buildStatColumn(String[][] rows)
 	{
 		JPanel stats = new JPanel();
@@ -134,27 +209,32 @@ public class StatsPanel extends JPanel
 		private final String valueTooltip;
 		private final String rateValueTooltip;
 
-		private GpValues(Record record, SlayerTrackerConfig.LootUnit lootUnit)
+		private GpValues(Record record, RecordMetrics metrics, SlayerTrackerConfig.LootUnit lootUnit)
 		{
 			if (lootUnit.equals(SlayerTrackerConfig.LootUnit.HIGH_ALCHEMY))
 			{
 				label = "ha: ";
-				value = QuantityFormatter.quantityToRSDecimalStack(record.getHa(), true);
-				valueTooltip = QuantityFormatter.formatNumber(record.getHa()) + " gp";
+				value = formatStack(record.getHa());
+				valueTooltip = QuantityFormatter.formatNumber(record.getHa()) + " gp"
+					+ supplySuffix(record.getSupplyCost(), record.getHa() - record.getSupplyCost(), " gp");
 
 				rateLabel = "ha/h: ";
-				rateValue = QuantityFormatter.quantityToRSDecimalStack(Math.round(record.getHa() / record.getHours()), true);
-				rateValueTooltip = QuantityFormatter.formatNumber(Math.round(record.getHa() / record.getHours())) + " gp/h";
+				rateValue = formatStack(Math.round(metrics.getHaPerHour()));
+				rateValueTooltip = QuantityFormatter.formatNumber(Math.round(metrics.getHaPerHour())) + " gp/h"
+					+ supplySuffix(record.getSupplyCost(), Math.round(metrics.getNetHaPerHour()), " gp/h");
 			}
 			else
 			{
 				label = "ge: ";
-				value = QuantityFormatter.quantityToRSDecimalStack(record.getGe(), true);
-				valueTooltip = QuantityFormatter.formatNumber(record.getGe()) + " gp";
+				value = formatStack(record.getGe());
+				valueTooltip = QuantityFormatter.formatNumber(record.getGe()) + " gp"
+					+ supplySuffix(record.getSupplyCost(), record.getGe() - record.getSupplyCost(), " gp");
 
 				rateLabel = "ge/h: ";
-				rateValue = QuantityFormatter.quantityToRSDecimalStack(Math.round(record.getGe() / record.getHours()), true);
-				rateValueTooltip = QuantityFormatter.formatNumber(Math.round(record.getGe() / record.getHours())) + " gp/h";
+				rateValue = formatStack(Math.round(metrics.getGePerHour()));
+				rateValueTooltip = QuantityFormatter.formatNumber(Math.round(metrics.getGePerHour())) + " gp/h"
+					+ confidenceSuffix(metrics.getGePerHourLow(), metrics.getGePerHourHigh())
+					+ supplySuffix(record.getSupplyCost(), Math.round(metrics.getNetGePerHour()), " gp/h");
 			}
 		}
 	}
@@ -0,0 +1,197 @@
+package com.slayertracker.persistence;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class KillHistoryLogTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void rowsSurviveRotationAndReopening() throws Exception
+	{
+		File history = new File(folder.getRoot(), "profile.json.history");
+		KillHistoryLog log = new KillHistoryLog(history, 4);
+		for (int i = 0; i < 10; i++)
+		{
+			log.append(i, 1000L + i, 7, i % 3 - 1, 10 * i, 100L * i, 50L * i, 20 + i);
+		}
+		log.force();
+		assertEquals(3, history.list().length);
+
+		KillHistoryLog reopened = new KillHistoryLog(history, 4);
+		assertEquals(10, reopened.size());
+		reopened.append(10, 1010L, 7, 0, 100, 1000L, 500L, 30);
+
+		List<long[]> rows = new ArrayList<>();
+		reopened.scan(3, 9, (row, tick, epochMillis, assignment, variant, xp, ge, ha, durationTicks) ->
+			rows.add(new long[]{row, tick, epochMillis, assignment, variant, xp, ge, ha, durationTicks}));
+		assertEquals(6, rows.size());
+		for (int i = 0; i < rows.size(); i++)
+		{
+			final int k = i + 3;
+			assertEquals(k, rows.get(i)[0]);
+			assertEquals(k, rows.get(i)[1]);
+			assertEquals(1000L + k, rows.get(i)[2]);
+			assertEquals(7, rows.get(i)[3]);
+			assertEquals(k % 3 - 1, rows.get(i)[4]);
+			assertEquals(10 * k, rows.get(i)[5]);
+			assertEquals(100L * k, rows.get(i)[6]);
+			assertEquals(50L * k, rows.get(i)[7]);
+			assertEquals(20 + k, rows.get(i)[8]);
+		}
+
+		assertEquals(11, reopened.size());
+	}
+
+	@Test
+	public void rowsPastTheCommittedCountAreIgnored() throws Exception
+	{
+		File history = new File(folder.getRoot(), "profile.json.history");
+		KillHistoryLog log = new KillHistoryLog(history, 8);
+		for (int i = 0; i < 3; i++)
+		{
+			log.append(i, 1000L + i, 1, -1, 10, 1L, 1L, 5);
+		}
+		log.force();
+
+		// A row that reached the disk without its count being raised, as a crash can leave one
+		try (RandomAccessFile segment = new RandomAccessFile(new File(history, "kills-00000000.seg"), "rw"))
+		{
+			segment.seek(KillHistoryLog.HEADER_BYTES + 3 * KillHistoryLog.ROW_BYTES);
+			for (int i = 0; i < KillHistoryLog.ROW_BYTES; i++)
+			{
+				segment.write(0x7f);
+			}
+		}
+
+		KillHistoryLog reopened = new KillHistoryLog(history, 8);
+		assertEquals(3, reopened.size());
+		reopened.append(3, 2000L, 2, 0, 20, 2L, 2L, 6);
+		assertEquals(4, reopened.size());
+
+		List<long[]> rows = new ArrayList<>();
+		reopened.scan(3, 4, (row, tick, epochMillis, assignment, variant, xp, ge, ha, durationTicks) ->
+			rows.add(new long[]{tick, epochMillis, assignment, xp}));
+		assertEquals(1, rows.size());
+		assertArrayEquals(new long[]{3, 2000L, 2, 20}, rows.get(0));
+	}
+
+	@Test
+	public void queryMatchesRowsInRange() throws Exception
+	{
+		File history = new File(folder.getRoot(), "profile.json.history");
+		KillHistoryLog log = new KillHistoryLog(history, 1000);
+		Random random = new Random(1);
+		int kills = 5000;
+		long[] times = new long[kills];
+		int[] assignments = new int[kills];
+		int[] xps = new int[kills];
+		long time = 1_600_000_000_000L;
+		for (int i = 0; i < kills; i++)
+		{
+			time += random.nextInt(30 * 60 * 1000);
+			times[i] = time;
+			assignments[i] = random.nextInt(3);
+			xps[i] = random.nextInt(500);
+			log.append(i, time, assignments[i], -1, xps[i], 10, 5, 50);
+		}
+		log.force();
+
+		long from = times[1000] + 12345;
+		long to = from + 30 * KillHistoryIndex.DAY_MILLIS + 777;
+		long kc = 0;
+		long xp = 0;
+		for (int i = 0; i < kills; i++)
+		{
+			if (assignments[i] == 1 && times[i] >= from && times[i] < to)
+			{
+				kc++;
+				xp += xps[i];
+			}
+		}
+
+		// Once from the index built while appending, and once from the one read back
+		for (KillHistoryLog opened : new KillHistoryLog[]{log, new KillHistoryLog(history, 1000)})
+		{
+			KillHistoryIndex.Totals totals = opened.query(1, from, to);
+			assertEquals(kc, totals.getKc());
+			assertEquals(xp, totals.getXp());
+			assertEquals(50 * kc, totals.getDurationTicks());
+		}
+	}
+
+	@Test
+	public void hourAndDayTotalsAddUpTheirKills() throws Exception
+	{
+		File history = new File(folder.getRoot(), "profile.json.history");
+		KillHistoryLog log = new KillHistoryLog(history, 16);
+		long day = 19_000 * KillHistoryIndex.DAY_MILLIS;
+		// Two kills in the first hour, one in the third, one the next day, and one of another assignment
+		log.append(0, day + 1000, 4, -1, 100, 10L, 5L, 3000);
+		log.append(1, day + 2000, 4, -1, 200, 20L, 10L, 3000);
+		log.append(2, day + 2 * KillHistoryIndex.HOUR_MILLIS, 4, -1, 300, 30L, 15L, 6000);
+		log.append(3, day + 2 * KillHistoryIndex.HOUR_MILLIS + 1, 5, -1, 999, 99L, 99L, 6000);
+		log.append(4, day + KillHistoryIndex.DAY_MILLIS, 4, -1, 400, 40L, 20L, -1);
+
+		KillHistoryIndex.Totals hour = log.query(4, day, day + KillHistoryIndex.HOUR_MILLIS);
+		assertEquals(2, hour.getKc());
+		assertEquals(300, hour.getXp());
+		assertEquals(30, hour.getGe());
+		assertEquals(15, hour.getHa());
+		// 6000 ticks of 0.6s
+		assertEquals(1.0, hour.getHours(), 1e-9);
+		assertEquals(300.0, hour.getXpPerHour(), 1e-9);
+
+		KillHistoryIndex.Totals firstDay = log.query(4, day, day + KillHistoryIndex.DAY_MILLIS);
+		assertEquals(3, firstDay.getKc());
+		assertEquals(600, firstDay.getXp());
+		assertEquals(2.0, firstDay.getHours(), 1e-9);
+
+		// A kill without a seen duration counts, but adds no time
+		KillHistoryIndex.Totals twoDays = log.query(4, day, day + 2 * KillHistoryIndex.DAY_MILLIS);
+		assertEquals(4, twoDays.getKc());
+		assertEquals(1000, twoDays.getXp());
+		assertEquals(12000, twoDays.getDurationTicks());
+
+		assertEquals(0, log.query(4, day + 3000, day + 2 * KillHistoryIndex.HOUR_MILLIS).getKc());
+		assertEquals(0.0, log.query(6, day, day + KillHistoryIndex.DAY_MILLIS).getXpPerHour(), 0);
+	}
+
+	@Test
+	public void writtenIndexIsCaughtUpOnOpen() throws Exception
+	{
+		File history = new File(folder.getRoot(), "profile.json.history");
+		KillHistoryLog log = new KillHistoryLog(history, 4);
+		for (int i = 0; i < 6; i++)
+		{
+			log.append(i, 1000L + i, 2, -1, 10, 1L, 1L, 5);
+		}
+		log.writeIndex();
+		File index = new File(history, "index");
+		assertTrue(index.exists());
+		assertEquals(6, KillHistoryIndex.read(index).getRows());
+
+		// Appended after the index was saved, and never forced
+		for (int i = 6; i < 9; i++)
+		{
+			log.append(i, 1000L + i, 2, -1, 10, 1L, 1L, 5);
+		}
+		assertEquals(6, KillHistoryIndex.read(index).getRows());
+
+		KillHistoryLog reopened = new KillHistoryLog(history, 4);
+		KillHistoryIndex.Totals totals = reopened.query(2, 0, 2000);
+		assertEquals(9, totals.getKc());
+		assertEquals(90, totals.getXp());
+	}
+}
@@ -0,0 +1,42 @@
+package com.slayertracker.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RecordJournalTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void appendedBatchesReadBackInOrder() throws Exception
+	{
+		RecordJournal journal = new RecordJournal(new File(folder.getRoot(), "profile.json.journal"));
+		journal.append("{\"a\":1}\n{\"a\":2}\n".getBytes(StandardCharsets.UTF_8));
+		journal.append("{\"a\":3}\n".getBytes(StandardCharsets.UTF_8));
+		journal.close();
+
+		assertEquals(Arrays.asList("{\"a\":1}", "{\"a\":2}", "{\"a\":3}"),
+			new RecordJournal(journal.getFile()).readLines());
+	}
+
+	@Test
+	public void truncateRemovesTheFile() throws Exception
+	{
+		RecordJournal journal = new RecordJournal(new File(folder.getRoot(), "profile.json.journal"));
+		journal.append("{\"a\":1}\n".getBytes(StandardCharsets.UTF_8));
+		assertTrue(journal.length() > 0);
+
+		journal.truncate();
+
+		assertFalse(journal.getFile().exists());
+		assertTrue(journal.readLines().isEmpty());
+	}
+}
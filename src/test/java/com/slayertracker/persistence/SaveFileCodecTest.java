@@ -0,0 +1,243 @@
+package com.slayertracker.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.slayertracker.SlayerTrackerConfig;
+import com.slayertracker.groups.Assignment;
+import com.slayertracker.groups.Variant;
+import com.slayertracker.records.AssignmentRecord;
+import com.slayertracker.records.CustomRecord;
+import com.slayertracker.records.Record;
+import com.slayertracker.records.RecordMap;
+import com.slayertracker.state.TrackerState;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class SaveFileCodecTest
+{
+	private static final int BENCHMARK_BYTES = 10 << 20;
+
+	private final TrackerState state = new TrackerState();
+	private final SlayerTrackerSaveManager saveManager = new SlayerTrackerSaveManager(state);
+
+	@Test
+	public void codecReadsBackWhatItWrites() throws Exception
+	{
+		String streamed = encode(syntheticProfile(20));
+
+		RecordMap<Assignment, AssignmentRecord> read = saveManager.readStreaming(new StringReader(streamed));
+		assertEquals(JsonParser.parseString(streamed), JsonParser.parseString(encode(read)));
+	}
+
+	@Test
+	public void olderSchemaIsLeftForMigration() throws Exception
+	{
+		assertNull(saveManager.readStreaming(new StringReader("{\"schemaVersion\":1,\"records\":{}}")));
+		assertNull(saveManager.readStreaming(new StringReader("{\"records\":{}}")));
+	}
+
+	@Test
+	public void schemaOneCountersAreUnwrappedWhileStreaming() throws Exception
+	{
+		String schemaOne = "{\"records\":{\"GARGOYLES\":{\"kc\":3,\"xp\":-2,\"ge\":5,"
+			+ "\"variantRecords\":{\"gargoyles_gargoyle\":{\"ha\":-1}},"
+			+ "\"customRecords\":[{\"name\":\"Custom\",\"ge\":-3}]}},\"other\":[1,2]}";
+		StringWriter migrated = new StringWriter();
+
+		assertEquals(1, SchemaMigrations.readSchemaVersion(new JsonReader(new StringReader(schemaOne)), 2));
+		SchemaMigrations.migrate(new JsonReader(new StringReader(schemaOne)), new JsonWriter(migrated), 1, 2);
+		assertEquals(JsonParser.parseString("{\"schemaVersion\":2,\"records\":{\"GARGOYLES\":{\"kc\":3,\"xp\":4294967294,\"ge\":5,"
+				+ "\"variantRecords\":{\"gargoyles_gargoyle\":{\"ha\":4294967295}},"
+				+ "\"customRecords\":[{\"name\":\"Custom\",\"ge\":4294967293}]}},\"other\":[1,2]}"),
+			JsonParser.parseString(migrated.toString()));
+	}
+
+	@Test(expected = IOException.class)
+	public void newerSchemaIsNotDowngraded() throws Exception
+	{
+		SchemaMigrations.readSchemaVersion(new JsonReader(new StringReader("{\"schemaVersion\":99,\"records\":{}}")), 2);
+	}
+
+	@Test(expected = IOException.class)
+	public void newerSchemaIsFoundAfterTheRecords() throws Exception
+	{
+		SchemaMigrations.readSchemaVersion(new JsonReader(new StringReader("{\"records\":{},\"schemaVersion\":99}")), 2);
+	}
+
+	@Test(expected = IOException.class)
+	public void migrateRefusesToDowngrade() throws Exception
+	{
+		SchemaMigrations.migrate(new JsonReader(new StringReader("{\"schemaVersion\":99,\"records\":{}}")),
+			new JsonWriter(new StringWriter()), 99, 2);
+	}
+
+	@Test
+	public void binaryFileReadsBackAsTheSameRecords() throws Exception
+	{
+		RecordMap<Assignment, AssignmentRecord> records = syntheticProfile(20);
+		byte[] binary = saveManager.encodeSnapshot(records, SlayerTrackerConfig.SaveFormat.BINARY);
+
+		RecordMap<Assignment, AssignmentRecord> read = saveManager.readStreaming(BinarySaveFormat.newReader(new ByteArrayInputStream(binary)));
+		assertEquals(JsonParser.parseString(encode(records)), JsonParser.parseString(encode(read)));
+	}
+
+	@Test
+	public void jsonAndBinaryConvertLosslessly() throws Exception
+	{
+		byte[] json = saveManager.encodeSnapshot(syntheticProfile(20));
+
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		BinarySaveFormat.convert(new ByteArrayInputStream(json), binary, SlayerTrackerConfig.SaveFormat.BINARY);
+		ByteArrayOutputStream roundTripped = new ByteArrayOutputStream();
+		BinarySaveFormat.convert(new ByteArrayInputStream(binary.toByteArray()), roundTripped, SlayerTrackerConfig.SaveFormat.JSON);
+
+		assertTrue(binary.size() < json.length);
+		assertEquals(JsonParser.parseString(new String(json, StandardCharsets.UTF_8)),
+			JsonParser.parseString(new String(roundTripped.toByteArray(), StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void benchmarkCodec() throws Exception
+	{
+		Assume.assumeTrue(Boolean.getBoolean("slayertracker.benchmark"));
+
+		// Scale the loot ledgers until the compact file reaches the target size
+		final int sampleLoot = 100;
+		final int sampleBytes = encode(syntheticProfile(sampleLoot)).length();
+		final int loot = (int) ((long) sampleLoot * BENCHMARK_BYTES / sampleBytes);
+		final RecordMap<Assignment, AssignmentRecord> records = syntheticProfile(loot);
+		final String streamed = encode(records);
+		final byte[] binary = saveManager.encodeSnapshot(records, SlayerTrackerConfig.SaveFormat.BINARY);
+		System.out.printf(Locale.ROOT, "codec file %.1f MB, binary file %.1f MB%n",
+			streamed.length() / 1e6, binary.length / 1e6);
+
+		measure("codec write", () -> saveManager.encodeSnapshot(records));
+		measure("codec read", () -> saveManager.readStreaming(new StringReader(streamed)));
+		measure("binary write", () -> saveManager.encodeSnapshot(records, SlayerTrackerConfig.SaveFormat.BINARY));
+		measure("binary read", () -> saveManager.readStreaming(BinarySaveFormat.newReader(new ByteArrayInputStream(binary))));
+	}
+
+	@Test
+	public void benchmarkMigration() throws Exception
+	{
+		Assume.assumeTrue(Boolean.getBoolean("slayertracker.benchmark"));
+
+		final int sampleLoot = 100;
+		final int sampleBytes = encode(syntheticProfile(sampleLoot)).length();
+		final RecordMap<Assignment, AssignmentRecord> records = syntheticProfile((int) ((long) sampleLoot * BENCHMARK_BYTES / sampleBytes));
+		final String schemaOne = encode(records).replaceFirst("\"schemaVersion\":2", "\"schemaVersion\":1");
+		final byte[] binarySchemaOne = toBinary(schemaOne);
+		System.out.printf(Locale.ROOT, "schema 1 file %.1f MB, binary %.1f MB%n", schemaOne.length() / 1e6, binarySchemaOne.length / 1e6);
+
+		measure("migrate", () -> {
+			SchemaMigrations.migrate(new JsonReader(new StringReader(schemaOne)), new JsonWriter(Writer.nullWriter()), 1, 2);
+			return null;
+		});
+		measure("bin migrate", () -> {
+			SchemaMigrations.migrate(BinarySaveFormat.newReader(new ByteArrayInputStream(binarySchemaOne)),
+				BinarySaveFormat.newWriter(ByteArrayOutputStream.nullOutputStream(), SlayerTrackerConfig.SaveFormat.BINARY), 1, 2);
+			return null;
+		});
+	}
+
+	private static byte[] toBinary(String json) throws IOException
+	{
+		ByteArrayOutputStream binary = new ByteArrayOutputStream();
+		BinarySaveFormat.convert(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), binary, SlayerTrackerConfig.SaveFormat.BINARY);
+		return binary.toByteArray();
+	}
+
+	private RecordMap<Assignment, AssignmentRecord> syntheticProfile(int lootPerRecord)
+	{
+		Random random = new Random(43);
+		RecordMap<Assignment, AssignmentRecord> records = new RecordMap<>(state);
+		for (Assignment assignment : Assignment.values())
+		{
+			AssignmentRecord record = new AssignmentRecord(state);
+			fill(record, random, lootPerRecord);
+			for (Variant variant : assignment.getVariants())
+			{
+				Record variantRecord = new Record(state);
+				fill(variantRecord, random, lootPerRecord);
+				record.getVariantRecords().put(variant, variantRecord);
+			}
+			CustomRecord customRecord = new CustomRecord(state);
+			customRecord.setName("Custom " + assignment.getName());
+			fill(customRecord, random, lootPerRecord);
+			record.getCustomRecords().add(customRecord);
+			records.put(assignment, record);
+		}
+		return records;
+	}
+
+	private static void fill(Record record, Random random, int loot)
+	{
+		for (int i = 0; i < 10; i++)
+		{
+			record.incrementKc();
+			record.addKillDuration(1 + random.nextInt(100));
+			record.addKillXp(random.nextInt(500));
+			record.addKillLoot(random.nextInt(100_000));
+		}
+		record.addToHours(Duration.ofMinutes(random.nextInt(600)));
+		record.addToXp(random.nextInt(1_000_000));
+		record.addToGe(random.nextInt(10_000_000));
+		record.addToHa(random.nextInt(10_000_000));
+		record.addToCombatXp(random.nextInt(Record.COMBAT_SKILLS.length), random.nextInt(1_000_000));
+		for (int i = 0; i < loot; i++)
+		{
+			record.getLoot().add(random.nextInt(30_000), 1 + random.nextInt(1_000));
+		}
+	}
+
+	private String encode(RecordMap<Assignment, AssignmentRecord> records) throws Exception
+	{
+		return new String(saveManager.encodeSnapshot(records), StandardCharsets.UTF_8);
+	}
+
+	private static void measure(String name, Callable<?> task) throws Exception
+	{
+		for (int i = 0; i < 3; i++)
+		{
+			task.call();
+		}
+
+		final int runs = 5;
+		final long allocatedBefore = allocatedBytes();
+		final long start = System.nanoTime();
+		for (int i = 0; i < runs; i++)
+		{
+			task.call();
+		}
+		final long elapsed = System.nanoTime() - start;
+		final long allocated = allocatedBytes() - allocatedBefore;
+		System.out.printf(Locale.ROOT, "%-12s %8.1f ms %10.1f MB allocated%n",
+			name, elapsed / 1e6 / runs, allocated / 1e6 / runs);
+	}
+
+	private static long allocatedBytes()
+	{
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean)
+		{
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,280 @@
+package com.slayertracker.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.slayertracker.groups.Assignment;
+import com.slayertracker.groups.Variant;
+import com.slayertracker.records.AssignmentRecord;
+import com.slayertracker.records.CustomRecord;
+import com.slayertracker.records.Record;
+import com.slayertracker.records.RecordMap;
+import com.slayertracker.state.TrackerState;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SlayerTrackerSaveManagerTest
+{
+	private static final String PROFILE = "profile.json";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final TrackerState state = new TrackerState();
+
+	@Test
+	public void saveRewritesOnlyChangedShards() throws Exception
+	{
+		SlayerTrackerSaveManager saveManager = new SlayerTrackerSaveManager(state, folder.getRoot());
+		RecordMap<Assignment, AssignmentRecord> records = saveManager.load(PROFILE);
+		records.put(Assignment.GARGOYLES, record(3));
+		records.put(Assignment.ABYSSAL_DEMONS, record(5));
+		saveManager.save(records, PROFILE);
+		saveManager.flush();
+
+		// A shard that is written again would reappear
+		File untouched = shard(Assignment.ABYSSAL_DEMONS);
+		assertTrue(untouched.delete());
+		records.get(Assignment.GARGOYLES).incrementKc();
+		saveManager.save(records, PROFILE);
+		saveManager.flush();
+
+		assertFalse(untouched.exists());
+		assertEquals(4, saveManager.loadShard(Assignment.GARGOYLES, PROFILE).getKc());
+	}
+
+	@Test
+	public void loadedShardsAreNotRewrittenUntilChanged() throws Exception
+	{
+		SlayerTrackerSaveManager saveManager = new SlayerTrackerSaveManager(state, folder.getRoot());
+		RecordMap<Assignment, AssignmentRecord> records = saveManager.load(PROFILE);
+		AssignmentRecord gargoyles = record(3);
+		gargoyles.getCustomRecords().add(new CustomRecord(state));
+		records.put(Assignment.GARGOYLES, gargoyles);
+		saveManager.save(records, PROFILE);
+		saveManager.flush();
+
+		SlayerTrackerSaveManager reloaded = new SlayerTrackerSaveManager(state, folder.getRoot());
+		RecordMap<Assignment, AssignmentRecord> loaded = reloaded.load(PROFILE);
+		AssignmentRecord summary = loaded.get(Assignment.GARGOYLES);
+		reloaded.mergeDetail(Assignment.GARGOYLES, summary, reloaded.loadDetail(Assignment.GARGOYLES, PROFILE).get());
+		assertTrue(shard(Assignment.GARGOYLES).delete());
+		reloaded.save(loaded, PROFILE);
+		reloaded.flush();
+		assertFalse(shard(Assignment.GARGOYLES).exists());
+
+		summary.getCustomRecords().iterator().next().setName("Renamed");
+		reloaded.save(loaded, PROFILE);
+		reloaded.flush();
+		assertEquals("Renamed", reloaded.loadShard(Assignment.GARGOYLES, PROFILE).getCustomRecords().iterator().next().getName());
+	}
+
+	@Test
+	public void removedAssignmentsLoseTheirShard() throws Exception
+	{
+		SlayerTrackerSaveManager saveManager = new SlayerTrackerSaveManager(state, folder.getRoot());
+		RecordMap<Assignment, AssignmentRecord> records = saveManager.load(PROFILE);
+		records.put(Assignment.GARGOYLES, record(3));
+		saveManager.save(records, PROFILE);
+		records.remove(Assignment.GARGOYLES);
+		saveManager.save(records, PROFILE);
+		saveManager.flush();
+
+		assertFalse(shard(Assignment.GARGOYLES).exists());
+		assertNull(saveManager.loadShard(Assignment.GARGOYLES, PROFILE));
+	}
+
+	@Test
+	public void singleFileProfileIsSplitIntoShards() throws Exception
+	{
+		SlayerTrackerSaveManager saveManager = new SlayerTrackerSaveManager(state, folder.getRoot());
+		RecordMap<Assignment, AssignmentRecord> records = new RecordMap<>(state);
+		records.put(Assignment.GARGOYLES, record(3));
+		Files.write(new File(folder.getRoot(), PROFILE).toPath(), saveManager.encodeSnapshot(records));
+
+		RecordMap<Assignment, AssignmentRecord> loaded = new SlayerTrackerSaveManager(state, folder.getRoot()).load(PROFILE);
+
+		assertEquals(3, loaded.get(Assignment.GARGOYLES).getKc());
+		assertTrue(shard(Assignment.GARGOYLES).exists());
+		assertFalse(new File(folder.getRoot(), PROFILE).exists());
+		assertTrue(new File(folder.getRoot(), PROFILE + ".bak").exists());
+	}
+
+	@Test
+	public void olderSingleFileIsMigratedAndBackedUp() throws Exception
+	{
+		SlayerTrackerSaveManager saveManager = new SlayerTrackerSaveManager(state, folder.getRoot());
+		RecordMap<Assignment, AssignmentRecord> records = new RecordMap<>(state);
+		records.put(Assignment.GARGOYLES, record(3));
+		JsonObject root = JsonParser.parseString(new String(saveManager.encodeSnapshot(records), StandardCharsets.UTF_8)).getAsJsonObject();
+		root.addProperty("schemaVersion", 1);
+		root.getAsJsonObject("records").getAsJsonObject("GARGOYLES").addProperty("xp", -2);
+		Files.write(new File(folder.getRoot(), PROFILE).toPath(), root.toString().getBytes(StandardCharsets.UTF_8));
+
+		RecordMap<Assignment, AssignmentRecord> loaded = saveManager.load(PROFILE);
+
+		assertEquals(3, loaded.get(Assignment.GARGOYLES).getKc());
+		assertEquals((1L << 32) - 2, loaded.get(Assignment.GARGOYLES).getXp());
+		assertTrue(new File(folder.getRoot(), PROFILE + ".v1.bak").exists());
+		assertTrue(shard(Assignment.GARGOYLES).exists());
+	}
+
+	@Test
+	public void failedMigrationLeavesNoTempFile() throws Exception
+	{
+		SlayerTrackerSaveManager saveManager = new SlayerTrackerSaveManager(state, folder.getRoot());
+		File shard = shard(Assignment.GARGOYLES);
+		assertTrue(shard.getParentFile().mkdirs());
+		Files.write(shard.toPath(), "{\"schemaVersion\":1,\"record\":{\"kc\":".getBytes(StandardCharsets.UTF_8));
+
+		try
+		{
+			saveManager.loadShard(Assignment.GARGOYLES, PROFILE);
+			fail();
+		}
+		catch (IOException expected)
+		{
+		}
+
+		assertFalse(new File(shard.getPath() + ".tmp").exists());
+		assertFalse(new File(shard.getPath() + ".v1.bak").exists());
+	}
+
+	@Test
+	public void loadReadsSummariesAndDetailOnDemand() throws Exception
+	{
+		SlayerTrackerSaveManager saveManager = new SlayerTrackerSaveManager(state, folder.getRoot());
+		RecordMap<Assignment, AssignmentRecord> records = saveManager.load(PROFILE);
+		AssignmentRecord gargoyles = record(3);
+		gargoyles.getVariantRecords().put(Assignment.GARGOYLES.getVariants()[0], new Record(state));
+		records.put(Assignment.GARGOYLES, gargoyles);
+		saveManager.save(records, PROFILE);
+		saveManager.flush();
+
+		SlayerTrackerSaveManager reloaded = new SlayerTrackerSaveManager(state, folder.getRoot());
+		AssignmentRecord summary = reloaded.load(PROFILE).get(Assignment.GARGOYLES);
+		assertFalse(summary.isDetailLoaded());
+		assertEquals(3, summary.getKc());
+		assertTrue(summary.getVariantRecords().isEmpty());
+
+		// Changing the summary reads its detail before the shard is written over
+		summary.incrementKc();
+		RecordMap<Assignment, AssignmentRecord> changed = new RecordMap<>(state);
+		changed.put(Assignment.GARGOYLES, summary);
+		reloaded.save(changed, PROFILE);
+		reloaded.flush();
+
+		// Merged on the I/O thread into its own copy, never into the record being saved
+		assertFalse(summary.isDetailLoaded());
+		assertTrue(summary.getVariantRecords().isEmpty());
+		AssignmentRecord saved = reloaded.loadShard(Assignment.GARGOYLES, PROFILE);
+		assertEquals(4, saved.getKc());
+		assertEquals(1, saved.getVariantRecords().size());
+	}
+
+	@Test
+	public void loginLoadReadsTheCurrentTaskInFull() throws Exception
+	{
+		SlayerTrackerSaveManager saveManager = new SlayerTrackerSaveManager(state, folder.getRoot());
+		RecordMap<Assignment, AssignmentRecord> records = saveManager.load(PROFILE);
+		AssignmentRecord gargoyles = record(3);
+		gargoyles.getVariantRecords().put(Assignment.GARGOYLES.getVariants()[0], new Record(state));
+		records.put(Assignment.GARGOYLES, gargoyles);
+		records.put(Assignment.ABYSSAL_DEMONS, record(5));
+		saveManager.save(records, PROFILE);
+		saveManager.flush();
+
+		RecordMap<Assignment, AssignmentRecord> loaded = new SlayerTrackerSaveManager(state, folder.getRoot())
+			.loadAsync(PROFILE, Assignment.GARGOYLES).get();
+
+		assertTrue(loaded.get(Assignment.GARGOYLES).isDetailLoaded());
+		assertEquals(1, loaded.get(Assignment.GARGOYLES).getVariantRecords().size());
+		assertFalse(loaded.get(Assignment.ABYSSAL_DEMONS).isDetailLoaded());
+	}
+
+	@Test
+	public void detailAddsToWhatWasCreditedBeforeItWasRead() throws Exception
+	{
+		Variant variant = Assignment.GARGOYLES.getVariants()[0];
+		SlayerTrackerSaveManager saveManager = new SlayerTrackerSaveManager(state, folder.getRoot());
+		RecordMap<Assignment, AssignmentRecord> records = saveManager.load(PROFILE);
+		AssignmentRecord gargoyles = record(3);
+		gargoyles.getVariantRecords().put(variant, new Record(state));
+		gargoyles.getVariantRecords().get(variant).incrementKc();
+		records.put(Assignment.GARGOYLES, gargoyles);
+		saveManager.save(records, PROFILE);
+		saveManager.flush();
+
+		SlayerTrackerSaveManager reloaded = new SlayerTrackerSaveManager(state, folder.getRoot());
+		AssignmentRecord summary = reloaded.load(PROFILE).get(Assignment.GARGOYLES);
+		summary.getVariantRecords().put(variant, new Record(state));
+		summary.getVariantRecords().get(variant).incrementKc();
+		reloaded.mergeDetail(Assignment.GARGOYLES, summary, reloaded.loadDetail(Assignment.GARGOYLES, PROFILE).get());
+
+		assertTrue(summary.isDetailLoaded());
+		assertEquals(2, summary.getVariantRecords().get(variant).getKc());
+	}
+
+	@Test
+	public void journaledKillsSurviveWithoutSave() throws Exception
+	{
+		SlayerTrackerSaveManager saveManager = new SlayerTrackerSaveManager(state, folder.getRoot());
+		RecordMap<Assignment, AssignmentRecord> records = saveManager.load(PROFILE);
+		records.put(Assignment.GARGOYLES, record(3));
+		saveManager.save(records, PROFILE);
+		records.get(Assignment.GARGOYLES).incrementKc();
+		saveManager.journal(records, PROFILE);
+		records.get(Assignment.GARGOYLES).incrementKc();
+		saveManager.journal(records, PROFILE);
+		saveManager.flush();
+
+		RecordMap<Assignment, AssignmentRecord> loaded = new SlayerTrackerSaveManager(state, folder.getRoot()).load(PROFILE);
+
+		assertEquals(5, loaded.get(Assignment.GARGOYLES).getKc());
+	}
+
+	@Test
+	public void journalLeftBehindBySaveIsNotCountedTwice() throws Exception
+	{
+		SlayerTrackerSaveManager saveManager = new SlayerTrackerSaveManager(state, folder.getRoot());
+		RecordMap<Assignment, AssignmentRecord> records = saveManager.load(PROFILE);
+		records.put(Assignment.GARGOYLES, record(3));
+		saveManager.journal(records, PROFILE);
+		saveManager.flush();
+		File journal = new File(folder.getRoot(), PROFILE + ".journal");
+		byte[] lines = Files.readAllBytes(journal.toPath());
+
+		// As if the save crashed after writing its shards but before truncating the journal
+		saveManager.save(records, PROFILE);
+		saveManager.flush();
+		Files.write(journal.toPath(), lines);
+
+		RecordMap<Assignment, AssignmentRecord> loaded = new SlayerTrackerSaveManager(state, folder.getRoot()).load(PROFILE);
+
+		assertEquals(3, loaded.get(Assignment.GARGOYLES).getKc());
+	}
+
+	private AssignmentRecord record(int kc)
+	{
+		AssignmentRecord record = new AssignmentRecord(state);
+		for (int i = 0; i < kc; i++)
+		{
+			record.incrementKc();
+		}
+		return record;
+	}
+
+	private File shard(Assignment assignment)
+	{
+		return new File(new File(folder.getRoot(), PROFILE + ".shards"), assignment.name() + ".shard");
+	}
+}
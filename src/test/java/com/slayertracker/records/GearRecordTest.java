@@ -0,0 +1,62 @@
+package com.slayertracker.records;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class GearRecordTest
+{
+	@Test
+	public void fingerprintDependsOnEachSlot()
+	{
+		int[] setup = {1163, -1, 4151, 1127};
+		assertEquals(GearRecord.fingerprint(setup), GearRecord.fingerprint(setup.clone()));
+
+		// The same items in other slots are another setup
+		assertNotEquals(GearRecord.fingerprint(setup), GearRecord.fingerprint(new int[]{-1, 1163, 4151, 1127}));
+		assertNotEquals(GearRecord.fingerprint(setup), GearRecord.fingerprint(new int[]{1163, -1, 4151}));
+		assertNotEquals(GearRecord.fingerprint(new int[]{-1}), GearRecord.fingerprint(new int[]{0}));
+	}
+
+	@Test
+	public void randomSetupsDoNotCollide()
+	{
+		Random random = new Random(3);
+		Set<Long> fingerprints = new HashSet<>();
+		int setups = 100_000;
+		for (int i = 0; i < setups; i++)
+		{
+			int[] setup = new int[14];
+			for (int slot = 0; slot < setup.length; slot++)
+			{
+				setup[slot] = random.nextInt(30_000) - 1;
+			}
+			fingerprints.add(GearRecord.fingerprint(setup));
+		}
+		assertEquals(setups, fingerprints.size());
+	}
+
+	@Test
+	public void equipmentIsCopiedAndSaved() throws Exception
+	{
+		int[] worn = {1163, -1, 4151};
+		GearRecord record = new GearRecord(worn, evt -> {});
+		worn[0] = 0;
+		record.incrementKc();
+		StringWriter json = new StringWriter();
+		record.writeJson(new JsonWriter(json));
+
+		GearRecord read = new GearRecord(evt -> {});
+		read.readJson(new JsonReader(new StringReader(json.toString())), evt -> {});
+		assertArrayEquals(new int[]{1163, -1, 4151}, read.getEquipment());
+		assertEquals(1, read.getKc());
+	}
+}
@@ -0,0 +1,70 @@
+package com.slayertracker.records;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class IntLongMapTest
+{
+	@Test
+	public void addAccumulatesAndMissingKeysReadZero()
+	{
+		IntLongMap map = new IntLongMap();
+		map.add(4151, 1);
+		map.add(4151, 2);
+		map.add(995, 10_000);
+
+		assertEquals(3, map.get(4151));
+		assertEquals(10_000, map.get(995));
+		assertEquals(0, map.get(11286));
+		assertFalse(map.containsKey(11286));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	public void matchesHashMapAcrossRehashes()
+	{
+		IntLongMap map = new IntLongMap();
+		Map<Integer, Long> reference = new HashMap<>();
+		Random random = new Random(26);
+
+		for (int i = 0; i < 50_000; i++)
+		{
+			int key = random.nextInt(4_000);
+			long delta = random.nextInt(1_000);
+			map.add(key, delta);
+			reference.merge(key, delta, Long::sum);
+		}
+
+		assertEquals(reference.size(), map.size());
+		reference.forEach((key, value) -> assertEquals((long) value, map.get(key)));
+	}
+
+	@Test
+	public void keysAreSortedAndCopiesAreEqual()
+	{
+		IntLongMap map = new IntLongMap();
+		map.put(30, 3);
+		map.put(10, 1);
+		map.put(20, 2);
+
+		assertArrayEquals(new int[]{10, 20, 30}, map.keys());
+
+		IntLongMap copy = new IntLongMap(map);
+		assertEquals(map, copy);
+		copy.add(10, 1);
+		assertFalse(map.equals(copy));
+		assertTrue(map.containsKey(10));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsReservedKey()
+	{
+		new IntLongMap().add(IntLongMap.FREE, 1);
+	}
+}
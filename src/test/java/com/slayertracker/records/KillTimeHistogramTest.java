@@ -0,0 +1,45 @@
+package com.slayertracker.records;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class KillTimeHistogramTest
+{
+	@Test
+	public void bucketsAreContiguousAndCoverFullRange()
+	{
+		int previous = KillTimeHistogram.bucketOf(1);
+		for (int ticks = 2; ticks <= KillTimeHistogram.MAX_TICKS; ticks++)
+		{
+			int bucket = KillTimeHistogram.bucketOf(ticks);
+			assertTrue(bucket == previous || bucket == previous + 1);
+			if (bucket != previous)
+			{
+				assertEquals(ticks, KillTimeHistogram.lowerBoundOf(bucket));
+			}
+			previous = bucket;
+		}
+		assertEquals(KillTimeHistogram.BUCKETS - 1, previous);
+	}
+
+	@Test
+	public void percentilesAreWithinBucketError()
+	{
+		KillTimeHistogram histogram = new KillTimeHistogram();
+		for (int ticks = 1; ticks <= 1000; ticks++)
+		{
+			histogram.add(ticks);
+		}
+
+		assertEquals(1000, histogram.getTotal());
+		assertEquals(500, histogram.getPercentileTicks(0.5), 500 * 0.25);
+		assertEquals(900, histogram.getPercentileTicks(0.9), 900 * 0.25);
+	}
+
+	@Test
+	public void emptyHistogramHasNoPercentiles()
+	{
+		assertEquals(-1, new KillTimeHistogram().getPercentileTicks(0.5));
+	}
+}
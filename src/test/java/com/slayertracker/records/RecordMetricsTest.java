@@ -0,0 +1,85 @@
+package com.slayertracker.records;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import com.slayertracker.SlayerTrackerConfig.TimeBasis;
+import org.junit.Test;
+
+public class RecordMetricsTest
+{
+	@Test
+	public void ratesFollowTheTimeBasis()
+	{
+		Record record = new Record();
+		for (int i = 0; i < 3; i++)
+		{
+			record.incrementKc();
+		}
+		record.addToXp(300);
+		record.addToGe(3000);
+		record.addToSupplyCost(600);
+		record.addToDamage(900);
+		// Half an hour in combat, an hour on task
+		record.addToTime(1_800_000, 3_600_000, 0);
+
+		RecordMetrics combat = record.getMetrics(TimeBasis.IN_COMBAT);
+		assertEquals(0.5, combat.getHours(), 1e-6);
+		assertEquals(6, combat.getKcPerHour(), 1e-6);
+		assertEquals(600, combat.getXpPerHour(), 1e-6);
+		assertEquals(4800, combat.getNetGePerHour(), 1e-3);
+		assertEquals(0.5, combat.getDps(), 1e-9);
+
+		RecordMetrics task = record.getMetrics(TimeBasis.ON_TASK);
+		assertNotSame(combat, task);
+		assertEquals(3, task.getKcPerHour(), 1e-6);
+		// DPS is over combat time whatever the basis
+		assertEquals(0.5, task.getDps(), 1e-9);
+		assertSame(task, record.getMetrics(TimeBasis.ON_TASK));
+	}
+
+	@Test
+	public void withoutTimeRatesAreNotFiniteAndHaveNoIntervals()
+	{
+		Record record = new Record();
+		record.incrementKc();
+		record.incrementKc();
+		record.addKillXp(100);
+		record.addKillXp(200);
+
+		RecordMetrics metrics = record.getMetrics(TimeBasis.ACTIVE);
+		assertEquals(0, metrics.getHours(), 0);
+		assertTrue(Double.isInfinite(metrics.getKcPerHour()));
+		assertTrue(Double.isNaN(metrics.getXpPerHourLow()));
+		assertTrue(Double.isNaN(metrics.getXpPerHourHigh()));
+		assertTrue(Double.isNaN(metrics.getDps()));
+
+		// Nothing over no time
+		assertTrue(Double.isNaN(new Record().getMetrics(TimeBasis.ACTIVE).getKcPerHour()));
+	}
+
+	@Test
+	public void intervalsScaleThePerKillConfidenceByTheKillRate()
+	{
+		Record record = new Record();
+		for (int xp = 100; xp <= 300; xp += 100)
+		{
+			record.incrementKc();
+			record.addKillXp(xp);
+		}
+		record.addToTime(3_600_000, 0, 0);
+
+		RecordMetrics metrics = record.getMetrics(TimeBasis.IN_COMBAT);
+		double halfWidth = record.getKillXp().getConfidenceHalfWidth();
+		assertEquals(3 * (200 - halfWidth), metrics.getXpPerHourLow(), 1e-6);
+		assertEquals(3 * (200 + halfWidth), metrics.getXpPerHourHigh(), 1e-6);
+
+		// Too few kills for an interval
+		Record single = new Record();
+		single.incrementKc();
+		single.addKillXp(100);
+		single.addToTime(3_600_000, 0, 0);
+		assertTrue(Double.isNaN(single.getMetrics(TimeBasis.IN_COMBAT).getXpPerHourLow()));
+	}
+}
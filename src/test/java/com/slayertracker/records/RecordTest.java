@@ -0,0 +1,298 @@
+package com.slayertracker.records;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.slayertracker.SlayerTrackerConfig;
+import com.slayertracker.groups.Assignment;
+import com.slayertracker.groups.Variant;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import org.junit.Test;
+
+public class RecordTest
+{
+	@Test
+	public void saturatingAddBehavesLikeAddInRange()
+	{
+		assertEquals(5L, Record.saturatingAdd(2L, 3L));
+		assertEquals(-1L, Record.saturatingAdd(2L, -3L));
+		assertEquals(3_000_000_000L, Record.saturatingAdd(Integer.MAX_VALUE, 852_516_353L));
+	}
+
+	@Test
+	public void saturatingAddClampsInsteadOfWrapping()
+	{
+		assertEquals(Long.MAX_VALUE, Record.saturatingAdd(Long.MAX_VALUE, 1L));
+		assertEquals(Long.MAX_VALUE, Record.saturatingAdd(Long.MAX_VALUE - 5, Long.MAX_VALUE));
+		assertEquals(Long.MIN_VALUE, Record.saturatingAdd(Long.MIN_VALUE, -1L));
+		assertEquals(Long.MIN_VALUE, Record.saturatingAdd(Long.MIN_VALUE, Long.MIN_VALUE));
+	}
+
+	@Test
+	public void saturatingMultiplyClampsInsteadOfWrapping()
+	{
+		assertEquals(6_000_000_000L, Record.saturatingMultiply(3_000_000L, 2_000L));
+		assertEquals(-6L, Record.saturatingMultiply(-2L, 3L));
+		assertEquals(Long.MAX_VALUE, Record.saturatingMultiply(Long.MAX_VALUE / 2 + 1, 2L));
+		assertEquals(Long.MAX_VALUE, Record.saturatingMultiply(-3_000_000_000L, -4_000_000_000L));
+		assertEquals(Long.MIN_VALUE, Record.saturatingMultiply(3_000_000_000L, -4_000_000_000L));
+		assertEquals(Long.MIN_VALUE, Record.saturatingMultiply(Long.MIN_VALUE / 2, 2L));
+	}
+
+	@Test
+	public void lootValueSaturates()
+	{
+		Record record = new Record();
+		record.getLoot().add(1, Integer.MAX_VALUE);
+		record.getLoot().add(2, 10);
+		assertEquals(20L * Integer.MAX_VALUE + 1_000L, record.getLootValue(itemId -> itemId == 1 ? 20L : 100L));
+		assertEquals(Long.MAX_VALUE, record.getLootValue(itemId -> Long.MAX_VALUE / 4));
+	}
+
+	@Test
+	public void addsToCountersWithoutOverflow()
+	{
+		Record record = new Record();
+		record.addToGe(Integer.MAX_VALUE);
+		record.addToGe(Integer.MAX_VALUE);
+		assertEquals(2L * Integer.MAX_VALUE, record.getGe());
+	}
+
+	@Test
+	public void assignmentRecordMergeCombinesNestedRecords()
+	{
+		Variant variant = Assignment.GARGOYLES.getVariants()[0];
+		AssignmentRecord loaded = new AssignmentRecord(evt -> {});
+		loaded.getVariantRecords().put(variant, new Record());
+		loaded.getVariantRecords().get(variant).incrementKc();
+		loaded.getRegions().addKill(100);
+		AssignmentRecord pending = new AssignmentRecord(evt -> {});
+		pending.incrementKc();
+		pending.getVariantRecords().put(variant, new Record());
+		pending.getVariantRecords().get(variant).incrementKc();
+		pending.getRegions().addKill(100);
+		pending.getRegions().addKill(200);
+
+		loaded.merge(pending);
+
+		assertEquals(1, loaded.getKc());
+		assertEquals(2, loaded.getVariantRecords().get(variant).getKc());
+		assertEquals(2L, loaded.getRegions().getKc(100));
+		assertEquals(1L, loaded.getRegions().getKc(200));
+	}
+
+	@Test
+	public void assignmentRecordCopyIsDetached()
+	{
+		Variant variant = Assignment.GARGOYLES.getVariants()[0];
+		AssignmentRecord record = new AssignmentRecord(evt -> {});
+		record.incrementKc();
+		record.getVariantRecords().put(variant, new Record());
+		record.getVariantRecords().get(variant).incrementKc();
+		record.getRegions().addKill(100);
+
+		AssignmentRecord copy = record.copy();
+		record.incrementKc();
+		record.getVariantRecords().get(variant).incrementKc();
+		record.getRegions().addKill(100);
+
+		assertEquals(1, copy.getKc());
+		assertEquals(1, copy.getVariantRecords().get(variant).getKc());
+		assertEquals(1L, copy.getRegions().getKc(100));
+	}
+
+	@Test
+	public void idleTicksAreNotJournaled()
+	{
+		Record record = new Record();
+		record.addToTime(0, 0, 0);
+
+		assertNull(record.takeUnjournaled());
+	}
+
+	@Test
+	public void journaledChangesLeaveOutUnchangedFields() throws Exception
+	{
+		AssignmentRecord record = new AssignmentRecord(evt -> {});
+		record.takeUnjournaled();
+		record.incrementKc();
+
+		StringWriter json = new StringWriter();
+		record.takeUnjournaled().writeJson(new JsonWriter(json));
+
+		JsonObject added = JsonParser.parseString(json.toString()).getAsJsonObject().getAsJsonObject("added");
+		assertEquals(1, added.get("kc").getAsInt());
+		assertFalse(added.has("loot"));
+		assertFalse(added.has("killTime"));
+		assertFalse(added.has("variantRecords"));
+	}
+
+	@Test
+	public void metricsAreKeptUntilAValueChanges()
+	{
+		Record record = new Record();
+		record.incrementKc();
+		RecordMetrics metrics = record.getMetrics(SlayerTrackerConfig.TimeBasis.ACTIVE);
+
+		record.addToTime(0, 0, 0);
+		record.addToXp(0);
+		record.addToLoot(List.of());
+		assertSame(metrics, record.getMetrics(SlayerTrackerConfig.TimeBasis.ACTIVE));
+
+		record.addToTime(600, 600, 600);
+		assertNotSame(metrics, record.getMetrics(SlayerTrackerConfig.TimeBasis.ACTIVE));
+	}
+
+	@Test
+	public void changesToOwnedRecordsMarkTheAssignmentDirtyUntilSaved()
+	{
+		Variant variant = Assignment.GARGOYLES.getVariants()[0];
+		AssignmentRecord record = new AssignmentRecord(evt -> {});
+		record.getVariantRecords().put(variant, new Record());
+		record.markSaved();
+		assertFalse(record.isDirty());
+
+		record.getVariantRecords().get(variant).incrementKc();
+		assertTrue(record.isDirty());
+		record.markSaved();
+
+		record.getRegions().addKill(100);
+		assertTrue(record.isDirty());
+		record.markSaved();
+
+		record.removeVariantRecord(variant);
+		assertTrue(record.isDirty());
+	}
+
+	@Test
+	public void mergingDetailIsNotAChange()
+	{
+		Variant variant = Assignment.GARGOYLES.getVariants()[0];
+		AssignmentRecord detail = new AssignmentRecord(evt -> {});
+		detail.getVariantRecords().put(variant, new Record());
+		detail.getVariantRecords().get(variant).incrementKc();
+		AssignmentRecord summary = new AssignmentRecord(evt -> {});
+		summary.markSaved();
+
+		summary.mergeDetail(detail);
+
+		assertFalse(summary.isDirty());
+		assertEquals(1, summary.getVariantRecords().get(variant).getKc());
+	}
+
+	@Test
+	public void rowsAreReadWithTheDetailAndKeepTheirOrder() throws Exception
+	{
+		AssignmentRecord saved = new AssignmentRecord(evt -> {});
+		saved.getSessionRows().close(ResultRowList.open(saved, 1, 0), saved, 2);
+		StringWriter json = new StringWriter();
+		saved.writeJson(new JsonWriter(json));
+
+		AssignmentRecord summary = new AssignmentRecord(evt -> {});
+		summary.readSummaryJson(new JsonReader(new StringReader(json.toString())), evt -> {});
+		assertEquals(0, summary.getSessionRows().size());
+		// A session closed before the detail was read
+		summary.getSessionRows().close(ResultRowList.open(summary, 3, 0), summary, 4);
+		summary.takeUnjournaled();
+
+		AssignmentRecord detail = new AssignmentRecord(evt -> {});
+		detail.readDetailJson(new JsonReader(new StringReader(json.toString())), evt -> {});
+		summary.mergeDetail(detail);
+
+		assertEquals(2, summary.getSessionRows().size());
+		assertEquals(1, summary.getSessionRows().get(0, ResultRowList.START_MILLIS));
+		assertEquals(3, summary.getSessionRows().get(1, ResultRowList.START_MILLIS));
+		// The saved row is not journaled again
+		assertNull(summary.takeUnjournaled());
+	}
+
+	@Test
+	public void killSamplesAreJournaledAndMerged()
+	{
+		Record record = new Record();
+		record.addKillDuration(10);
+		record.addKillXp(120);
+		record.takeUnjournaled();
+		record.addKillDuration(20);
+		record.addKillLoot(500);
+
+		assertEquals(9.0, record.getKillTime().getMean(), 1e-9);
+		assertEquals(2, record.getKillTimeHistogram().getTotal());
+		Record changes = record.takeUnjournaled();
+		assertEquals(1, changes.getKillTime().getCount());
+		assertEquals(12.0, changes.getKillTime().getMean(), 1e-9);
+		assertEquals(0, changes.getKillXp().getCount());
+
+		Record merged = new Record();
+		merged.merge(record);
+		merged.merge(record);
+		assertEquals(4, merged.getKillTime().getCount());
+		assertEquals(9.0, merged.getKillTime().getMean(), 1e-9);
+		assertEquals(12.0, merged.getKillTime().getVariance(), 1e-9);
+	}
+
+	@Test
+	public void aggregatesAreNotJournaled()
+	{
+		Record credited = new Record();
+		credited.incrementKc();
+		Record aggregate = Record.aggregate();
+
+		aggregate.merge(credited);
+		aggregate.incrementKc();
+		aggregate.addToTime(600, 600, 600);
+
+		assertEquals(2, aggregate.getKc());
+		assertNull(aggregate.takeUnjournaled());
+	}
+
+	@Test
+	public void customRecordIdsAreNeverReused() throws Exception
+	{
+		AssignmentRecord saved = new AssignmentRecord(evt -> {});
+		CustomRecord first = new CustomRecord(evt -> {});
+		CustomRecord second = new CustomRecord(evt -> {});
+		saved.getCustomRecords().add(first);
+		saved.getCustomRecords().add(second);
+		saved.removeCustomRecord(second);
+		CustomRecord third = new CustomRecord(evt -> {});
+		saved.getCustomRecords().add(third);
+		assertEquals(1, first.getId());
+		assertEquals(3, third.getId());
+
+		saved.removeCustomRecord(third);
+		StringWriter json = new StringWriter();
+		saved.writeJson(new JsonWriter(json));
+
+		// Records added before the detail is read, or brought in by a merge, take fresh ids
+		AssignmentRecord summary = new AssignmentRecord(evt -> {});
+		summary.readSummaryJson(new JsonReader(new StringReader(json.toString())), evt -> {});
+		CustomRecord fourth = new CustomRecord(evt -> {});
+		summary.getCustomRecords().add(fourth);
+		assertEquals(4, fourth.getId());
+
+		AssignmentRecord pending = new AssignmentRecord(evt -> {});
+		CustomRecord merged = new CustomRecord(evt -> {});
+		pending.getCustomRecords().add(merged);
+		assertEquals(1, merged.getId());
+		summary.merge(pending);
+		assertEquals(5, merged.getId());
+
+		AssignmentRecord detail = new AssignmentRecord(evt -> {});
+		detail.readDetailJson(new JsonReader(new StringReader(json.toString())), evt -> {});
+		summary.mergeDetail(detail);
+		assertEquals(3, summary.getCustomRecords().size());
+		CustomRecord sixth = new CustomRecord(evt -> {});
+		summary.copySummary().getCustomRecords().add(sixth);
+		assertEquals(6, sixth.getId());
+	}
+}
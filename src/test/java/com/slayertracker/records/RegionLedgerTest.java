@@ -0,0 +1,85 @@
+package com.slayertracker.records;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.Test;
+
+public class RegionLedgerTest
+{
+	@Test
+	public void regionsPastTheLimitArePooled()
+	{
+		RegionLedger ledger = new RegionLedger();
+		for (int regionId = 0; regionId < RegionLedger.MAX_REGIONS + 10; regionId++)
+		{
+			ledger.addKill(regionId);
+			ledger.addMillis(regionId, 600);
+		}
+		// A region already kept still gets its own totals
+		ledger.addXp(3, 50);
+
+		assertEquals(RegionLedger.MAX_REGIONS, ledger.getRegionIds().length);
+		assertEquals(1, ledger.getKc(0));
+		assertEquals(50, ledger.getXp(3));
+		assertEquals(11, ledger.getKc(RegionLedger.OTHER_REGION));
+		assertEquals(11 * 600, ledger.getMillis(RegionLedger.OTHER_REGION));
+		assertEquals(0, ledger.getKc(RegionLedger.MAX_REGIONS + 5));
+	}
+
+	@Test
+	public void onlyNewTotalsAreJournaled()
+	{
+		RegionLedger ledger = new RegionLedger();
+		ledger.addXp(1, 0);
+		ledger.addMillis(1, 0);
+		assertFalse(ledger.isDirty());
+		assertNull(ledger.takeUnjournaled());
+
+		RegionLedger saved = new RegionLedger();
+		saved.addKill(1);
+		ledger.add(saved);
+		assertNull(ledger.takeUnjournaled());
+
+		ledger.addKill(1);
+		ledger.addGe(2, 1000);
+		ledger.addDamage(2, 40);
+		assertTrue(ledger.isDirty());
+		RegionLedger changes = ledger.takeUnjournaled();
+		assertEquals(1, changes.getKc(1));
+		assertEquals(1000, changes.getGe(2));
+		assertEquals(40, changes.getDamage(2));
+		assertEquals(2, ledger.getKc(1));
+		assertNull(ledger.takeUnjournaled());
+
+		ledger.markSaved();
+		assertFalse(ledger.isDirty());
+	}
+
+	@Test
+	public void readsBackWhatItWrites() throws Exception
+	{
+		RegionLedger ledger = new RegionLedger();
+		ledger.addMillis(12850, 60_000);
+		ledger.addKill(12850);
+		ledger.addXp(12850, 300);
+		ledger.addGe(12850, 2_000);
+		ledger.addDamage(12851, 75);
+		StringWriter json = new StringWriter();
+		ledger.writeJson(new JsonWriter(json));
+
+		RegionLedger read = new RegionLedger();
+		read.readJson(new JsonReader(new StringReader(json.toString())));
+		assertEquals(2, read.getRegionIds().length);
+		assertEquals(60_000, read.getMillis(12850));
+		assertEquals(1, read.getKc(12850));
+		assertEquals(300, read.getXp(12850));
+		assertEquals(2_000, read.getGe(12850));
+		assertEquals(75, read.getDamage(12851));
+	}
+}
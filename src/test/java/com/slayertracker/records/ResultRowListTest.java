@@ -0,0 +1,93 @@
+package com.slayertracker.records;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.Test;
+
+public class ResultRowListTest
+{
+	@Test
+	public void closedRowHoldsTheChangeSinceItOpened()
+	{
+		Record record = new Record();
+		record.incrementKc();
+		record.addToXp(100);
+		long[] open = ResultRowList.open(record, 1000, 25);
+		assertFalse(ResultRowList.hasChanged(open, record));
+
+		record.incrementKc();
+		record.addToXp(50);
+		record.addToGe(10);
+		record.addToHa(4);
+		record.addToTime(600, 600, 600);
+		assertTrue(ResultRowList.hasChanged(open, record));
+
+		ResultRowList rows = new ResultRowList();
+		rows.close(open, record, 2000);
+		assertEquals(1, rows.size());
+		assertEquals(1000, rows.get(0, ResultRowList.START_MILLIS));
+		assertEquals(2000, rows.get(0, ResultRowList.END_MILLIS));
+		assertEquals(25, rows.get(0, ResultRowList.ASSIGNED));
+		assertEquals(1, rows.get(0, ResultRowList.KC));
+		assertEquals(50, rows.get(0, ResultRowList.XP));
+		assertEquals(10, rows.get(0, ResultRowList.GE));
+		assertEquals(4, rows.get(0, ResultRowList.HA));
+		assertEquals(600, rows.get(0, ResultRowList.COMBAT_MILLIS));
+	}
+
+	@Test
+	public void onlyAppendedRowsAreJournaled()
+	{
+		Record record = new Record();
+		ResultRowList rows = new ResultRowList();
+		rows.close(ResultRowList.open(record, 1, 0), record, 2);
+		assertTrue(rows.isDirty());
+		assertEquals(1, rows.takeUnjournaled().size());
+		assertNull(rows.takeUnjournaled());
+
+		ResultRowList saved = new ResultRowList();
+		saved.close(ResultRowList.open(record, 0, 0), record, 1);
+		rows.addAllBefore(saved);
+		rows.markSaved();
+		assertFalse(rows.isDirty());
+		assertEquals(0, rows.get(0, ResultRowList.START_MILLIS));
+		assertNull(rows.takeUnjournaled());
+
+		rows.close(ResultRowList.open(record, 3, 0), record, 4);
+		ResultRowList changes = rows.takeUnjournaled();
+		assertEquals(1, changes.size());
+		assertEquals(3, changes.get(0, ResultRowList.START_MILLIS));
+	}
+
+	@Test
+	public void readsBackWhatItWrites() throws Exception
+	{
+		Record record = new Record();
+		ResultRowList rows = new ResultRowList();
+		for (int i = 0; i < 3; i++)
+		{
+			long[] open = ResultRowList.open(record, i * 10, i);
+			record.incrementKc();
+			rows.close(open, record, i * 10 + 5);
+		}
+		StringWriter json = new StringWriter();
+		rows.writeJson(new JsonWriter(json));
+
+		ResultRowList read = new ResultRowList();
+		read.readJson(new JsonReader(new StringReader(json.toString())));
+		assertEquals(3, read.size());
+		for (int i = 0; i < 3; i++)
+		{
+			assertEquals(i * 10, read.get(i, ResultRowList.START_MILLIS));
+			assertEquals(i * 10 + 5, read.get(i, ResultRowList.END_MILLIS));
+			assertEquals(i, read.get(i, ResultRowList.ASSIGNED));
+			assertEquals(1, read.get(i, ResultRowList.KC));
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.slayertracker.records;
+
+import static org.junit.Assert.assertEquals;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+import org.junit.Test;
+
+public class RunningStatsTest
+{
+	@Test
+	public void matchesTwoPassMeanAndVariance()
+	{
+		Random random = new Random(7);
+		double[] samples = new double[1000];
+		RunningStats stats = new RunningStats();
+		for (int i = 0; i < samples.length; i++)
+		{
+			// Offset so a naive sum of squares would lose precision
+			samples[i] = 1e6 + random.nextGaussian() * 30;
+			stats.add(samples[i]);
+		}
+
+		double mean = 0;
+		for (double sample : samples)
+		{
+			mean += sample;
+		}
+		mean /= samples.length;
+		double squares = 0;
+		for (double sample : samples)
+		{
+			squares += (sample - mean) * (sample - mean);
+		}
+
+		assertEquals(samples.length, stats.getCount());
+		assertEquals(mean, stats.getMean(), 1e-6);
+		assertEquals(squares / (samples.length - 1), stats.getVariance(), 1e-6);
+		assertEquals(1.959964 * Math.sqrt(stats.getVariance() / samples.length), stats.getConfidenceHalfWidth(), 1e-9);
+	}
+
+	@Test
+	public void mergedHalvesMatchOneAccumulator()
+	{
+		RunningStats all = new RunningStats();
+		RunningStats first = new RunningStats();
+		RunningStats second = new RunningStats();
+		for (int i = 0; i < 100; i++)
+		{
+			double sample = i * i % 37;
+			all.add(sample);
+			(i < 30 ? first : second).add(sample);
+		}
+
+		first.merge(second);
+		assertEquals(all.getCount(), first.getCount());
+		assertEquals(all.getMean(), first.getMean(), 1e-9);
+		assertEquals(all.getVariance(), first.getVariance(), 1e-9);
+
+		// Merging into or from an empty accumulator copies the other
+		RunningStats empty = new RunningStats();
+		empty.merge(all);
+		assertEquals(all.getVariance(), empty.getVariance(), 0);
+		all.merge(new RunningStats());
+		assertEquals(100, all.getCount());
+	}
+
+	@Test
+	public void tooFewSamplesHaveNoSpread()
+	{
+		RunningStats stats = new RunningStats();
+		assertEquals(0.0, stats.getMean(), 0);
+		stats.add(12);
+		assertEquals(12.0, stats.getMean(), 0);
+		assertEquals(0.0, stats.getVariance(), 0);
+		assertEquals(0.0, stats.getConfidenceHalfWidth(), 0);
+	}
+
+	@Test
+	public void readsBackWhatItWrites() throws Exception
+	{
+		RunningStats stats = new RunningStats();
+		stats.add(3);
+		stats.add(5);
+		stats.add(10);
+		StringWriter json = new StringWriter();
+		stats.writeJson(new JsonWriter(json));
+
+		RunningStats read = new RunningStats();
+		read.readJson(new JsonReader(new StringReader(json.toString())));
+		assertEquals(3, read.getCount());
+		assertEquals(stats.getMean(), read.getMean(), 0);
+		assertEquals(stats.getVariance(), read.getVariance(), 0);
+	}
+}
@@ -0,0 +1,80 @@
+package com.slayertracker.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import com.slayertracker.records.IntLongMap;
+import net.runelite.api.Item;
+import org.junit.Test;
+
+public class ContainerSnapshotTest
+{
+	private static final int SHARK = 385;
+	private static final int PRAYER_POTION_4 = 2434;
+	private static final int PRAYER_POTION_3 = 139;
+	private static final int COINS = 995;
+
+	@Test
+	public void firstContentsOnlySeed()
+	{
+		TrackerState.ContainerSnapshot snapshot = new TrackerState.ContainerSnapshot();
+		IntLongMap delta = new IntLongMap();
+
+		snapshot.diffInto(items(SHARK, 1, SHARK, 1), delta);
+
+		assertTrue(delta.isEmpty());
+	}
+
+	@Test
+	public void changeIsNettedPerItemAcrossSlots()
+	{
+		TrackerState.ContainerSnapshot snapshot = new TrackerState.ContainerSnapshot();
+		IntLongMap delta = new IntLongMap();
+		snapshot.diffInto(items(SHARK, 1, SHARK, 1, PRAYER_POTION_4, 1, -1, 0), delta);
+
+		// A shark eaten, a dose drunk, coins picked up, and the other shark moved to another slot
+		snapshot.diffInto(items(-1, 0, PRAYER_POTION_3, 1, COINS, 100, SHARK, 1), delta);
+
+		assertEquals(-1, delta.get(SHARK));
+		assertEquals(-1, delta.get(PRAYER_POTION_4));
+		assertEquals(1, delta.get(PRAYER_POTION_3));
+		assertEquals(100, delta.get(COINS));
+	}
+
+	@Test
+	public void changesAddUpUntilTaken()
+	{
+		TrackerState.ContainerSnapshot snapshot = new TrackerState.ContainerSnapshot();
+		IntLongMap delta = new IntLongMap();
+		snapshot.diffInto(items(COINS, 1000), delta);
+
+		snapshot.diffInto(items(COINS, 900), delta);
+		// Fewer slots than before
+		snapshot.diffInto(new Item[0], delta);
+
+		assertEquals(-1000, delta.get(COINS));
+	}
+
+	@Test
+	public void clearingSeedsAgain()
+	{
+		TrackerState.ContainerSnapshot snapshot = new TrackerState.ContainerSnapshot();
+		IntLongMap delta = new IntLongMap();
+		snapshot.diffInto(items(SHARK, 5), delta);
+
+		snapshot.clear();
+		snapshot.diffInto(items(COINS, 10), delta);
+
+		assertTrue(delta.isEmpty());
+	}
+
+	// Item id and quantity pairs, one slot each
+	private static Item[] items(int... idsAndQuantities)
+	{
+		Item[] items = new Item[idsAndQuantities.length / 2];
+		for (int i = 0; i < items.length; i++)
+		{
+			items[i] = new Item(idsAndQuantities[2 * i], idsAndQuantities[2 * i + 1]);
+		}
+		return items;
+	}
+}
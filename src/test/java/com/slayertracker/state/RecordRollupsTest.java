@@ -0,0 +1,52 @@
+package com.slayertracker.state;
+
+import static org.junit.Assert.assertEquals;
+import com.slayertracker.groups.Assignment;
+import com.slayertracker.records.AssignmentRecord;
+import com.slayertracker.records.Record;
+import java.util.EnumMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class RecordRollupsTest
+{
+	@Test
+	public void rebuildSplitsBossesFromTasks()
+	{
+		Map<Assignment, AssignmentRecord> records = new EnumMap<>(Assignment.class);
+		records.put(Assignment.GARGOYLES, record(3));
+		records.put(Assignment.CERBERUS, record(2));
+		RecordRollups rollups = new RecordRollups();
+
+		rollups.rebuild(records);
+
+		assertEquals(5, rollups.getGlobal().getKc());
+		assertEquals(2, rollups.getBosses().getKc());
+		assertEquals(3, rollups.getTasks().getKc());
+	}
+
+	@Test
+	public void creditAfterRebuildAddsToTheTotals()
+	{
+		Map<Assignment, AssignmentRecord> records = new EnumMap<>(Assignment.class);
+		records.put(Assignment.GARGOYLES, record(3));
+		RecordRollups rollups = new RecordRollups();
+		rollups.rebuild(records);
+
+		rollups.forEachRollup(Assignment.GARGOYLES, Record::incrementKc);
+
+		assertEquals(4, rollups.getGlobal().getKc());
+		assertEquals(4, rollups.getTasks().getKc());
+		assertEquals(0, rollups.getBosses().getKc());
+	}
+
+	private static AssignmentRecord record(int kc)
+	{
+		AssignmentRecord record = new AssignmentRecord(evt -> {});
+		for (int i = 0; i < kc; i++)
+		{
+			record.incrementKc();
+		}
+		return record;
+	}
+}
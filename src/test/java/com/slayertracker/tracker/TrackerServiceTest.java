@@ -0,0 +1,273 @@
+package com.slayertracker.tracker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import com.slayertracker.RecordingModeController;
+import com.slayertracker.groups.Assignment;
+import com.slayertracker.persistence.RecordRepository;
+import com.slayertracker.records.AssignmentRecord;
+import com.slayertracker.records.Record;
+import com.slayertracker.records.RecordMap;
+import com.slayertracker.records.ResultRowList;
+import com.slayertracker.state.TrackerState;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import net.runelite.api.Client;
+import net.runelite.api.NPC;
+import net.runelite.api.Player;
+import net.runelite.api.Skill;
+import net.runelite.api.events.InteractingChanged;
+import net.runelite.api.gameval.ItemID;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.events.NpcLootReceived;
+import net.runelite.client.game.ItemStack;
+import net.runelite.client.plugins.slayer.SlayerPluginService;
+import org.junit.Test;
+
+public class TrackerServiceTest
+{
+	private static final int TASK_AMOUNT = 25;
+
+	private final TrackerState state = new TrackerState();
+	private final Player player = stub(Player.class, null);
+	private final NPC gargoyle = stub(NPC.class, "Gargoyle");
+	private final Client client = stub(Client.class, null);
+
+	@Test
+	public void firstKillOfTaskLandsInTaskRow()
+	{
+		SlayerPluginService slayerPluginService = stub(SlayerPluginService.class, null);
+		TrackerService trackerService = new TrackerService(state, null, null, client, null, null, null, null, slayerPluginService);
+		trackerService.setRecordingModeController(stub(RecordingModeController.class, null));
+		state.setCurrentAssignment(Assignment.GARGOYLES);
+		state.setRemainingAmount(TASK_AMOUNT);
+
+		trackerService.handleInteractingChanged(new InteractingChanged(player, gargoyle));
+		AssignmentRecord assignmentRecord = state.getCurrentAssignmentRecord();
+		assertNotNull(assignmentRecord.getOpenTaskRow());
+
+		// The count varp only changes once this kill is credited
+		assignmentRecord.incrementKc();
+		assignmentRecord.getTaskRows().close(assignmentRecord.getOpenTaskRow(), assignmentRecord, System.currentTimeMillis());
+
+		assertEquals(1, assignmentRecord.getTaskRows().get(0, ResultRowList.KC));
+		assertEquals(TASK_AMOUNT, assignmentRecord.getTaskRows().get(0, ResultRowList.ASSIGNED));
+	}
+
+	@Test
+	public void killsCreditedWhileLoadingAreMergedIn()
+	{
+		TrackerService trackerService = new TrackerService(state, stub(RecordRepository.class, null), null, client,
+			immediateClientThread(), null, null, null, stub(SlayerPluginService.class, null));
+		CompletableFuture<RecordMap<Assignment, AssignmentRecord>> load = new CompletableFuture<>();
+		trackerService.startRecordsLoad(load);
+		creditKill(Assignment.GARGOYLES);
+
+		load.complete(savedRecords(Assignment.GARGOYLES, 3));
+
+		assertEquals(4, state.getAssignmentRecords().get(Assignment.GARGOYLES).getKc());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void logoutDuringLoadSavesOnceItCompletes() throws Exception
+	{
+		List<RecordMap<Assignment, AssignmentRecord>> saves = new ArrayList<>();
+		RecordRepository recordRepository = (RecordRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+			new Class<?>[]{RecordRepository.class}, (proxy, method, args) -> {
+				if (method.getName().equals("save"))
+				{
+					saves.add((RecordMap<Assignment, AssignmentRecord>) args[0]);
+				}
+				return null;
+			});
+		TrackerService trackerService = new TrackerService(state, recordRepository, null, client,
+			immediateClientThread(), null, null, null, stub(SlayerPluginService.class, null));
+		state.setProfileFileName("profile");
+		state.setSessionStartMillis(System.currentTimeMillis());
+		CompletableFuture<RecordMap<Assignment, AssignmentRecord>> load = new CompletableFuture<>();
+		trackerService.startRecordsLoad(load);
+		creditKill(Assignment.GARGOYLES);
+
+		// Returns without waiting on the load
+		trackerService.handleLogout();
+		assertTrue(saves.isEmpty());
+
+		load.complete(savedRecords(Assignment.GARGOYLES, 3));
+
+		assertEquals(1, saves.size());
+		AssignmentRecord saved = saves.get(0).get(Assignment.GARGOYLES);
+		assertEquals(4, saved.getKc());
+		// The session's kill is closed into a session row
+		assertEquals(1, saved.getSessionRows().get(0, ResultRowList.KC));
+	}
+
+	@Test
+	public void lootOfUntrackedKillsIsNotHeldForPickup()
+	{
+		TrackerService trackerService = new TrackerService(state, null, null, client, null, null, null, null,
+			stub(SlayerPluginService.class, null));
+		state.setCurrentAssignment(Assignment.GARGOYLES);
+
+		// No kill event for the NPC, so nothing could be netted against supplies
+		trackerService.handleNpcLootReceived(new NpcLootReceived(gargoyle, List.of(new ItemStack(ItemID.COINS, 1000))));
+
+		assertTrue(state.getUnclaimedLoot().isEmpty());
+	}
+
+	@Test
+	public void hitsAreCreditedAndEachTargetTrackedOnce()
+	{
+		TrackerService trackerService = new TrackerService(state, null, null, client, null, null, null, null,
+			stub(SlayerPluginService.class, null));
+		state.setCurrentAssignment(Assignment.GARGOYLES);
+		state.setRemainingAmount(TASK_AMOUNT);
+		NPC other = stub(NPC.class, "Gargoyle");
+		NPC bystander = stub(NPC.class, "Goblin");
+		state.getEndedInteractions().addLast(new TrackerState.EndedInteraction(gargoyle, 95, false));
+		state.getEndedInteractions().addLast(new TrackerState.EndedInteraction(bystander, 96, false));
+
+		state.getHits().add(gargoyle, 10);
+		state.getHits().add(other, 7);
+		state.getHits().add(gargoyle, 5);
+		trackerService.flushHits(100);
+
+		assertEquals(22, state.getCurrentAssignmentRecord().getDamage());
+		assertEquals(0, state.getHits().size());
+		// The untouched entry stays first, and the ones hit move behind it once each
+		List<TrackerState.EndedInteraction> ended = new ArrayList<>(state.getEndedInteractions());
+		assertEquals(3, ended.size());
+		assertSame(bystander, ended.get(0).getNpc());
+		assertEquals(96, ended.get(0).getLastInteractedTick());
+		assertSame(gargoyle, ended.get(1).getNpc());
+		assertEquals(100, ended.get(1).getLastInteractedTick());
+		assertSame(other, ended.get(2).getNpc());
+		assertEquals(100, ended.get(2).getLastInteractedTick());
+	}
+
+	@Test
+	public void combatXpIsSplitAcrossKillsLikeSlayerXp()
+	{
+		TrackerService trackerService = new TrackerService(state, null, null, client, null, null, null, null,
+			stub(SlayerPluginService.class, null));
+		AssignmentRecord assignmentRecord = new AssignmentRecord(state);
+		state.getAssignmentRecords().put(Assignment.GARGOYLES, assignmentRecord);
+		List<TrackerState.KillEvent> killEvents = List.of(
+			new TrackerState.KillEvent(gargoyle, Assignment.GARGOYLES, 10, 5, -1, 0),
+			new TrackerState.KillEvent(gargoyle, Assignment.GARGOYLES, 10, 6, -1, 0),
+			// Off task, so its share is not credited anywhere
+			new TrackerState.KillEvent(gargoyle, null, 10, 7, -1, 0));
+		int attack = Record.combatSkillIndex(Skill.ATTACK);
+		int hitpoints = Record.combatSkillIndex(Skill.HITPOINTS);
+		state.getPendingCombatXp()[attack] = 100;
+		state.getPendingCombatXp()[hitpoints] = 33;
+
+		trackerService.applyCombatXpAllocations(killEvents, new int[]{2, 1, 1});
+
+		// 50 and 25 of the attack xp, and 17 and 8 of the hitpoints xp, with the remainder going last
+		assertEquals(75, assignmentRecord.getCombatXp()[attack]);
+		assertEquals(25, assignmentRecord.getCombatXp()[hitpoints]);
+		assertEquals(0, assignmentRecord.getCombatXp()[Record.combatSkillIndex(Skill.MAGIC)]);
+		assertEquals(0, state.getPendingCombatXp()[attack]);
+		assertEquals(0, state.getPendingCombatXp()[hitpoints]);
+	}
+
+	@Test
+	public void damageIsCreditedToTheSetupRegionAndRollups()
+	{
+		TrackerService trackerService = new TrackerService(state, null, null, client, null, null, null, null,
+			stub(SlayerPluginService.class, null));
+		state.setCurrentAssignment(Assignment.GARGOYLES);
+		state.setRemainingAmount(TASK_AMOUNT);
+		state.setCurrentRegionId(12850);
+		state.setGearFingerprint(42L);
+		state.setEquipment(new int[]{4151});
+		NPC other = stub(NPC.class, "Gargoyle");
+
+		// A splash still engages its target, but deals nothing
+		state.getHits().add(gargoyle, 0);
+		state.getHits().add(other, 12);
+		trackerService.flushHits(100);
+
+		AssignmentRecord assignmentRecord = state.getCurrentAssignmentRecord();
+		assertEquals(12, assignmentRecord.getDamage());
+		assertEquals(12, assignmentRecord.getGearRecords().get(42L).getDamage());
+		assertEquals(12, assignmentRecord.getRegions().getDamage(12850));
+		assertEquals(12, state.getRollups().getGlobal().getDamage());
+		assertEquals(2, state.getEndedInteractions().size());
+	}
+
+	private void creditKill(Assignment assignment)
+	{
+		AssignmentRecord pending = new AssignmentRecord(state);
+		pending.incrementKc();
+		state.getAssignmentRecords().put(assignment, pending);
+	}
+
+	private RecordMap<Assignment, AssignmentRecord> savedRecords(Assignment assignment, int kc)
+	{
+		AssignmentRecord record = new AssignmentRecord(state);
+		for (int i = 0; i < kc; i++)
+		{
+			record.incrementKc();
+		}
+		RecordMap<Assignment, AssignmentRecord> records = new RecordMap<>(state);
+		records.put(assignment, record);
+		return records;
+	}
+
+	// Runs what is posted to the client thread at once, as if the test were the client thread
+	private static ClientThread immediateClientThread()
+	{
+		return new ClientThread()
+		{
+			@Override
+			public void invokeLater(Runnable r)
+			{
+				r.run();
+			}
+		};
+	}
+
+	// Client interfaces answering as the local player on a fresh task with one target in sight
+	@SuppressWarnings("unchecked")
+	private <T> T stub(Class<T> type, String name)
+	{
+		return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+			switch (method.getName())
+			{
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+				case "getName":
+					return name;
+				case "getLocalPlayer":
+					return player;
+				case "getVarpValue":
+					return TASK_AMOUNT;
+				case "getTargets":
+					return List.of(gargoyle);
+			}
+			Class<?> returnType = method.getReturnType();
+			if (returnType == boolean.class)
+			{
+				return false;
+			}
+			if (returnType == int.class)
+			{
+				return 0;
+			}
+			if (returnType == long.class)
+			{
+				return 0L;
+			}
+			return null;
+		});
+	}
+}